@@ -27,6 +27,9 @@ public class SecurityConfig {
     @Value("${app.cors.allowed-origins}")
     private String allowedOrigins;
 
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -39,7 +42,10 @@ public class SecurityConfig {
             .and()
             .authorizeRequests()
                 .antMatchers("/h2-console/**").permitAll()
-                .antMatchers("/api/health").permitAll()
+                .antMatchers("/api/health", "/actuator/health").permitAll()
+                // Metrics are only served on the internal management port, never to API users
+                .requestMatchers(request -> request.getLocalPort() == managementPort).permitAll()
+                .antMatchers("/actuator/**").denyAll()
                 .antMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**", "/v3/api-docs.yaml").permitAll()
                 .antMatchers("/api/auth/login", "/api/auth/register", "/api/auth/refresh", "/api/auth/forgot-password", "/api/auth/google", "/api/auth/verify-email", "/api/auth/resend-verification").permitAll()
                 .antMatchers("/api/**").authenticated()
@@ -1,6 +1,7 @@
 package com.crm.controller;
 
 import com.crm.dto.ActivityDto;
+import com.crm.dto.CursorPage;
 import com.crm.entity.User;
 import com.crm.service.ActivityService;
 import org.springframework.http.ResponseEntity;
@@ -24,6 +25,15 @@ public class ActivityController {
         return ResponseEntity.ok(activityService.getRecentActivity(user.getId(), limit));
     }
 
+    // Cursor pagination for infinite scroll: pass the nextCursor of a page to get the next one
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<ActivityDto>> getRecentActivityPage(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(activityService.getRecentActivityPage(user.getId(), limit, cursor));
+    }
+
     @GetMapping("/contact/{contactId}")
     public ResponseEntity<List<ActivityDto>> getContactActivity(
             @PathVariable String contactId,
@@ -31,4 +41,13 @@ public class ActivityController {
             @AuthenticationPrincipal User user) {
         return ResponseEntity.ok(activityService.getContactActivity(user.getId(), contactId, limit));
     }
+
+    @GetMapping("/contact/{contactId}/page")
+    public ResponseEntity<CursorPage<ActivityDto>> getContactActivityPage(
+            @PathVariable String contactId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(activityService.getContactActivityPage(user.getId(), contactId, limit, cursor));
+    }
 }
@@ -3,10 +3,8 @@ package com.crm.controller;
 import com.crm.dto.AuthRequest;
 import com.crm.dto.AuthResponse;
 import com.crm.entity.User;
-import com.crm.repository.UserRepository;
 import com.crm.service.AuthService;
 import com.crm.service.GoogleAuthService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import javax.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -18,15 +16,10 @@ import java.util.Map;
 public class AuthController {
     private final AuthService authService;
     private final GoogleAuthService googleAuthService;
-    private final UserRepository userRepository;
-    private final ObjectMapper objectMapper;
 
-    public AuthController(AuthService authService, GoogleAuthService googleAuthService,
-                          UserRepository userRepository, ObjectMapper objectMapper) {
+    public AuthController(AuthService authService, GoogleAuthService googleAuthService) {
         this.authService = authService;
         this.googleAuthService = googleAuthService;
-        this.userRepository = userRepository;
-        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/register")
@@ -79,17 +72,7 @@ public class AuthController {
 
     @PutMapping("/profile")
     public ResponseEntity<AuthResponse.UserDto> updateProfile(@AuthenticationPrincipal User user, @RequestBody Map<String, Object> updates) {
-        if (updates.containsKey("name")) user.setName((String) updates.get("name"));
-        if (updates.containsKey("timezone")) user.setTimezone((String) updates.get("timezone"));
-        if (updates.containsKey("profilePicture")) user.setProfilePicture((String) updates.get("profilePicture"));
-        if (updates.containsKey("settings")) {
-            try {
-                user.setSettings(objectMapper.writeValueAsString(updates.get("settings")));
-            } catch (Exception e) {
-                user.setSettings(updates.get("settings").toString());
-            }
-        }
-        return ResponseEntity.ok(AuthResponse.UserDto.from(userRepository.save(user)));
+        return ResponseEntity.ok(AuthResponse.UserDto.from(authService.updateProfile(user, updates)));
     }
 
     @PostMapping("/change-password")
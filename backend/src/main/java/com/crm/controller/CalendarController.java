@@ -1,14 +1,19 @@
 package com.crm.controller;
 
 import com.crm.dto.CalendarEventDto;
+import com.crm.dto.ImportJobDto;
+import com.crm.entity.ImportJob;
 import com.crm.entity.User;
 import com.crm.service.CalendarService;
+import com.crm.service.ImportJobService;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -16,9 +21,11 @@ import java.util.Map;
 @RequestMapping("/api/calendar")
 public class CalendarController {
     private final CalendarService calendarService;
+    private final ImportJobService importJobService;
 
-    public CalendarController(CalendarService calendarService) {
+    public CalendarController(CalendarService calendarService, ImportJobService importJobService) {
         this.calendarService = calendarService;
+        this.importJobService = importJobService;
     }
 
     @GetMapping
@@ -97,4 +104,12 @@ public class CalendarController {
     public ResponseEntity<List<CalendarEventDto>> importFromIcs(@RequestBody String icsContent, @AuthenticationPrincipal User user) {
         return ResponseEntity.ok(calendarService.importFromIcs(user.getId(), icsContent));
     }
+
+    // Background ICS import; poll GET /api/jobs/{id} for progress
+    @PostMapping(value = "/import/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobDto> importFromIcsAsync(
+            @RequestParam("file") MultipartFile file,
+            @AuthenticationPrincipal User user) throws IOException {
+        return ResponseEntity.accepted().body(importJobService.submit(user.getId(), ImportJob.JobType.CALENDAR_ICS, file));
+    }
 }
@@ -2,10 +2,16 @@ package com.crm.controller;
 
 import com.crm.dto.ContactDto;
 import com.crm.dto.ContactSearchDto;
+import com.crm.dto.CursorPage;
+import com.crm.dto.ImportJobDto;
+import com.crm.dto.ImportReport;
 import com.crm.dto.ShareDto;
 import com.crm.entity.Contact;
+import com.crm.entity.ImportJob;
 import com.crm.entity.User;
+import com.crm.service.ContactImportService;
 import com.crm.service.ContactService;
+import com.crm.service.ImportJobService;
 import com.crm.service.ShareService;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
@@ -13,19 +19,36 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/contacts")
 public class ContactController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final ContactService contactService;
     private final ShareService shareService;
+    private final ContactImportService contactImportService;
+    private final ImportJobService importJobService;
 
-    public ContactController(ContactService contactService, ShareService shareService) {
+    public ContactController(ContactService contactService, ShareService shareService,
+                             ContactImportService contactImportService, ImportJobService importJobService) {
         this.contactService = contactService;
         this.shareService = shareService;
+        this.contactImportService = contactImportService;
+        this.importJobService = importJobService;
     }
 
     @GetMapping
@@ -33,6 +56,26 @@ public class ContactController {
         return ResponseEntity.ok(contactService.getAll(user.getId()));
     }
 
+    // Cursor pagination: sort=name (default) or sort=updated
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<ContactDto>> getPage(
+            @RequestParam Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "name") String sort,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(contactService.getPage(user.getId(), sort, cursor, limit));
+    }
+
+    // Streams the whole address book as newline-delimited JSON
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> stream(@AuthenticationPrincipal User user) {
+        String userId = user.getId();
+        StreamingResponseBody body = out -> contactService.writeAllAsNdjson(userId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ContactDto> getById(@PathVariable String id, @AuthenticationPrincipal User user) {
         return ResponseEntity.ok(contactService.getById(id, user.getId()));
@@ -98,14 +141,21 @@ public class ContactController {
         return ResponseEntity.ok(contactService.advancedSearch(user.getId(), searchDto));
     }
 
+    // Advanced search, one keyset page at a time
+    @PostMapping("/search/advanced/page")
+    public ResponseEntity<CursorPage<ContactDto>> advancedSearchPage(
+            @RequestBody ContactSearchDto searchDto,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(contactService.advancedSearchPage(user.getId(), searchDto));
+    }
+
     // CSV Export
     @GetMapping("/export/csv")
-    public ResponseEntity<String> exportToCsv(@AuthenticationPrincipal User user) {
-        String csv = contactService.exportToCsv(user.getId());
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=contacts.csv")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(csv);
+    public ResponseEntity<StreamingResponseBody> exportToCsv(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @AuthenticationPrincipal User user) {
+        String userId = user.getId();
+        return export("contacts.csv", "text/csv", acceptEncoding, out -> contactService.writeCsv(userId, out));
     }
 
     // CSV Import
@@ -116,6 +166,24 @@ public class ContactController {
         return ResponseEntity.ok(contactService.importFromCsv(user.getId(), csvContent));
     }
 
+    // Streaming CSV import from a file upload, with a per-row error report
+    @PostMapping(value = "/import/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportReport> importCsvFile(
+            @RequestParam("file") MultipartFile file,
+            @AuthenticationPrincipal User user) throws IOException {
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            return ResponseEntity.ok(contactImportService.importCsv(user.getId(), reader));
+        }
+    }
+
+    // Background CSV import; poll GET /api/jobs/{id} for progress
+    @PostMapping(value = "/import/csv/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobDto> importCsvAsync(
+            @RequestParam("file") MultipartFile file,
+            @AuthenticationPrincipal User user) throws IOException {
+        return ResponseEntity.accepted().body(importJobService.submit(user.getId(), ImportJob.JobType.CONTACTS_CSV, file));
+    }
+
     // vCard export for single contact
     @GetMapping("/{id}/vcard")
     public ResponseEntity<String> exportToVCard(
@@ -130,12 +198,11 @@ public class ContactController {
 
     // vCard export for all contacts
     @GetMapping("/export/vcard")
-    public ResponseEntity<String> exportAllToVCard(@AuthenticationPrincipal User user) {
-        String vcard = contactService.exportAllToVCard(user.getId());
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=contacts.vcf")
-                .contentType(MediaType.parseMediaType("text/vcard"))
-                .body(vcard);
+    public ResponseEntity<StreamingResponseBody> exportAllToVCard(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @AuthenticationPrincipal User user) {
+        String userId = user.getId();
+        return export("contacts.vcf", "text/vcard", acceptEncoding, out -> contactService.writeVCards(userId, out));
     }
 
     // Duplicate detection
@@ -144,6 +211,15 @@ public class ContactController {
         return ResponseEntity.ok(contactService.findDuplicates(user.getId()));
     }
 
+    // Marks contacts as not duplicates of each other
+    @PostMapping("/duplicates/dismiss")
+    public ResponseEntity<Void> dismissDuplicates(
+            @RequestBody Map<String, List<String>> body,
+            @AuthenticationPrincipal User user) {
+        contactService.dismissDuplicates(user.getId(), body.get("contactIds"));
+        return ResponseEntity.ok().build();
+    }
+
     // Merge contacts
     @PostMapping("/merge")
     public ResponseEntity<ContactDto> mergeContacts(
@@ -154,4 +230,28 @@ public class ContactController {
         List<String> mergeIds = (List<String>) body.get("mergeIds");
         return ResponseEntity.ok(contactService.mergeContacts(user.getId(), primaryId, mergeIds));
     }
+
+    // Streams an export straight to the response, gzip-compressed when the client accepts it
+    private ResponseEntity<StreamingResponseBody> export(String fileName, String contentType, String acceptEncoding,
+                                                         ExportWriter writer) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192, true) : null;
+            Writer text = new BufferedWriter(new OutputStreamWriter(gzip ? compressed : out, StandardCharsets.UTF_8));
+            writer.write(text);
+            text.flush();
+            if (compressed != null) compressed.finish();
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.parseMediaType(contentType + ";charset=UTF-8"));
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+
+    @FunctionalInterface
+    private interface ExportWriter {
+        void write(Writer out) throws IOException;
+    }
 }
@@ -1,39 +1,53 @@
 package com.crm.controller;
 
 import com.crm.entity.User;
+import com.crm.service.DashboardCache;
 import com.crm.service.DashboardService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
-import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
     private final DashboardService dashboardService;
+    private final DashboardCache dashboardCache;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, DashboardCache dashboardCache) {
         this.dashboardService = dashboardService;
+        this.dashboardCache = dashboardCache;
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getStats(@AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(dashboardService.getStats(user.getId()));
+    public ResponseEntity<byte[]> getStats(@AuthenticationPrincipal User user) {
+        return cached(user, DashboardCache.STATS, () -> dashboardService.getStats(user.getId()));
     }
 
     @GetMapping("/meetings-chart")
-    public ResponseEntity<List<Map<String, Object>>> getMeetingsChart(@AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(dashboardService.getMeetingsChart(user.getId()));
+    public ResponseEntity<byte[]> getMeetingsChart(@AuthenticationPrincipal User user) {
+        return cached(user, DashboardCache.MEETINGS_CHART, () -> dashboardService.getMeetingsChart(user.getId()));
     }
 
     @GetMapping("/medium-breakdown")
-    public ResponseEntity<List<Map<String, Object>>> getMediumBreakdown(@AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(dashboardService.getMediumBreakdown(user.getId()));
+    public ResponseEntity<byte[]> getMediumBreakdown(@AuthenticationPrincipal User user) {
+        return cached(user, DashboardCache.MEDIUM_BREAKDOWN, () -> dashboardService.getMediumBreakdown(user.getId()));
     }
 
     @GetMapping("/contacts-over-time")
-    public ResponseEntity<List<Map<String, Object>>> getContactsOverTime(@AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(dashboardService.getContactsOverTime(user.getId()));
+    public ResponseEntity<byte[]> getContactsOverTime(@AuthenticationPrincipal User user) {
+        return cached(user, DashboardCache.CONTACTS_OVER_TIME, () -> dashboardService.getContactsOverTime(user.getId()));
+    }
+
+    // A request whose If-None-Match matches the ETag gets a 304 without a body
+    private ResponseEntity<byte[]> cached(User user, String endpoint, Supplier<Object> loader) {
+        DashboardCache.Entry entry = dashboardCache.get(user.getId(), endpoint, loader);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(entry.getEtag())
+                .body(entry.getBody());
     }
 }
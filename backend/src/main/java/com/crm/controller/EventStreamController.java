@@ -0,0 +1,23 @@
+package com.crm.controller;
+
+import com.crm.entity.User;
+import com.crm.service.EventStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+public class EventStreamController {
+    private final EventStreamService eventStreamService;
+
+    public EventStreamController(EventStreamService eventStreamService) {
+        this.eventStreamService = eventStreamService;
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal User user) {
+        return eventStreamService.subscribe(user.getId());
+    }
+}
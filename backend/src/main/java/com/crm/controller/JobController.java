@@ -0,0 +1,29 @@
+package com.crm.controller;
+
+import com.crm.dto.ImportJobDto;
+import com.crm.entity.User;
+import com.crm.service.ImportJobService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+    private final ImportJobService importJobService;
+
+    public JobController(ImportJobService importJobService) {
+        this.importJobService = importJobService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ImportJobDto>> getRecent(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(importJobService.getRecent(user.getId()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobDto> getById(@PathVariable String id, @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(importJobService.get(id, user.getId()));
+    }
+}
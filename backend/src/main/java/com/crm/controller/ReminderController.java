@@ -19,12 +19,12 @@ public class ReminderController {
 
     @GetMapping
     public ResponseEntity<List<Reminder>> getAll(@AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(reminderRepository.findByUserIdAndStatus(user.getId(), Reminder.ReminderStatus.PENDING));
+        return ResponseEntity.ok(reminderRepository.findByUserIdAndStatusIn(user.getId(), Reminder.ACTIVE));
     }
 
     @GetMapping("/pending")
     public ResponseEntity<List<Reminder>> getPending(@AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(reminderRepository.findByUserIdAndStatus(user.getId(), Reminder.ReminderStatus.PENDING));
+        return ResponseEntity.ok(reminderRepository.findByUserIdAndStatusIn(user.getId(), Reminder.ACTIVE));
     }
 
     @PutMapping("/{id}/dismiss")
@@ -37,6 +37,22 @@ public class TemplateController {
         return ResponseEntity.ok(templateService.getTemplate(user.getId(), id));
     }
 
+    @GetMapping("/{id}/render/contact/{contactId}")
+    public ResponseEntity<TemplateDto.RenderedMessage> renderForContact(
+            @AuthenticationPrincipal User user,
+            @PathVariable String id,
+            @PathVariable String contactId) {
+        return ResponseEntity.ok(templateService.renderForContact(user.getId(), id, contactId));
+    }
+
+    @GetMapping("/{id}/render/group/{groupId}")
+    public ResponseEntity<List<TemplateDto.RenderedMessage>> renderForGroup(
+            @AuthenticationPrincipal User user,
+            @PathVariable String id,
+            @PathVariable String groupId) {
+        return ResponseEntity.ok(templateService.renderForGroup(user.getId(), id, groupId));
+    }
+
     @PostMapping
     public ResponseEntity<TemplateDto.TemplateResponse> createTemplate(
             @AuthenticationPrincipal User user,
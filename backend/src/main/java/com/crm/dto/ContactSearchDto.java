@@ -16,6 +16,8 @@ public class ContactSearchDto {
     private Boolean hasInstagram;
     private String sortBy;
     private String sortOrder;
+    private Integer limit;
+    private String cursor;
 
     public String getQuery() { return query; }
     public void setQuery(String query) { this.query = query; }
@@ -43,4 +45,8 @@ public class ContactSearchDto {
     public void setSortBy(String sortBy) { this.sortBy = sortBy; }
     public String getSortOrder() { return sortOrder; }
     public void setSortOrder(String sortOrder) { this.sortOrder = sortOrder; }
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
 }
@@ -0,0 +1,50 @@
+package com.crm.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportJobDto {
+    private String id;
+    private String type;
+    private String status;
+    private String fileName;
+    private int rowsRead;
+    private int rowsInserted;
+    private int rowsFailed;
+    private double rowsPerSecond;
+    private boolean errorsTruncated;
+    private List<ImportReport.RowError> errors = new ArrayList<>();
+    private String errorMessage;
+    private String createdAt;
+    private String startedAt;
+    private String finishedAt;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public int getRowsRead() { return rowsRead; }
+    public void setRowsRead(int rowsRead) { this.rowsRead = rowsRead; }
+    public int getRowsInserted() { return rowsInserted; }
+    public void setRowsInserted(int rowsInserted) { this.rowsInserted = rowsInserted; }
+    public int getRowsFailed() { return rowsFailed; }
+    public void setRowsFailed(int rowsFailed) { this.rowsFailed = rowsFailed; }
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+    public List<ImportReport.RowError> getErrors() { return errors; }
+    public void setErrors(List<ImportReport.RowError> errors) { this.errors = errors; }
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public String getCreatedAt() { return createdAt; }
+    public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+    public String getStartedAt() { return startedAt; }
+    public void setStartedAt(String startedAt) { this.startedAt = startedAt; }
+    public String getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(String finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -19,6 +19,7 @@ public class TemplateDto {
         private String name;
         private String type;
         private String content;
+        private int version;
         private String createdAt;
 
         public static TemplateResponse from(MessageTemplate template) {
@@ -27,6 +28,7 @@ public class TemplateDto {
             response.name = template.getName();
             response.type = template.getType().name();
             response.content = template.getContent();
+            response.version = template.getVersion();
             response.createdAt = template.getCreatedAt() != null ? template.getCreatedAt().toString() : null;
             return response;
         }
@@ -35,6 +37,23 @@ public class TemplateDto {
         public String getName() { return name; }
         public String getType() { return type; }
         public String getContent() { return content; }
+        public int getVersion() { return version; }
         public String getCreatedAt() { return createdAt; }
     }
+
+    public static class RenderedMessage {
+        private final String contactId;
+        private final String contactName;
+        private final String text;
+
+        public RenderedMessage(String contactId, String contactName, String text) {
+            this.contactId = contactId;
+            this.contactName = contactName;
+            this.text = text;
+        }
+
+        public String getContactId() { return contactId; }
+        public String getContactName() { return contactName; }
+        public String getText() { return text; }
+    }
 }
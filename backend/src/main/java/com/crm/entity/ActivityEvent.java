@@ -0,0 +1,51 @@
+package com.crm.entity;
+
+import javax.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a user's activity feed, written in the same transaction as the meeting, task,
+ * contact or share it describes. Rows are only inserted and deleted: editing a meeting or task
+ * replaces its row, deleting one removes it. occurredAt is the time the feed shows: the meeting
+ * date, or when the task, contact or share was created.
+ */
+@Entity
+@Table(name = "activity_events", indexes = {
+        @Index(name = "idx_activity_events_user_time", columnList = "userId,occurredAt"),
+        @Index(name = "idx_activity_events_contact_time", columnList = "contactId,occurredAt"),
+        @Index(name = "idx_activity_events_source", columnList = "sourceId"),
+        @Index(name = "idx_activity_events_time", columnList = "occurredAt")
+})
+public class ActivityEvent {
+    @Id @GenericGenerator(name = "uuid2", strategy = "uuid2") @GeneratedValue(generator = "uuid2") private String id;
+    @Column(nullable = false) private String userId;
+    private String contactId;
+    @Enumerated(EnumType.STRING) @Column(nullable = false) private EventType type;
+    @Column(nullable = false) private String sourceId; // Id of the meeting, task, contact or share
+    @Column(nullable = false) private LocalDateTime occurredAt;
+    private String title; // Meeting medium, task title or the name of the user a contact was shared with
+    @Column(columnDefinition = "TEXT") private String details; // JSON object
+    @CreationTimestamp private LocalDateTime createdAt;
+
+    public enum EventType { MEETING, TASK, CONTACT_CREATED, SHARE }
+
+    public ActivityEvent() {}
+    public String getId() { return id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getContactId() { return contactId; }
+    public void setContactId(String contactId) { this.contactId = contactId; }
+    public EventType getType() { return type; }
+    public void setType(EventType type) { this.type = type; }
+    public String getSourceId() { return sourceId; }
+    public void setSourceId(String sourceId) { this.sourceId = sourceId; }
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getDetails() { return details; }
+    public void setDetails(String details) { this.details = details; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
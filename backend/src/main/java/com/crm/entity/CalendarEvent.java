@@ -7,7 +7,9 @@ import org.hibernate.annotations.GenericGenerator;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "calendar_events")
+@Table(name = "calendar_events", indexes = {
+        @Index(name = "idx_calendar_events_reminder", columnList = "status,reminderSent,startTime")
+})
 public class CalendarEvent {
     @Id @GenericGenerator(name = "uuid2", strategy = "uuid2") @GeneratedValue(generator = "uuid2")
     private String id;
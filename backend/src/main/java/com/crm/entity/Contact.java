@@ -6,9 +6,14 @@ import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.GenericGenerator;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "contacts")
+@Table(name = "contacts", indexes = {
+        @Index(name = "idx_contacts_user_id", columnList = "userId"),
+        @Index(name = "idx_contacts_user_created", columnList = "userId,createdAt")
+})
 public class Contact {
     @Id @GenericGenerator(name = "uuid2", strategy = "uuid2") @GeneratedValue(generator = "uuid2")
     private String id;
@@ -29,6 +34,26 @@ public class Contact {
     @CreationTimestamp private LocalDateTime createdAt;
     @UpdateTimestamp private LocalDateTime updatedAt;
 
+    // Normalized copies of the emails/phones/tags JSON columns, which remain the full-text source.
+    @ElementCollection
+    @CollectionTable(name = "contact_emails", joinColumns = @JoinColumn(name = "contact_id"),
+            indexes = @Index(name = "idx_contact_emails_lower", columnList = "email_lower"))
+    @OrderColumn(name = "sort_order")
+    private List<ContactEmail> emailEntries = new ArrayList<>();
+
+    @ElementCollection
+    @CollectionTable(name = "contact_phones", joinColumns = @JoinColumn(name = "contact_id"),
+            indexes = @Index(name = "idx_contact_phones_digits", columnList = "phone_digits"))
+    @OrderColumn(name = "sort_order")
+    private List<ContactPhone> phoneEntries = new ArrayList<>();
+
+    @ElementCollection
+    @CollectionTable(name = "contact_tags", joinColumns = @JoinColumn(name = "contact_id"),
+            indexes = @Index(name = "idx_contact_tags_tag", columnList = "tag"))
+    @OrderColumn(name = "sort_order")
+    @Column(name = "tag", nullable = false)
+    private List<String> tagEntries = new ArrayList<>();
+
     public Contact() {}
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -62,4 +87,7 @@ public class Contact {
     public void setLastContactedAt(LocalDateTime lastContactedAt) { this.lastContactedAt = lastContactedAt; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public List<ContactEmail> getEmailEntries() { return emailEntries; }
+    public List<ContactPhone> getPhoneEntries() { return phoneEntries; }
+    public List<String> getTagEntries() { return tagEntries; }
 }
@@ -0,0 +1,22 @@
+package com.crm.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.util.Locale;
+
+@Embeddable
+public class ContactEmail {
+    @Column(name = "email", nullable = false) private String email;
+    @Column(name = "email_lower", nullable = false) private String emailLower;
+
+    public ContactEmail() {}
+    public ContactEmail(String email) {
+        this.email = email;
+        this.emailLower = email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    public String getEmailLower() { return emailLower; }
+    public void setEmailLower(String emailLower) { this.emailLower = emailLower; }
+}
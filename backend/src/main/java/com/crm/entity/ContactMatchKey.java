@@ -0,0 +1,39 @@
+package com.crm.entity;
+
+import javax.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+
+/**
+ * One blocking key of a contact, e.g. "E:ann@example.com", "P:5550102030" or "N:AN SM0".
+ * Maintained alongside the contact so duplicates of a contact can be found with an index lookup.
+ */
+@Entity
+@Table(name = "contact_match_keys", indexes = {
+        @Index(name = "idx_contact_match_keys_user_key", columnList = "userId,matchKey"),
+        @Index(name = "idx_contact_match_keys_contact", columnList = "contactId")
+})
+public class ContactMatchKey {
+    @Id @GenericGenerator(name = "uuid2", strategy = "uuid2") @GeneratedValue(generator = "uuid2") private String id;
+    @Column(nullable = false) private String userId;
+    @Column(nullable = false) private String contactId;
+    @Column(nullable = false) private String matchKey;
+    private String normalizedName; // Set on name keys, for the similarity check
+
+    public ContactMatchKey() {}
+    public ContactMatchKey(String userId, String contactId, String matchKey, String normalizedName) {
+        this.userId = userId;
+        this.contactId = contactId;
+        this.matchKey = matchKey;
+        this.normalizedName = normalizedName;
+    }
+
+    public String getId() { return id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getContactId() { return contactId; }
+    public void setContactId(String contactId) { this.contactId = contactId; }
+    public String getMatchKey() { return matchKey; }
+    public void setMatchKey(String matchKey) { this.matchKey = matchKey; }
+    public String getNormalizedName() { return normalizedName; }
+    public void setNormalizedName(String normalizedName) { this.normalizedName = normalizedName; }
+}
@@ -0,0 +1,22 @@
+package com.crm.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+@Embeddable
+public class ContactPhone {
+    @Column(name = "phone", nullable = false) private String phone;
+    @Column(name = "phone_digits", nullable = false, length = 32) private String phoneDigits;
+
+    public ContactPhone() {}
+    public ContactPhone(String phone) {
+        this.phone = phone;
+        String digits = phone.replaceAll("[^0-9]", "");
+        this.phoneDigits = digits.length() > 32 ? digits.substring(0, 32) : digits;
+    }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+    public String getPhoneDigits() { return phoneDigits; }
+    public void setPhoneDigits(String phoneDigits) { this.phoneDigits = phoneDigits; }
+}
@@ -0,0 +1,41 @@
+package com.crm.entity;
+
+import javax.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import java.time.LocalDate;
+
+/**
+ * A per-user count for one dashboard chart bucket. MEETINGS buckets are days (meetings by
+ * meetingDate), CONTACTS buckets are the first day of a month (contacts by createdAt).
+ */
+@Entity
+@Table(name = "dashboard_counters", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_dashboard_counters_bucket", columnNames = {"userId", "metric", "bucket"})
+})
+public class DashboardCounter {
+    @Id @GenericGenerator(name = "uuid2", strategy = "uuid2") @GeneratedValue(generator = "uuid2") private String id;
+    @Column(nullable = false) private String userId;
+    @Enumerated(EnumType.STRING) @Column(nullable = false) private Metric metric;
+    @Column(nullable = false) private LocalDate bucket;
+    private long total;
+
+    public enum Metric { MEETINGS, CONTACTS }
+
+    public DashboardCounter() {}
+    public DashboardCounter(String userId, Metric metric, LocalDate bucket, long total) {
+        this.userId = userId;
+        this.metric = metric;
+        this.bucket = bucket;
+        this.total = total;
+    }
+
+    public String getId() { return id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public Metric getMetric() { return metric; }
+    public void setMetric(Metric metric) { this.metric = metric; }
+    public LocalDate getBucket() { return bucket; }
+    public void setBucket(LocalDate bucket) { this.bucket = bucket; }
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+}
@@ -0,0 +1,47 @@
+package com.crm.entity;
+
+import javax.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import java.time.LocalDateTime;
+
+/**
+ * A pair of contacts that look like the same person. contactA is always the smaller id, so each
+ * pair is stored once. Dismissed pairs are kept so they are not suggested again.
+ */
+@Entity
+@Table(name = "duplicate_candidates", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_duplicate_candidates_pair", columnNames = {"contactA", "contactB"})
+}, indexes = {
+        @Index(name = "idx_duplicate_candidates_user_status", columnList = "userId,status"),
+        @Index(name = "idx_duplicate_candidates_contact_b", columnList = "contactB")
+})
+public class DuplicateCandidate {
+    @Id @GenericGenerator(name = "uuid2", strategy = "uuid2") @GeneratedValue(generator = "uuid2") private String id;
+    @Column(nullable = false) private String userId;
+    @Column(nullable = false) private String contactA;
+    @Column(nullable = false) private String contactB;
+    @Enumerated(EnumType.STRING) @Column(nullable = false) private MatchReason reason;
+    private double score;
+    @Enumerated(EnumType.STRING) @Column(nullable = false) private CandidateStatus status = CandidateStatus.OPEN;
+    @CreationTimestamp private LocalDateTime createdAt;
+
+    public enum MatchReason { EMAIL, PHONE, NAME }
+    public enum CandidateStatus { OPEN, DISMISSED }
+
+    public DuplicateCandidate() {}
+    public String getId() { return id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public String getContactA() { return contactA; }
+    public void setContactA(String contactA) { this.contactA = contactA; }
+    public String getContactB() { return contactB; }
+    public void setContactB(String contactB) { this.contactB = contactB; }
+    public MatchReason getReason() { return reason; }
+    public void setReason(MatchReason reason) { this.reason = reason; }
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+    public CandidateStatus getStatus() { return status; }
+    public void setStatus(CandidateStatus status) { this.status = status; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
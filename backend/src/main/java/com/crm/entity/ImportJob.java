@@ -0,0 +1,66 @@
+package com.crm.entity;
+
+import javax.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "import_jobs", indexes = {
+        @Index(name = "idx_import_jobs_user_created", columnList = "userId,createdAt"),
+        @Index(name = "idx_import_jobs_status", columnList = "status")
+})
+public class ImportJob {
+    @Id @GenericGenerator(name = "uuid2", strategy = "uuid2") @GeneratedValue(generator = "uuid2") private String id;
+    @Column(nullable = false) private String userId;
+    @Enumerated(EnumType.STRING) @Column(nullable = false) private JobType type;
+    @Enumerated(EnumType.STRING) @Column(nullable = false) private JobStatus status = JobStatus.QUEUED;
+    private String fileName;
+    private String spoolPath; // Uploaded file kept on local disk until the job finishes
+    // Progress as of the last committed batch; rowsRead is also the resume checkpoint
+    private int rowsRead;
+    private int rowsInserted;
+    private int rowsFailed;
+    @Column(columnDefinition = "TEXT") private String errors; // JSON array of {line, message}
+    private boolean errorsTruncated;
+    @Column(length = 1000) private String errorMessage;
+    @CreationTimestamp private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime checkpointAt;
+    private LocalDateTime finishedAt;
+
+    public enum JobType { CONTACTS_CSV, CALENDAR_ICS }
+    public enum JobStatus { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    public ImportJob() {}
+    public String getId() { return id; }
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public JobType getType() { return type; }
+    public void setType(JobType type) { this.type = type; }
+    public JobStatus getStatus() { return status; }
+    public void setStatus(JobStatus status) { this.status = status; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public String getSpoolPath() { return spoolPath; }
+    public void setSpoolPath(String spoolPath) { this.spoolPath = spoolPath; }
+    public int getRowsRead() { return rowsRead; }
+    public void setRowsRead(int rowsRead) { this.rowsRead = rowsRead; }
+    public int getRowsInserted() { return rowsInserted; }
+    public void setRowsInserted(int rowsInserted) { this.rowsInserted = rowsInserted; }
+    public int getRowsFailed() { return rowsFailed; }
+    public void setRowsFailed(int rowsFailed) { this.rowsFailed = rowsFailed; }
+    public String getErrors() { return errors; }
+    public void setErrors(String errors) { this.errors = errors; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getCheckpointAt() { return checkpointAt; }
+    public void setCheckpointAt(LocalDateTime checkpointAt) { this.checkpointAt = checkpointAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,53 @@
+package com.crm.entity;
+
+import javax.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One slice of a scheduled job's run, claimed and processed by a single instance at a time. A
+ * RUNNING shard whose {@code leaseUntil} has passed lost its instance and can be claimed again.
+ */
+@Entity
+@Table(name = "job_shards", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_job_shards_run_shard", columnNames = {"job", "runDate", "shard"})
+}, indexes = {
+        @Index(name = "idx_job_shards_job_status", columnList = "job,status,runDate")
+})
+public class JobShard {
+    @Id @GenericGenerator(name = "uuid2", strategy = "uuid2") @GeneratedValue(generator = "uuid2") private String id;
+    @Column(nullable = false, length = 100) private String job;
+    @Column(nullable = false) private LocalDate runDate;
+    private int shard;
+    private int shardCount;
+    @Enumerated(EnumType.STRING) @Column(nullable = false) private ShardStatus status = ShardStatus.PENDING;
+    private String owner;
+    private LocalDateTime leaseUntil;
+    private int attempts;
+    @CreationTimestamp private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    public enum ShardStatus { PENDING, RUNNING, DONE }
+
+    public JobShard() {}
+    public JobShard(String job, LocalDate runDate, int shard, int shardCount) {
+        this.job = job;
+        this.runDate = runDate;
+        this.shard = shard;
+        this.shardCount = shardCount;
+    }
+
+    public String getId() { return id; }
+    public String getJob() { return job; }
+    public LocalDate getRunDate() { return runDate; }
+    public int getShard() { return shard; }
+    public int getShardCount() { return shardCount; }
+    public ShardStatus getStatus() { return status; }
+    public String getOwner() { return owner; }
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+    public int getAttempts() { return attempts; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+}
@@ -8,7 +8,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "meetings")
+@Table(name = "meetings", indexes = {
+        @Index(name = "idx_meetings_user_date", columnList = "userId,meetingDate"),
+        @Index(name = "idx_meetings_contact_date", columnList = "contactId,meetingDate")
+})
 public class Meeting {
     @Id @GenericGenerator(name = "uuid2", strategy = "uuid2") @GeneratedValue(generator = "uuid2") private String id;
     @Column(nullable = false) private String contactId;
@@ -26,6 +26,10 @@ public class MessageTemplate {
     @Column(columnDefinition = "TEXT", nullable = false)
     private String content;
 
+    // Bumped whenever the content changes, so compiled copies keyed by id and version go stale
+    @Column(nullable = false, columnDefinition = "int default 0")
+    private int version;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -47,5 +51,7 @@ public class MessageTemplate {
     public void setType(TemplateType type) { this.type = type; }
     public String getContent() { return content; }
     public void setContent(String content) { this.content = content; }
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
     public LocalDateTime getCreatedAt() { return createdAt; }
 }
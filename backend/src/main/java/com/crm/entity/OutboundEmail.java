@@ -0,0 +1,75 @@
+package com.crm.entity;
+
+import javax.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import java.time.LocalDateTime;
+
+/**
+ * A plain-text email waiting in the outbox. It is written in the same transaction as whatever
+ * caused it and sent later by EmailOutboxSender; a SENDING row whose {@code claimedUntil} has
+ * passed lost its instance and goes back to PENDING. After too many failed attempts it is left
+ * DEAD, with the last error, for someone to look at. Bulk mail such as digests has a lower
+ * priority, so a verification email never queues behind a digest run.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next", columnList = "status,priority,nextAttemptAt"),
+        @Index(name = "idx_email_outbox_claimed", columnList = "claimedBy,status")
+})
+public class OutboundEmail {
+    @Id @GenericGenerator(name = "uuid2", strategy = "uuid2") @GeneratedValue(generator = "uuid2") private String id;
+    @Column(nullable = false, length = 320) private String toAddress;
+    @Column(nullable = false, length = 500) private String subject;
+    @Column(columnDefinition = "TEXT", nullable = false) private String body;
+    @Column(nullable = false, length = 50) private String category;
+    @Column(nullable = false, columnDefinition = "int default 0") private int priority = TRANSACTIONAL;
+    // Set for emails that must go out at most once per key, such as one digest per user and day
+    @Column(unique = true) private String dedupeKey;
+    @Enumerated(EnumType.STRING) @Column(nullable = false) private EmailStatus status = EmailStatus.PENDING;
+    private int attempts;
+    @Column(nullable = false) private LocalDateTime nextAttemptAt;
+    private String claimedBy;
+    private LocalDateTime claimedUntil;
+    @Column(length = 1000) private String lastError;
+    @CreationTimestamp private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+    public enum EmailStatus { PENDING, SENDING, SENT, DEAD }
+    public static final int TRANSACTIONAL = 0;
+    public static final int BULK = 1;
+
+    public OutboundEmail() {}
+    public OutboundEmail(String toAddress, String subject, String body, String category) {
+        this.toAddress = toAddress;
+        this.subject = subject;
+        this.body = body;
+        this.category = category;
+        this.nextAttemptAt = LocalDateTime.now();
+    }
+
+    public String getId() { return id; }
+    public String getToAddress() { return toAddress; }
+    public String getSubject() { return subject; }
+    public String getBody() { return body; }
+    public String getCategory() { return category; }
+    public int getPriority() { return priority; }
+    public void setPriority(int priority) { this.priority = priority; }
+    public String getDedupeKey() { return dedupeKey; }
+    public void setDedupeKey(String dedupeKey) { this.dedupeKey = dedupeKey; }
+    public EmailStatus getStatus() { return status; }
+    public void setStatus(EmailStatus status) { this.status = status; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    public String getClaimedBy() { return claimedBy; }
+    public void setClaimedBy(String claimedBy) { this.claimedBy = claimedBy; }
+    public LocalDateTime getClaimedUntil() { return claimedUntil; }
+    public void setClaimedUntil(LocalDateTime claimedUntil) { this.claimedUntil = claimedUntil; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+}
@@ -4,9 +4,14 @@ import javax.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
-@Table(name = "reminders")
+@Table(name = "reminders", indexes = {
+        @Index(name = "idx_reminders_user_status", columnList = "userId,status"),
+        @Index(name = "idx_reminders_contact_type_status", columnList = "contactId,type,status"),
+        @Index(name = "idx_reminders_status_scheduled", columnList = "status,scheduledAt")
+})
 public class Reminder {
     @Id @GenericGenerator(name = "uuid2", strategy = "uuid2") @GeneratedValue(generator = "uuid2") private String id;
     @Column(nullable = false) private String userId;
@@ -19,6 +24,8 @@ public class Reminder {
 
     public enum ReminderType { BIRTHDAY, ANNIVERSARY, FOLLOWUP, NO_CONTACT, SHARE }
     public enum ReminderStatus { PENDING, SENT, DISMISSED }
+    // Not dismissed: shown in the app, and no other reminder of the same type is generated meanwhile
+    public static final List<ReminderStatus> ACTIVE = List.of(ReminderStatus.PENDING, ReminderStatus.SENT);
 
     public Reminder() {}
     public String getId() { return id; }
@@ -0,0 +1,30 @@
+package com.crm.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A named lock shared by all instances, held by {@code lockedBy} until {@code lockedUntil}. An
+ * expired lease can be taken over by any instance; see SchedulerLeaseService.
+ */
+@Entity
+@Table(name = "scheduler_leases")
+public class SchedulerLease {
+    @Id @Column(length = 100) private String name;
+    @Column(nullable = false) private String lockedBy;
+    @Column(nullable = false) private LocalDateTime lockedAt;
+    @Column(nullable = false) private LocalDateTime lockedUntil;
+
+    public SchedulerLease() {}
+    public SchedulerLease(String name, String lockedBy, LocalDateTime lockedAt, LocalDateTime lockedUntil) {
+        this.name = name;
+        this.lockedBy = lockedBy;
+        this.lockedAt = lockedAt;
+        this.lockedUntil = lockedUntil;
+    }
+
+    public String getName() { return name; }
+    public String getLockedBy() { return lockedBy; }
+    public LocalDateTime getLockedAt() { return lockedAt; }
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+}
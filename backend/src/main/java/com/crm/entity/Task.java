@@ -8,7 +8,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_user_created", columnList = "userId,createdAt"),
+        @Index(name = "idx_tasks_contact_created", columnList = "contactId,createdAt")
+})
 public class Task {
     @Id @GenericGenerator(name = "uuid2", strategy = "uuid2") @GeneratedValue(generator = "uuid2")
     private String id;
@@ -71,6 +71,29 @@ public class User {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
 
+    /**
+     * A detached copy with every column, so a copy that is saved writes back the same row.
+     */
+    public User copy() {
+        User copy = new User();
+        copy.id = id;
+        copy.email = email;
+        copy.passwordHash = passwordHash;
+        copy.googleId = googleId;
+        copy.name = name;
+        copy.profilePicture = profilePicture;
+        copy.timezone = timezone;
+        copy.birthday = birthday;
+        copy.anniversary = anniversary;
+        copy.settings = settings;
+        copy.emailVerified = emailVerified;
+        copy.verificationToken = verificationToken;
+        copy.verificationTokenExpiry = verificationTokenExpiry;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
     public static Builder builder() { return new Builder(); }
 
     public static class Builder {
@@ -0,0 +1,17 @@
+package com.crm.event;
+
+import com.crm.entity.ActivityEvent;
+
+/**
+ * Published when an entry is appended to a user's activity feed.
+ */
+public class ActivityRecordedEvent {
+    private final ActivityEvent event;
+
+    public ActivityRecordedEvent(ActivityEvent event) {
+        this.event = event;
+    }
+
+    public String getUserId() { return event.getUserId(); }
+    public ActivityEvent getEvent() { return event; }
+}
@@ -0,0 +1,41 @@
+package com.crm.event;
+
+import com.crm.entity.Contact;
+
+/**
+ * Published by the contact write paths (create, update, delete, merge, tag rename) so that
+ * derived read models can follow along without the services knowing about them.
+ * {@code contact} holds the saved state, or the last state for deletions.
+ */
+public class ContactChangedEvent {
+    public enum ChangeType { CREATED, UPDATED, DELETED }
+
+    private final ChangeType type;
+    private final String userId;
+    private final String contactId;
+    private final Contact contact;
+
+    private ContactChangedEvent(ChangeType type, String userId, String contactId, Contact contact) {
+        this.type = type;
+        this.userId = userId;
+        this.contactId = contactId;
+        this.contact = contact;
+    }
+
+    public static ContactChangedEvent created(Contact contact) {
+        return new ContactChangedEvent(ChangeType.CREATED, contact.getUserId(), contact.getId(), contact);
+    }
+
+    public static ContactChangedEvent updated(Contact contact) {
+        return new ContactChangedEvent(ChangeType.UPDATED, contact.getUserId(), contact.getId(), contact);
+    }
+
+    public static ContactChangedEvent deleted(Contact contact) {
+        return new ContactChangedEvent(ChangeType.DELETED, contact.getUserId(), contact.getId(), contact);
+    }
+
+    public ChangeType getType() { return type; }
+    public String getUserId() { return userId; }
+    public String getContactId() { return contactId; }
+    public Contact getContact() { return contact; }
+}
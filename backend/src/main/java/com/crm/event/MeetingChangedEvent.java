@@ -0,0 +1,40 @@
+package com.crm.event;
+
+import com.crm.entity.Meeting;
+import java.time.LocalDateTime;
+
+/**
+ * Published when a meeting is logged, edited or deleted, including the meetings recorded by
+ * completing a calendar event. {@code meeting} holds the saved state, or the last state for
+ * deletions; {@code previousMeetingDate} is set on updates.
+ */
+public class MeetingChangedEvent {
+    public enum ChangeType { CREATED, UPDATED, DELETED }
+
+    private final ChangeType type;
+    private final Meeting meeting;
+    private final LocalDateTime previousMeetingDate;
+
+    private MeetingChangedEvent(ChangeType type, Meeting meeting, LocalDateTime previousMeetingDate) {
+        this.type = type;
+        this.meeting = meeting;
+        this.previousMeetingDate = previousMeetingDate;
+    }
+
+    public static MeetingChangedEvent created(Meeting meeting) {
+        return new MeetingChangedEvent(ChangeType.CREATED, meeting, null);
+    }
+
+    public static MeetingChangedEvent updated(Meeting meeting, LocalDateTime previousMeetingDate) {
+        return new MeetingChangedEvent(ChangeType.UPDATED, meeting, previousMeetingDate);
+    }
+
+    public static MeetingChangedEvent deleted(Meeting meeting) {
+        return new MeetingChangedEvent(ChangeType.DELETED, meeting, null);
+    }
+
+    public ChangeType getType() { return type; }
+    public String getUserId() { return meeting.getUserId(); }
+    public Meeting getMeeting() { return meeting; }
+    public LocalDateTime getPreviousMeetingDate() { return previousMeetingDate; }
+}
@@ -0,0 +1,29 @@
+package com.crm.event;
+
+import com.crm.entity.Reminder;
+import java.util.List;
+
+/**
+ * Published when reminders are saved for a user, one event per save, so a batch of date
+ * reminders for imported contacts arrives as a single event.
+ */
+public class ReminderCreatedEvent {
+    private final String userId;
+    private final List<Reminder> reminders;
+
+    private ReminderCreatedEvent(String userId, List<Reminder> reminders) {
+        this.userId = userId;
+        this.reminders = reminders;
+    }
+
+    public static ReminderCreatedEvent of(Reminder reminder) {
+        return new ReminderCreatedEvent(reminder.getUserId(), List.of(reminder));
+    }
+
+    public static ReminderCreatedEvent of(String userId, List<Reminder> reminders) {
+        return new ReminderCreatedEvent(userId, reminders);
+    }
+
+    public String getUserId() { return userId; }
+    public List<Reminder> getReminders() { return reminders; }
+}
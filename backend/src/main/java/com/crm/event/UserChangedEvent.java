@@ -0,0 +1,28 @@
+package com.crm.event;
+
+/**
+ * Published when a user's account changes (profile, password, verification, linked Google
+ * account) or is deleted, so anything holding a copy of the user can drop it. For a deleted
+ * account it is published in the deleting transaction, so read models derived from the user's
+ * contacts and meetings can remove their rows along with them.
+ */
+public class UserChangedEvent {
+    private final String userId;
+    private final boolean deleted;
+
+    public UserChangedEvent(String userId) {
+        this(userId, false);
+    }
+
+    private UserChangedEvent(String userId, boolean deleted) {
+        this.userId = userId;
+        this.deleted = deleted;
+    }
+
+    public static UserChangedEvent deleted(String userId) {
+        return new UserChangedEvent(userId, true);
+    }
+
+    public String getUserId() { return userId; }
+    public boolean isDeleted() { return deleted; }
+}
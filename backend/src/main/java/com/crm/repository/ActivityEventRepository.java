@@ -0,0 +1,35 @@
+package com.crm.repository;
+
+import com.crm.entity.ActivityEvent;
+import com.crm.entity.ActivityEvent.EventType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ActivityEventRepository extends JpaRepository<ActivityEvent, String> {
+    // Feed pages as [event, current contact name] rows, newest first, strictly after the
+    // (occurredAt, id) position of the previous page's last event
+    @Query("SELECT e, c.name FROM ActivityEvent e LEFT JOIN Contact c ON c.id = e.contactId " +
+           "WHERE e.userId = ?1 AND (e.occurredAt < ?2 OR (e.occurredAt = ?2 AND e.id < ?3)) " +
+           "ORDER BY e.occurredAt DESC, e.id DESC")
+    List<Object[]> findFeed(String userId, LocalDateTime beforeTime, String beforeId, Pageable page);
+
+    @Query("SELECT e FROM ActivityEvent e WHERE e.contactId = ?1 AND e.userId = ?2 " +
+           "AND (e.occurredAt < ?3 OR (e.occurredAt = ?3 AND e.id < ?4)) ORDER BY e.occurredAt DESC, e.id DESC")
+    List<ActivityEvent> findContactFeed(String contactId, String userId, LocalDateTime beforeTime, String beforeId,
+                                        Pageable page);
+
+    @Modifying
+    @Query("DELETE FROM ActivityEvent e WHERE e.sourceId = ?1 AND e.type = ?2")
+    int deleteBySource(String sourceId, EventType type);
+
+    @Modifying
+    @Query("DELETE FROM ActivityEvent e WHERE e.userId = ?1")
+    int deleteByUserId(String userId);
+
+    @Query("SELECT e.id FROM ActivityEvent e WHERE e.occurredAt < ?1 ORDER BY e.occurredAt")
+    List<String> findIdsOccurredBefore(LocalDateTime cutoff, Pageable page);
+}
@@ -2,9 +2,13 @@ package com.crm.repository;
 
 import com.crm.entity.CalendarEvent;
 import com.crm.entity.CalendarEvent.EventStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,5 +30,14 @@ public interface CalendarEventRepository extends JpaRepository<CalendarEvent, St
     @Query("SELECT e FROM CalendarEvent e WHERE e.reminderSent = false AND e.status = 'SCHEDULED' AND e.startTime <= ?1")
     List<CalendarEvent> findEventsNeedingReminder(LocalDateTime reminderTime);
 
+    // [id, startTime, reminderMinutes] of scheduled events starting in the window whose reminder is unsent
+    @Query("SELECT e.id, e.startTime, e.reminderMinutes FROM CalendarEvent e WHERE e.reminderSent = false " +
+           "AND e.status = ?1 AND e.startTime >= ?2 AND e.startTime < ?3 ORDER BY e.startTime")
+    List<Object[]> findUnremindedStarting(EventStatus status, LocalDateTime from, LocalDateTime to, Pageable page);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM CalendarEvent e WHERE e.id IN ?1 AND e.reminderSent = false")
+    List<CalendarEvent> lockUnreminded(Collection<String> ids);
+
     long countByUserIdAndStatus(String userId, EventStatus status);
 }
@@ -0,0 +1,132 @@
+package com.crm.repository;
+
+import com.crm.entity.Contact;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sort order plus the position of the last row already returned, for seek pagination over
+ * contacts. Rows are ordered by the sort key and then by id, so every position is unique and
+ * the next page starts with a plain "(key, id) after (lastKey, lastId)" predicate instead of an
+ * OFFSET that makes the database walk every skipped row.
+ */
+public class ContactKeyset {
+    public enum SortKey {
+        NAME, COMPANY, LAST_CONTACTED, CREATED, UPDATED;
+
+        public static SortKey from(String sortBy) {
+            if (sortBy == null) return NAME;
+            switch (sortBy.toLowerCase(Locale.ROOT)) {
+                case "company": return COMPANY;
+                case "lastcontacted": return LAST_CONTACTED;
+                case "created": return CREATED;
+                case "updated": return UPDATED;
+                default: return NAME;
+            }
+        }
+    }
+
+    private final SortKey sortKey;
+    private final boolean descending;
+    private final Object lastValue;
+    private final String lastId;
+
+    public ContactKeyset(SortKey sortKey, boolean descending, Object lastValue, String lastId) {
+        this.sortKey = sortKey;
+        this.descending = descending;
+        this.lastValue = lastValue;
+        this.lastId = lastId;
+    }
+
+    public static ContactKeyset first(SortKey sortKey, boolean descending) {
+        return new ContactKeyset(sortKey, descending, null, null);
+    }
+
+    public ContactKeyset after(Contact last) {
+        return new ContactKeyset(sortKey, descending, valueOf(last), last.getId());
+    }
+
+    public SortKey getSortKey() { return sortKey; }
+    public boolean isDescending() { return descending; }
+    public Object getLastValue() { return lastValue; }
+    public String getLastId() { return lastId; }
+
+    /**
+     * The sort key of a loaded contact, in the same form the database compares it.
+     */
+    public Object valueOf(Contact c) {
+        switch (sortKey) {
+            case COMPANY: return c.getCompany() != null ? c.getCompany().toLowerCase(Locale.ROOT) : "";
+            case LAST_CONTACTED: return c.getLastContactedAt();
+            case CREATED: return c.getCreatedAt();
+            case UPDATED: return c.getUpdatedAt();
+            default: return c.getName().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    List<Order> orders(Root<Contact> root, CriteriaBuilder cb) {
+        Order byId = descending ? cb.desc(root.get("id")) : cb.asc(root.get("id"));
+        if (sortKey == SortKey.LAST_CONTACTED) {
+            // Never-contacted rows sort after everyone else ascending, and first when reversed.
+            Expression<Integer> nullsLast = cb.<Integer>selectCase()
+                    .when(cb.isNull(root.get("lastContactedAt")), 1).otherwise(0);
+            Expression<LocalDateTime> date = root.get("lastContactedAt");
+            return descending
+                    ? List.of(cb.desc(nullsLast), cb.desc(date), byId)
+                    : List.of(cb.asc(nullsLast), cb.asc(date), byId);
+        }
+        Expression<?> key = key(root, cb);
+        return List.of(descending ? cb.desc(key) : cb.asc(key), byId);
+    }
+
+    Predicate seek(Root<Contact> root, CriteriaBuilder cb) {
+        if (lastId == null) return cb.conjunction();
+        Expression<String> id = root.get("id");
+        Predicate idAfter = descending ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId);
+
+        if (sortKey == SortKey.LAST_CONTACTED) {
+            Expression<LocalDateTime> date = root.get("lastContactedAt");
+            if (lastValue == null) {
+                // Inside the null block: ascending only nulls follow, descending every dated row does.
+                Predicate nullTail = cb.and(cb.isNull(date), idAfter);
+                return descending ? cb.or(nullTail, cb.isNotNull(date)) : nullTail;
+            }
+            LocalDateTime last = (LocalDateTime) lastValue;
+            Predicate beyond = descending ? cb.lessThan(date, last) : cb.greaterThan(date, last);
+            Predicate sameKey = cb.and(cb.equal(date, last), idAfter);
+            Predicate dated = cb.or(beyond, sameKey);
+            return descending ? dated : cb.or(dated, cb.isNull(date));
+        }
+
+        if (sortKey == SortKey.CREATED || sortKey == SortKey.UPDATED) {
+            Expression<LocalDateTime> timestamp = timestamp(root);
+            LocalDateTime last = (LocalDateTime) lastValue;
+            Predicate beyond = descending ? cb.lessThan(timestamp, last) : cb.greaterThan(timestamp, last);
+            return cb.or(beyond, cb.and(cb.equal(timestamp, last), idAfter));
+        }
+
+        Expression<String> key = stringKey(root, cb);
+        String last = (String) lastValue;
+        Predicate beyond = descending ? cb.lessThan(key, last) : cb.greaterThan(key, last);
+        return cb.or(beyond, cb.and(cb.equal(key, last), idAfter));
+    }
+
+    private Expression<?> key(Root<Contact> root, CriteriaBuilder cb) {
+        return sortKey == SortKey.CREATED || sortKey == SortKey.UPDATED ? timestamp(root) : stringKey(root, cb);
+    }
+
+    private Expression<LocalDateTime> timestamp(Root<Contact> root) {
+        return root.get(sortKey == SortKey.UPDATED ? "updatedAt" : "createdAt");
+    }
+
+    private Expression<String> stringKey(Root<Contact> root, CriteriaBuilder cb) {
+        if (sortKey == SortKey.COMPANY) return cb.lower(cb.coalesce(root.get("company"), ""));
+        return cb.lower(root.get("name"));
+    }
+}
@@ -0,0 +1,25 @@
+package com.crm.repository;
+
+import com.crm.entity.ContactMatchKey;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
+import java.util.List;
+
+public interface ContactMatchKeyRepository extends JpaRepository<ContactMatchKey, String> {
+    List<ContactMatchKey> findByContactId(String contactId);
+
+    @Modifying
+    @Query("DELETE FROM ContactMatchKey k WHERE k.contactId = ?1")
+    int deleteByContactId(String contactId);
+
+    @Modifying
+    @Query("DELETE FROM ContactMatchKey k WHERE k.userId = ?1")
+    int deleteByUserId(String userId);
+
+    // Keys of other contacts of the user that share any of the given keys
+    @Query("SELECT k FROM ContactMatchKey k WHERE k.userId = ?1 AND k.matchKey IN ?2 AND k.contactId <> ?3")
+    List<ContactMatchKey> findSharedKeys(String userId, Collection<String> matchKeys, String contactId, Pageable page);
+}
@@ -1,24 +1,93 @@
 package com.crm.repository;
 
 import com.crm.entity.Contact;
+import com.crm.entity.Reminder;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ContactRepository extends JpaRepository<Contact, String> {
+public interface ContactRepository extends JpaRepository<Contact, String>, JpaSpecificationExecutor<Contact>, ContactRepositoryCustom {
     List<Contact> findByUserId(String userId);
+
+    /**
+     * Reads the user's contacts through a database cursor. Must be consumed, and closed, inside
+     * a transaction; on MySQL the connection needs useCursorFetch=true for the fetch size to apply.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT c FROM Contact c WHERE c.userId = ?1 ORDER BY c.name, c.id")
+    Stream<Contact> streamByUserId(String userId);
     List<Contact> findByUserIdAndNameContainingIgnoreCase(String userId, String name);
 
-    @Query("SELECT c FROM Contact c WHERE c.userId = ?1 AND (MONTH(c.birthday) = ?2 AND DAY(c.birthday) BETWEEN ?3 AND ?4)")
-    List<Contact> findUpcomingBirthdays(String userId, int month, int dayStart, int dayEnd);
+    // Dashboard rows: id, name, profilePicture, birthday, anniversary, lastContactedAt
+    String SUMMARY = "SELECT c.id, c.name, c.profilePicture, c.birthday, c.anniversary, c.lastContactedAt FROM Contact c ";
+
+    /**
+     * Contacts whose birthday falls between two month-day keys (month * 100 + day), soonest first.
+     * Keys are compared modulo 1300 relative to {@code from}, so a window running past New Year
+     * needs no special case.
+     */
+    @Query(SUMMARY + "WHERE c.userId = ?1 AND c.birthday IS NOT NULL " +
+           "AND MOD(MONTH(c.birthday) * 100 + DAY(c.birthday) - ?2 + 1300, 1300) <= MOD(?3 - ?2 + 1300, 1300) " +
+           "ORDER BY MOD(MONTH(c.birthday) * 100 + DAY(c.birthday) - ?2 + 1300, 1300), c.name")
+    List<Object[]> findBirthdaySummaries(String userId, int fromMonthDay, int toMonthDay, Pageable page);
+
+    @Query(SUMMARY + "WHERE c.userId = ?1 AND c.lastContactedAt IS NOT NULL ORDER BY c.lastContactedAt DESC, c.id")
+    List<Object[]> findRecentlyContactedSummaries(String userId, Pageable page);
 
-    @Query("SELECT c FROM Contact c WHERE c.userId = ?1 AND (c.lastContactedAt IS NULL OR c.lastContactedAt < ?2)")
-    List<Contact> findNeedsAttention(String userId, LocalDateTime threshold);
+    // Never contacted first, then longest since last contact
+    @Query(SUMMARY + "WHERE c.userId = ?1 AND (c.lastContactedAt IS NULL OR c.lastContactedAt < ?2) " +
+           "ORDER BY CASE WHEN c.lastContactedAt IS NULL THEN 0 ELSE 1 END, c.lastContactedAt, c.id")
+    List<Object[]> findNeedsAttentionSummaries(String userId, LocalDateTime threshold, Pageable page);
 
     long countByUserId(String userId);
 
-    @Query("SELECT COUNT(c) FROM Contact c WHERE c.userId = ?1 AND c.createdAt >= ?2 AND c.createdAt < ?3")
-    long countByUserIdAndCreatedAtBetween(String userId, LocalDateTime start, LocalDateTime end);
+    // Daily reminder candidates as [userId, contactId] rows: contacts of the given users that have
+    // no active reminder of the type
+    String NO_ACTIVE_REMINDER = "AND NOT EXISTS (SELECT r.id FROM Reminder r WHERE r.contactId = c.id " +
+            "AND r.userId = c.userId AND r.type = :type AND r.status IN :active)";
+
+    @Query("SELECT c.userId, c.id FROM Contact c WHERE c.userId IN :userIds " +
+           "AND MONTH(c.birthday) = :month AND DAY(c.birthday) = :day " + NO_ACTIVE_REMINDER)
+    List<Object[]> findBirthdayReminderCandidates(@Param("userIds") Collection<String> userIds,
+                                                  @Param("month") int month, @Param("day") int day,
+                                                  @Param("type") Reminder.ReminderType type,
+                                                  @Param("active") Collection<Reminder.ReminderStatus> active);
+
+    @Query("SELECT c.userId, c.id FROM Contact c WHERE c.userId IN :userIds " +
+           "AND MONTH(c.anniversary) = :month AND DAY(c.anniversary) = :day " + NO_ACTIVE_REMINDER)
+    List<Object[]> findAnniversaryReminderCandidates(@Param("userIds") Collection<String> userIds,
+                                                     @Param("month") int month, @Param("day") int day,
+                                                     @Param("type") Reminder.ReminderType type,
+                                                     @Param("active") Collection<Reminder.ReminderStatus> active);
+
+    @Query("SELECT c.userId, c.id FROM Contact c WHERE c.userId IN :userIds " +
+           "AND (c.lastContactedAt IS NULL OR c.lastContactedAt < :threshold) " + NO_ACTIVE_REMINDER)
+    List<Object[]> findNoContactReminderCandidates(@Param("userIds") Collection<String> userIds,
+                                                   @Param("threshold") LocalDateTime threshold,
+                                                   @Param("type") Reminder.ReminderType type,
+                                                   @Param("active") Collection<Reminder.ReminderStatus> active);
+
+    // [id, name] of the given contacts
+    @Query("SELECT c.id, c.name FROM Contact c WHERE c.id IN ?1")
+    List<Object[]> findNamesByIdIn(Collection<String> ids);
+
+    @Query("SELECT t, COUNT(DISTINCT c.id) FROM Contact c JOIN c.tagEntries t WHERE c.userId = ?1 GROUP BY t")
+    List<Object[]> countContactsByTag(String userId);
+
+    @Query("SELECT COUNT(DISTINCT c.id) FROM Contact c JOIN c.tagEntries t WHERE c.userId = ?1 AND t = ?2")
+    long countByUserIdAndTag(String userId, String tag);
+
+    // [year, month, count] rows, for rebuilding the dashboard counters
+    @Query("SELECT YEAR(c.createdAt), MONTH(c.createdAt), COUNT(c) FROM Contact c " +
+           "WHERE c.userId = ?1 AND c.createdAt IS NOT NULL GROUP BY YEAR(c.createdAt), MONTH(c.createdAt)")
+    List<Object[]> countByUserIdPerMonth(String userId);
 }
@@ -0,0 +1,13 @@
+package com.crm.repository;
+
+import com.crm.entity.Contact;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.List;
+
+public interface ContactRepositoryCustom {
+    /**
+     * Returns up to {@code limit} contacts matching {@code filter}, in keyset order, starting
+     * after the keyset's last position.
+     */
+    List<Contact> findPage(Specification<Contact> filter, ContactKeyset keyset, int limit);
+}
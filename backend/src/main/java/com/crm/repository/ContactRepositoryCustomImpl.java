@@ -0,0 +1,27 @@
+package com.crm.repository;
+
+import com.crm.entity.Contact;
+import org.springframework.data.jpa.domain.Specification;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+public class ContactRepositoryCustomImpl implements ContactRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Contact> findPage(Specification<Contact> filter, ContactKeyset keyset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Contact> query = cb.createQuery(Contact.class);
+        Root<Contact> root = query.from(Contact.class);
+
+        query.select(root)
+                .where(cb.and(filter.toPredicate(root, query, cb), keyset.seek(root, cb)))
+                .orderBy(keyset.orders(root, cb));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,44 @@
+package com.crm.repository;
+
+import com.crm.entity.Contact;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Full-text contact search executed in the database.
+ *
+ * One implementation is active per deployment, selected by {@code app.search.backend}
+ * (mysql, postgres or h2). Implementations search name, company, emails, phones, tags
+ * and notes, and return at most {@code limit} contacts ordered by relevance, then by
+ * most recently updated.
+ */
+public interface ContactSearchRepository {
+
+    List<Contact> search(String userId, String query, int limit);
+
+    /**
+     * Creates the backing full-text index if it does not exist yet. Called once at startup.
+     */
+    void ensureIndex();
+
+    /**
+     * Splits a raw query into lower-cased alphanumeric terms. Everything else is treated as a
+     * separator, which also strips full-text operators before they reach the database.
+     */
+    static List<String> terms(String query) {
+        List<String> terms = new ArrayList<>();
+        if (query == null) return terms;
+        StringBuilder current = new StringBuilder();
+        for (char ch : query.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(ch)) {
+                current.append(ch);
+            } else if (current.length() > 0) {
+                terms.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) terms.add(current.toString());
+        return terms;
+    }
+}
@@ -0,0 +1,102 @@
+package com.crm.repository;
+
+import com.crm.dto.ContactSearchDto;
+import com.crm.entity.Contact;
+import org.springframework.data.jpa.domain.Specification;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Translates a {@link ContactSearchDto} into SQL predicates. Date bounds are parsed once
+ * while the specification is built, not per row. Tag and has-email/phone filters run against
+ * the contact_tags/contact_emails/contact_phones tables.
+ */
+public final class ContactSpecifications {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ContactSpecifications() {}
+
+    public static Specification<Contact> forSearch(String userId, ContactSearchDto search) {
+        Specification<Contact> spec = ownedBy(userId);
+        if (hasText(search.getQuery())) spec = spec.and(matchesQuery(search.getQuery()));
+        if (search.getTags() != null && !search.getTags().isEmpty()) spec = spec.and(hasAnyTag(search.getTags()));
+        if (hasText(search.getCompany())) spec = spec.and(companyContains(search.getCompany()));
+        if (hasText(search.getLastContactedFrom())) spec = spec.and(lastContactedFrom(LocalDateTime.parse(search.getLastContactedFrom())));
+        if (hasText(search.getLastContactedTo())) spec = spec.and(lastContactedTo(LocalDateTime.parse(search.getLastContactedTo())));
+        if (hasText(search.getCreatedFrom())) spec = spec.and(createdFrom(LocalDateTime.parse(search.getCreatedFrom())));
+        if (hasText(search.getCreatedTo())) spec = spec.and(createdTo(LocalDateTime.parse(search.getCreatedTo())));
+        if (Boolean.TRUE.equals(search.getHasEmail())) spec = spec.and(notEmpty("emailEntries"));
+        if (Boolean.TRUE.equals(search.getHasPhone())) spec = spec.and(notEmpty("phoneEntries"));
+        if (Boolean.TRUE.equals(search.getHasWhatsapp())) spec = spec.and(notBlank("whatsappNumber"));
+        if (Boolean.TRUE.equals(search.getHasInstagram())) spec = spec.and(notBlank("instagramHandle"));
+        return spec;
+    }
+
+    public static Specification<Contact> ownedBy(String userId) {
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+
+    public static Specification<Contact> matchesQuery(String text) {
+        String pattern = containsPattern(text);
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("name")), pattern, LIKE_ESCAPE),
+                cb.like(cb.lower(root.get("company")), pattern, LIKE_ESCAPE),
+                cb.like(cb.lower(root.get("emails")), pattern, LIKE_ESCAPE),
+                cb.like(cb.lower(root.get("notes")), pattern, LIKE_ESCAPE));
+    }
+
+    public static Specification<Contact> hasAnyTag(List<String> tags) {
+        return (root, query, cb) -> {
+            Subquery<String> tagged = query.subquery(String.class);
+            Root<Contact> contact = tagged.correlate(root);
+            Join<Contact, String> tag = contact.join("tagEntries");
+            tagged.select(contact.get("id")).where(tag.in(tags));
+            return cb.exists(tagged);
+        };
+    }
+
+    public static Specification<Contact> companyContains(String company) {
+        String pattern = containsPattern(company);
+        return (root, query, cb) -> cb.like(cb.lower(root.get("company")), pattern, LIKE_ESCAPE);
+    }
+
+    public static Specification<Contact> lastContactedFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("lastContactedAt"), from);
+    }
+
+    public static Specification<Contact> lastContactedTo(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("lastContactedAt"), to);
+    }
+
+    public static Specification<Contact> createdFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<Contact> createdTo(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("createdAt"), to);
+    }
+
+    private static Specification<Contact> notEmpty(String collection) {
+        return (root, query, cb) -> cb.isNotEmpty(root.get(collection));
+    }
+
+    private static Specification<Contact> notBlank(String attribute) {
+        return (root, query, cb) -> cb.and(cb.isNotNull(root.get(attribute)), cb.notEqual(root.get(attribute), ""));
+    }
+
+    private static String containsPattern(String text) {
+        return "%" + escapeLike(text.toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
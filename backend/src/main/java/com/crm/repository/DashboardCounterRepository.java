@@ -0,0 +1,21 @@
+package com.crm.repository;
+
+import com.crm.entity.DashboardCounter;
+import com.crm.entity.DashboardCounter.Metric;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DashboardCounterRepository extends JpaRepository<DashboardCounter, String> {
+    List<DashboardCounter> findByUserIdAndMetricAndBucketBetween(String userId, Metric metric, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("UPDATE DashboardCounter c SET c.total = c.total + ?4 WHERE c.userId = ?1 AND c.metric = ?2 AND c.bucket = ?3")
+    int increment(String userId, Metric metric, LocalDate bucket, long delta);
+
+    @Modifying
+    @Query("DELETE FROM DashboardCounter c WHERE c.userId = ?1")
+    int deleteByUserId(String userId);
+}
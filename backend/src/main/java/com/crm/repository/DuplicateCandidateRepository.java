@@ -0,0 +1,33 @@
+package com.crm.repository;
+
+import com.crm.entity.DuplicateCandidate;
+import com.crm.entity.DuplicateCandidate.CandidateStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
+import java.util.List;
+
+public interface DuplicateCandidateRepository extends JpaRepository<DuplicateCandidate, String> {
+    List<DuplicateCandidate> findByUserIdAndStatus(String userId, CandidateStatus status);
+
+    @Query("SELECT d FROM DuplicateCandidate d WHERE d.contactA = ?1 OR d.contactB = ?1")
+    List<DuplicateCandidate> findByContact(String contactId);
+
+    @Modifying
+    @Query("DELETE FROM DuplicateCandidate d WHERE (d.contactA = ?1 OR d.contactB = ?1) AND d.status = ?2")
+    int deleteByContactAndStatus(String contactId, CandidateStatus status);
+
+    @Modifying
+    @Query("DELETE FROM DuplicateCandidate d WHERE d.contactA = ?1 OR d.contactB = ?1")
+    int deleteByContact(String contactId);
+
+    @Modifying
+    @Query("DELETE FROM DuplicateCandidate d WHERE d.userId = ?1")
+    int deleteByUserId(String userId);
+
+    @Modifying
+    @Query("UPDATE DuplicateCandidate d SET d.status = ?4 " +
+           "WHERE d.userId = ?1 AND d.contactA IN ?2 AND d.contactB IN ?2 AND d.status = ?3")
+    int updateStatusAmong(String userId, Collection<String> contactIds, CandidateStatus from, CandidateStatus to);
+}
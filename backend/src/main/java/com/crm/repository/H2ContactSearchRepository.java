@@ -0,0 +1,50 @@
+package com.crm.repository;
+
+import com.crm.entity.Contact;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * Portable LIKE-based fallback used with the in-memory H2 profile, where there is no
+ * full-text index worth maintaining. Still filters, ranks and limits in the database:
+ * contacts whose name starts with the first term come first.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "app.search", name = "backend", havingValue = "h2")
+public class H2ContactSearchRepository implements ContactSearchRepository {
+    private static final String DOCUMENT = "LOWER(CONCAT(c.name, ' ', COALESCE(c.company, ''), ' ', COALESCE(c.emails, ''), ' ', " +
+            "COALESCE(c.phones, ''), ' ', COALESCE(c.tags, ''), ' ', COALESCE(c.notes, '')))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Contact> search(String userId, String query, int limit) {
+        List<String> terms = ContactSearchRepository.terms(query);
+        if (terms.isEmpty()) return List.of();
+
+        StringBuilder jpql = new StringBuilder("SELECT c FROM Contact c WHERE c.userId = :userId");
+        for (int i = 0; i < terms.size(); i++) {
+            jpql.append(" AND ").append(DOCUMENT).append(" LIKE :term").append(i);
+        }
+        jpql.append(" ORDER BY CASE WHEN LOWER(c.name) LIKE :prefix THEN 0 ELSE 1 END, c.updatedAt DESC");
+
+        TypedQuery<Contact> q = entityManager.createQuery(jpql.toString(), Contact.class)
+                .setParameter("userId", userId)
+                .setParameter("prefix", terms.get(0) + "%")
+                .setMaxResults(limit);
+        for (int i = 0; i < terms.size(); i++) {
+            q.setParameter("term" + i, "%" + terms.get(i) + "%");
+        }
+        return q.getResultList();
+    }
+
+    @Override
+    public void ensureIndex() {
+        // Nothing to create: the fallback scans the user's rows through the user_id filter.
+    }
+}
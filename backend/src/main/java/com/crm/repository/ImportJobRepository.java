@@ -0,0 +1,25 @@
+package com.crm.repository;
+
+import com.crm.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+    Optional<ImportJob> findByIdAndUserId(String id, String userId);
+    List<ImportJob> findTop20ByUserIdOrderByCreatedAtDesc(String userId);
+    List<ImportJob> findByStatusInOrderByCreatedAt(Collection<ImportJob.JobStatus> statuses);
+
+    // Runs inside the transaction of each import batch, so progress and rows commit together
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.rowsRead = :rowsRead, j.rowsInserted = :rowsInserted, j.rowsFailed = :rowsFailed, " +
+           "j.errors = :errors, j.errorsTruncated = :errorsTruncated, j.checkpointAt = :at WHERE j.id = :id")
+    int saveCheckpoint(@Param("id") String id, @Param("rowsRead") int rowsRead, @Param("rowsInserted") int rowsInserted,
+                       @Param("rowsFailed") int rowsFailed, @Param("errors") String errors,
+                       @Param("errorsTruncated") boolean errorsTruncated, @Param("at") LocalDateTime at);
+}
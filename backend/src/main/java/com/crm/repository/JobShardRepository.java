@@ -0,0 +1,43 @@
+package com.crm.repository;
+
+import com.crm.entity.JobShard;
+import com.crm.entity.JobShard.ShardStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface JobShardRepository extends JpaRepository<JobShard, String> {
+    boolean existsByJobAndRunDateAndShard(String job, LocalDate runDate, int shard);
+
+    // Pending shards, and running ones whose instance let the lease expire
+    String CLAIMABLE = "s.attempts < :maxAttempts AND (s.status = :pending OR (s.status = :running AND s.leaseUntil < :now))";
+
+    @Query("SELECT s FROM JobShard s WHERE s.job = :job AND s.runDate >= :since AND " + CLAIMABLE +
+           " ORDER BY s.runDate, s.shard")
+    List<JobShard> findClaimable(@Param("job") String job, @Param("since") LocalDate since,
+                                 @Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now,
+                                 @Param("pending") ShardStatus pending, @Param("running") ShardStatus running);
+
+    @Modifying
+    @Query("UPDATE JobShard s SET s.status = :running, s.owner = :owner, s.leaseUntil = :until, " +
+           "s.attempts = s.attempts + 1 WHERE s.id = :id AND " + CLAIMABLE)
+    int claim(@Param("id") String id, @Param("owner") String owner, @Param("now") LocalDateTime now,
+              @Param("until") LocalDateTime until, @Param("maxAttempts") int maxAttempts,
+              @Param("pending") ShardStatus pending, @Param("running") ShardStatus running);
+
+    @Modifying
+    @Query("UPDATE JobShard s SET s.leaseUntil = ?3 WHERE s.id = ?1 AND s.owner = ?2 AND s.status = ?4")
+    int extend(String id, String owner, LocalDateTime until, ShardStatus running);
+
+    @Modifying
+    @Query("UPDATE JobShard s SET s.status = ?3, s.completedAt = ?4, s.leaseUntil = NULL WHERE s.id = ?1 AND s.owner = ?2")
+    int complete(String id, String owner, ShardStatus done, LocalDateTime at);
+
+    @Modifying
+    @Query("DELETE FROM JobShard s WHERE s.job = ?1 AND s.runDate < ?2")
+    int deleteByJobAndRunDateBefore(String job, LocalDate before);
+}
@@ -16,6 +16,11 @@ public interface MeetingRepository extends JpaRepository<Meeting, String> {
     @Query("SELECT COUNT(m) FROM Meeting m WHERE m.userId = ?1 AND m.meetingDate BETWEEN ?2 AND ?3")
     long countByUserIdAndDateRange(String userId, LocalDateTime start, LocalDateTime end);
 
+    // [year, month, day, count] rows, for rebuilding the dashboard counters
+    @Query("SELECT YEAR(m.meetingDate), MONTH(m.meetingDate), DAY(m.meetingDate), COUNT(m) FROM Meeting m " +
+           "WHERE m.userId = ?1 GROUP BY YEAR(m.meetingDate), MONTH(m.meetingDate), DAY(m.meetingDate)")
+    List<Object[]> countByUserIdPerDay(String userId);
+
     @Query("SELECT m.medium, COUNT(m) FROM Meeting m WHERE m.userId = ?1 GROUP BY m.medium")
     List<Object[]> getMediumBreakdown(String userId);
 }
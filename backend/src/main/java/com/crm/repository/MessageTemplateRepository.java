@@ -2,11 +2,14 @@ package com.crm.repository;
 
 import com.crm.entity.MessageTemplate;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
 import java.util.List;
 
 public interface MessageTemplateRepository extends JpaRepository<MessageTemplate, String> {
     List<MessageTemplate> findByUserId(String userId);
 
+    List<MessageTemplate> findByUserIdInAndTypeIn(Collection<String> userIds, Collection<MessageTemplate.TemplateType> types);
+
     List<MessageTemplate> findByUserIdAndType(String userId, MessageTemplate.TemplateType type);
 
     void deleteByUserIdAndId(String userId, String id);
@@ -0,0 +1,89 @@
+package com.crm.repository;
+
+import com.crm.entity.Contact;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MySQL FULLTEXT search over the contacts table (BOOLEAN MODE, every term required, prefix match).
+ *
+ * InnoDB ignores tokens shorter than innodb_ft_min_token_size (3 by default), so short terms
+ * are applied as LIKE filters on the rows the FULLTEXT match already narrowed down. A query made
+ * only of short terms has nothing to narrow with and applies the same filters to all of the
+ * user's contacts.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "app.search", name = "backend", havingValue = "mysql", matchIfMissing = true)
+public class MySqlContactSearchRepository implements ContactSearchRepository {
+    private static final Logger log = LoggerFactory.getLogger(MySqlContactSearchRepository.class);
+    private static final String INDEX_NAME = "ft_contacts_search";
+    private static final String MATCH = "MATCH(c.name, c.company, c.emails, c.phones, c.tags, c.notes) AGAINST (:ft IN BOOLEAN MODE)";
+    private static final String DOCUMENT = "LOWER(CONCAT_WS(' ', c.name, c.company, c.emails, c.phones, c.tags, c.notes))";
+    private static final int MIN_TOKEN_SIZE = 3;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MySqlContactSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Contact> search(String userId, String query, int limit) {
+        List<String> terms = ContactSearchRepository.terms(query);
+        if (terms.isEmpty()) return List.of();
+
+        StringBuilder booleanQuery = new StringBuilder();
+        List<String> shortTerms = new ArrayList<>();
+        for (String term : terms) {
+            if (term.length() >= MIN_TOKEN_SIZE) {
+                booleanQuery.append('+').append(term).append("* ");
+            } else {
+                shortTerms.add(term);
+            }
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT c.* FROM contacts c WHERE c.user_id = :userId");
+        if (booleanQuery.length() > 0) sql.append(" AND ").append(MATCH);
+        for (int i = 0; i < shortTerms.size(); i++) {
+            sql.append(" AND ").append(DOCUMENT).append(" LIKE :short").append(i);
+        }
+        sql.append(" ORDER BY ");
+        if (booleanQuery.length() > 0) sql.append(MATCH).append(" DESC, ");
+        sql.append("c.updated_at DESC");
+        sql.append(" LIMIT :limit");
+
+        Query q = entityManager.createNativeQuery(sql.toString(), Contact.class)
+                .setParameter("userId", userId)
+                .setParameter("limit", limit);
+        if (booleanQuery.length() > 0) q.setParameter("ft", booleanQuery.toString().trim());
+        for (int i = 0; i < shortTerms.size(); i++) {
+            q.setParameter("short" + i, "%" + shortTerms.get(i) + "%");
+        }
+        return q.getResultList();
+    }
+
+    @Override
+    public void ensureIndex() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = 'contacts' AND index_name = ?",
+                Integer.class, INDEX_NAME);
+        if (existing != null && existing > 0) return;
+
+        log.info("Creating FULLTEXT index {} on contacts", INDEX_NAME);
+        jdbcTemplate.execute("ALTER TABLE contacts ADD FULLTEXT INDEX " + INDEX_NAME +
+                " (name, company, emails, phones, tags, notes)");
+    }
+}
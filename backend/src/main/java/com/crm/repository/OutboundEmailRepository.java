@@ -0,0 +1,41 @@
+package com.crm.repository;
+
+import com.crm.entity.OutboundEmail;
+import com.crm.entity.OutboundEmail.EmailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, String> {
+    long countByStatus(EmailStatus status);
+
+    List<OutboundEmail> findByClaimedByAndStatus(String claimedBy, EmailStatus status);
+
+    // Ids of the emails of one priority ready to go, oldest first
+    @Query("SELECT e.id FROM OutboundEmail e WHERE e.status = ?1 AND e.priority = ?2 AND e.nextAttemptAt <= ?3 " +
+           "ORDER BY e.nextAttemptAt")
+    List<String> findReady(EmailStatus pending, int priority, LocalDateTime now, Pageable page);
+
+    @Query("SELECT e.dedupeKey FROM OutboundEmail e WHERE e.dedupeKey IN ?1")
+    List<String> findExistingDedupeKeys(Collection<String> keys);
+
+    // Only rows still pending are taken, so a row claimed by another instance meanwhile is skipped
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = ?3, e.claimedBy = ?2, e.claimedUntil = ?4 " +
+           "WHERE e.id IN ?1 AND e.status = ?5")
+    int claim(Collection<String> ids, String claimedBy, EmailStatus sending, LocalDateTime until, EmailStatus pending);
+
+    // Emails whose sender died mid-batch; they may go out twice
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = ?2, e.claimedBy = NULL, e.claimedUntil = NULL " +
+           "WHERE e.status = ?1 AND e.claimedUntil < ?3")
+    int releaseExpired(EmailStatus sending, EmailStatus pending, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM OutboundEmail e WHERE e.status = ?1 AND e.sentAt < ?2")
+    int deleteByStatusAndSentAtBefore(EmailStatus sent, LocalDateTime before);
+}
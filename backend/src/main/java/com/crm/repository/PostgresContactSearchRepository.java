@@ -0,0 +1,77 @@
+package com.crm.repository;
+
+import com.crm.entity.Contact;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL search backed by a generated tsvector column with a GIN index.
+ *
+ * The name carries weight A, company/emails/phones/tags weight B and notes weight C, so
+ * ts_rank puts name hits first. The 'simple' configuration is used because contact data is
+ * mostly proper nouns and addresses, where stemming and stop words do more harm than good.
+ * That parser keeps an email address as one lexeme, so '@' and '.' in emails are replaced with
+ * spaces first: query terms are split on punctuation, and "acme" has to match john.doe@acme.com.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "app.search", name = "backend", havingValue = "postgres")
+public class PostgresContactSearchRepository implements ContactSearchRepository {
+    private static final Logger log = LoggerFactory.getLogger(PostgresContactSearchRepository.class);
+    private static final String EMAIL_WORDS = "regexp_replace(coalesce(emails, ''), '[@.]', ' ', 'g')";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresContactSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Contact> search(String userId, String query, int limit) {
+        List<String> terms = ContactSearchRepository.terms(query);
+        if (terms.isEmpty()) return List.of();
+
+        String tsQuery = terms.stream().map(t -> t + ":*").collect(Collectors.joining(" & "));
+        return entityManager.createNativeQuery(
+                        "SELECT c.* FROM contacts c " +
+                        "WHERE c.user_id = :userId AND c.search_vector @@ to_tsquery('simple', :q) " +
+                        "ORDER BY ts_rank(c.search_vector, to_tsquery('simple', :q)) DESC, c.updated_at DESC " +
+                        "LIMIT :limit", Contact.class)
+                .setParameter("userId", userId)
+                .setParameter("q", tsQuery)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
+
+    @Override
+    public void ensureIndex() {
+        // Columns created before emails were split into words are generated again
+        String expression = jdbcTemplate.query(
+                "SELECT generation_expression FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = 'contacts' AND column_name = 'search_vector'",
+                rs -> rs.next() ? rs.getString(1) : null);
+        if (expression != null && !expression.contains("regexp_replace")) {
+            log.info("Regenerating the tsvector search column on contacts");
+            jdbcTemplate.execute("ALTER TABLE contacts DROP COLUMN search_vector");
+        }
+
+        log.info("Ensuring tsvector search column and GIN index on contacts");
+        jdbcTemplate.execute("ALTER TABLE contacts ADD COLUMN IF NOT EXISTS search_vector tsvector " +
+                "GENERATED ALWAYS AS (" +
+                "setweight(to_tsvector('simple', coalesce(name, '')), 'A') || " +
+                "setweight(to_tsvector('simple', coalesce(company, '') || ' ' || " + EMAIL_WORDS + " || ' ' || " +
+                "coalesce(phones, '') || ' ' || coalesce(tags, '')), 'B') || " +
+                "setweight(to_tsvector('simple', coalesce(notes, '')), 'C')) STORED");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_contacts_search_vector ON contacts USING GIN (search_vector)");
+    }
+}
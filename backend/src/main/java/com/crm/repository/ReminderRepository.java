@@ -1,12 +1,38 @@
 package com.crm.repository;
 
 import com.crm.entity.Reminder;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReminderRepository extends JpaRepository<Reminder, String> {
     List<Reminder> findByUserIdAndStatus(String userId, Reminder.ReminderStatus status);
+    List<Reminder> findByUserIdAndStatusIn(String userId, Collection<Reminder.ReminderStatus> statuses);
     List<Reminder> findByStatusAndScheduledAtBefore(Reminder.ReminderStatus status, LocalDateTime dateTime);
+
+    // [id, scheduledAt] of the pending reminders due in the window, soonest first
+    @Query("SELECT r.id, r.scheduledAt FROM Reminder r WHERE r.status = ?1 AND r.scheduledAt >= ?2 AND r.scheduledAt < ?3 " +
+           "ORDER BY r.scheduledAt")
+    List<Object[]> findDue(Reminder.ReminderStatus status, LocalDateTime from, LocalDateTime to, Pageable page);
+
+    // Locks the reminders that are still in the given status, so only one instance delivers each
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reminder r WHERE r.id IN ?1 AND r.status = ?2")
+    List<Reminder> lockByIdInAndStatus(Collection<String> ids, Reminder.ReminderStatus status);
+
+    // [userId, contactId, type, scheduledAt] of the users' active reminders of the given types in the window
+    @Query("SELECT r.userId, r.contactId, r.type, r.scheduledAt FROM Reminder r WHERE r.userId IN :userIds " +
+           "AND r.status IN :active AND r.type IN :types AND r.scheduledAt >= :from AND r.scheduledAt < :to " +
+           "ORDER BY r.userId, r.scheduledAt")
+    List<Object[]> findDigestEntries(@Param("userIds") Collection<String> userIds,
+                                     @Param("active") Collection<Reminder.ReminderStatus> active,
+                                     @Param("types") Collection<Reminder.ReminderType> types,
+                                     @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
     void deleteByContactId(String contactId);
 }
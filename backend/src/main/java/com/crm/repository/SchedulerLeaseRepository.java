@@ -0,0 +1,15 @@
+package com.crm.repository;
+
+import com.crm.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
+
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+    // Takes the lease if it has expired or is already ours
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.lockedBy = ?2, l.lockedAt = ?3, l.lockedUntil = ?4 " +
+           "WHERE l.name = ?1 AND (l.lockedUntil <= ?3 OR l.lockedBy = ?2)")
+    int acquire(String name, String owner, LocalDateTime now, LocalDateTime until);
+}
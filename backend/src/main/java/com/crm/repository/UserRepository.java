@@ -1,7 +1,11 @@
 package com.crm.repository;
 
 import com.crm.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, String> {
@@ -9,4 +13,16 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByGoogleId(String googleId);
     Optional<User> findByVerificationToken(String verificationToken);
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.id FROM User u WHERE u.id > ?1 ORDER BY u.id")
+    List<String> findIdsAfter(String afterId, Pageable page);
+
+    // Unset timezones come back as ''
+    @Query("SELECT DISTINCT COALESCE(u.timezone, '') FROM User u")
+    List<String> findDistinctTimezones();
+
+    // Ids from ?2 (inclusive) to ?3 (exclusive), after ?1, of users in the given timezones ('' for unset)
+    @Query("SELECT u.id FROM User u WHERE u.id > ?1 AND u.id >= ?2 AND u.id < ?3 " +
+           "AND COALESCE(u.timezone, '') IN ?4 ORDER BY u.id")
+    List<String> findIdsInRange(String afterId, String from, String to, Collection<String> timezones, Pageable page);
 }
@@ -1,10 +1,11 @@
 package com.crm.security;
 
-import com.crm.repository.UserRepository;
+import com.crm.entity.User;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -12,30 +13,48 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
+/**
+ * Authenticates requests carrying a bearer token. The user comes from {@link PrincipalCache};
+ * with app.auth.claims-principal-for-reads, GET and HEAD requests outside /api/auth get a
+ * principal built from the verified token alone, which only carries the user id, and skip the
+ * lookup entirely.
+ */
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
+    // EventSource cannot set headers, so the event stream may pass its token as a query parameter
+    private static final String EVENT_STREAM_PATH = "/api/events/stream";
+    // The profile endpoints return and change the full user
+    private static final String AUTH_PATH = "/api/auth/";
+
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final boolean claimsForReads;
 
-    public JwtAuthFilter(JwtService jwtService, UserRepository userRepository) {
+    public JwtAuthFilter(JwtService jwtService, PrincipalCache principalCache,
+                         @Value("${app.auth.claims-principal-for-reads:false}") boolean claimsForReads) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.claimsForReads = claimsForReads;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        String token = resolveToken(request);
+        if (token == null) {
             chain.doFilter(request, response);
             return;
         }
 
-        String token = authHeader.substring(7);
-        if (jwtService.isTokenValid(token)) {
-            String userId = jwtService.extractUserId(token);
-            userRepository.findById(userId).ifPresent(user -> {
+        Optional<String> subject = jwtService.validateUserId(token);
+        if (subject.isPresent()) {
+            String userId = subject.get();
+            Optional<User> principal = claimsForReads && isRead(request)
+                    ? Optional.of(principalCache.fromClaims(userId))
+                    : principalCache.get(userId);
+            principal.ifPresent(user -> {
                 UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
                         user, null, Collections.emptyList());
                 auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -44,4 +63,20 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
         chain.doFilter(request, response);
     }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return ("GET".equals(method) || "HEAD".equals(method)) && !request.getServletPath().startsWith(AUTH_PATH);
+    }
+
+    private static String resolveToken(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        if (EVENT_STREAM_PATH.equals(request.getServletPath())) {
+            return request.getParameter("access_token");
+        }
+        return null;
+    }
 }
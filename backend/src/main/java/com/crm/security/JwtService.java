@@ -9,18 +9,28 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
 
+/**
+ * Issues and verifies the HS256 access and refresh tokens. The signing key and the parser are
+ * built once; the parser is immutable and shared by all request threads. A token is verified
+ * by a single parse, which checks the signature and expiry and yields its claims.
+ */
 @Service
 public class JwtService {
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final long expiration;
+    private final long refreshExpiration;
 
-    @Value("${jwt.expiration}")
-    private long expiration;
-
-    @Value("${jwt.refresh-expiration}")
-    private long refreshExpiration;
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration}") long expiration,
+                      @Value("${jwt.refresh-expiration}") long refreshExpiration) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.expiration = expiration;
+        this.refreshExpiration = refreshExpiration;
+    }
 
     public String generateToken(String userId) {
         return buildToken(new HashMap<>(), userId, expiration);
@@ -36,39 +46,25 @@ public class JwtService {
                 .setSubject(subject)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + exp))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String extractUserId(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public boolean isTokenValid(String token) {
+    /**
+     * The token's claims if it is well-formed, correctly signed and not expired.
+     */
+    public Optional<Claims> validate(String token) {
         try {
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
+            return Optional.of(parser.parseClaimsJws(token).getBody());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        return resolver.apply(extractAllClaims(token));
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
-    }
-
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    /**
+     * The subject of a valid token, or empty.
+     */
+    public Optional<String> validateUserId(String token) {
+        return validate(token).map(Claims::getSubject);
     }
 }
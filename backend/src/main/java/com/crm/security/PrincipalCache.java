@@ -0,0 +1,83 @@
+package com.crm.security;
+
+import com.crm.entity.User;
+import com.crm.event.UserChangedEvent;
+import com.crm.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Authenticated users by id, so a request with a valid token does not have to load its user.
+ *
+ * Entries live for app.auth.principal-cache.ttl-ms and at most app.auth.principal-cache.max-size
+ * are kept. The account write paths publish {@link UserChangedEvent}, which drops the entry on
+ * this instance after commit; other instances see the change once their entry expires, so the
+ * TTL bounds how long a deleted account or an old profile stays visible elsewhere. Every
+ * request gets its own copy of the cached user, since some endpoints change and save it.
+ *
+ * crm.auth.user-lookups counts how each request's user was resolved: from the cache or the
+ * token's claims (a query saved) or from the database.
+ */
+@Component
+public class PrincipalCache {
+    private final UserRepository userRepository;
+    private final Cache<String, User> cache;
+    private final Counter cached;
+    private final Counter claims;
+    private final Counter database;
+
+    public PrincipalCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                          @Value("${app.auth.principal-cache.ttl-ms:30000}") long ttlMs,
+                          @Value("${app.auth.principal-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+        this.cached = Counter.builder("crm.auth.user-lookups").tag("source", "cache").register(meterRegistry);
+        this.claims = Counter.builder("crm.auth.user-lookups").tag("source", "claims").register(meterRegistry);
+        this.database = Counter.builder("crm.auth.user-lookups").tag("source", "database").register(meterRegistry);
+    }
+
+    public Optional<User> get(String userId) {
+        User user = cache.getIfPresent(userId);
+        if (user != null) {
+            cached.increment();
+            return Optional.of(user.copy());
+        }
+        database.increment();
+        Optional<User> loaded = userRepository.findById(userId);
+        loaded.ifPresent(found -> cache.put(userId, found.copy()));
+        return loaded;
+    }
+
+    /**
+     * A principal carrying only the user id from a verified token, for requests that need
+     * nothing else; nothing checks that the account still exists.
+     */
+    public User fromClaims(String userId) {
+        claims.increment();
+        User user = new User();
+        user.setId(userId);
+        return user;
+    }
+
+    public void invalidate(String userId) {
+        cache.invalidate(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.getUserId());
+    }
+}
@@ -0,0 +1,123 @@
+package com.crm.service;
+
+import com.crm.entity.ActivityEvent.EventType;
+import com.crm.entity.Contact;
+import com.crm.entity.Meeting;
+import com.crm.entity.Share;
+import com.crm.entity.Task;
+import com.crm.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes activity_events rows for meetings, tasks, contacts and shares that have none, i.e.
+ * those created before the activity log existed.
+ *
+ * Runs once per database, not once per startup: the instance that takes the scheduler lease
+ * works through the rows on a background thread, in small id-ordered batches of short
+ * transactions, renewing the lease as it goes. When it finishes it keeps the lease for good, so
+ * neither the other instances nor later restarts scan the tables again or bring back events
+ * the retention job deleted. If it stops halfway, the lease runs out and the next startup
+ * carries on. Rows written through the API meanwhile already have their event and are skipped,
+ * and so are rows older than the app.activity.retention-days cutoff.
+ */
+@Component
+public class ActivityEventBackfill {
+    private static final Logger log = LoggerFactory.getLogger(ActivityEventBackfill.class);
+    private static final String JOB = "activity-events-backfill";
+    private static final Duration RUN_LEASE = Duration.ofMinutes(30);
+    private static final Duration DONE_LEASE = Duration.ofDays(365L * 100);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ActivityLog activityLog;
+    private final UserRepository userRepository;
+    private final SchedulerLeaseService leases;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public ActivityEventBackfill(ActivityLog activityLog, UserRepository userRepository, SchedulerLeaseService leases,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.migration.activity-events.enabled:true}") boolean enabled,
+                                 @Value("${app.migration.activity-events.batch-size:500}") int batchSize) {
+        this.activityLog = activityLog;
+        this.userRepository = userRepository;
+        this.leases = leases;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        Thread worker = new Thread(this::run, "activity-events-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void run() {
+        try {
+            // Held by another instance that is running it, or by whichever instance finished it
+            if (!leases.tryAcquire(JOB, RUN_LEASE)) return;
+            LocalDateTime cutoff = activityLog.retentionCutoff();
+            backfill(Meeting.class, "meetingDate", cutoff, EventType.MEETING, Meeting::getId, activityLog::recordMeeting);
+            backfill(Task.class, "createdAt", cutoff, EventType.TASK, Task::getId, task -> activityLog.recordTask(task, true));
+            backfill(Contact.class, "createdAt", cutoff, EventType.CONTACT_CREATED, Contact::getId,
+                    activityLog::recordContactCreated);
+            backfill(Share.class, "createdAt", cutoff, EventType.SHARE, Share::getId,
+                    share -> userRepository.findById(share.getSharedWithUserId())
+                            .ifPresent(sharedWith -> activityLog.recordShare(share, sharedWith)));
+            leases.tryAcquire(JOB, DONE_LEASE);
+        } catch (Exception e) {
+            log.warn("Activity events backfill stopped: {}", e.getMessage());
+        }
+    }
+
+    // occurredAt names the attribute the event's occurredAt is taken from
+    private <T> void backfill(Class<T> type, String occurredAt, LocalDateTime cutoff, EventType eventType,
+                              Function<T, String> id, Consumer<T> record) {
+        String pending = "SELECT x FROM " + type.getSimpleName() + " x WHERE x.id > :after AND NOT EXISTS " +
+                "(SELECT e.id FROM ActivityEvent e WHERE e.sourceId = x.id AND e.type = :type)" +
+                (cutoff != null ? " AND (x." + occurredAt + " IS NULL OR x." + occurredAt + " >= :cutoff)" : "") +
+                " ORDER BY x.id";
+        String after = "";
+        long written = 0;
+        while (true) {
+            String from = after;
+            List<T> batch = transactionTemplate.execute(status -> {
+                TypedQuery<T> query = entityManager.createQuery(pending, type)
+                        .setParameter("after", from)
+                        .setParameter("type", eventType)
+                        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                        .setMaxResults(batchSize);
+                if (cutoff != null) query.setParameter("cutoff", cutoff);
+                List<T> rows = query.getResultList();
+                rows.forEach(record);
+                return rows;
+            });
+            if (batch == null || batch.isEmpty()) break;
+            written += batch.size();
+            after = id.apply(batch.get(batch.size() - 1));
+            if (!leases.tryAcquire(JOB, RUN_LEASE)) throw new RuntimeException("Lost the backfill lease");
+        }
+        if (written > 0) log.info("Wrote activity events for {} existing {} rows", written, type.getSimpleName());
+    }
+}
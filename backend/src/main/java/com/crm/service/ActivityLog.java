@@ -0,0 +1,178 @@
+package com.crm.service;
+
+import com.crm.entity.ActivityEvent;
+import com.crm.entity.ActivityEvent.EventType;
+import com.crm.entity.Contact;
+import com.crm.entity.Meeting;
+import com.crm.entity.Share;
+import com.crm.entity.Task;
+import com.crm.entity.User;
+import com.crm.event.ActivityRecordedEvent;
+import com.crm.event.ContactChangedEvent;
+import com.crm.event.MeetingChangedEvent;
+import com.crm.event.UserChangedEvent;
+import com.crm.repository.ActivityEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes activity_events rows as meetings, tasks, contacts and shares are written.
+ *
+ * Like {@link DuplicateCandidateService}, the contact and meeting listeners run synchronously
+ * inside the writing transaction, and TaskService and ShareService call in directly, so an
+ * entity and its feed entry always commit together. Each entry is also published as an
+ * {@link ActivityRecordedEvent} for the user's open event streams. Entries older than
+ * app.activity.retention-days are deleted nightly in small batches.
+ */
+@Component
+public class ActivityLog {
+    private static final Logger log = LoggerFactory.getLogger(ActivityLog.class);
+    private static final int RETENTION_BATCH_SIZE = 1000;
+
+    private final ActivityEventRepository eventRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+
+    public ActivityLog(ActivityEventRepository eventRepository, ObjectMapper objectMapper,
+                       ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                       @Value("${app.activity.retention-days:0}") int retentionDays) {
+        this.eventRepository = eventRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+    }
+
+    @EventListener
+    public void onContactChanged(ContactChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                recordContactCreated(event.getContact());
+                break;
+            case DELETED:
+                eventRepository.deleteBySource(event.getContactId(), EventType.CONTACT_CREATED);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @EventListener
+    public void onMeetingChanged(MeetingChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                recordMeeting(event.getMeeting());
+                break;
+            case UPDATED:
+                eventRepository.deleteBySource(event.getMeeting().getId(), EventType.MEETING);
+                recordMeeting(event.getMeeting());
+                break;
+            case DELETED:
+                eventRepository.deleteBySource(event.getMeeting().getId(), EventType.MEETING);
+                break;
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.isDeleted()) eventRepository.deleteByUserId(event.getUserId());
+    }
+
+    /**
+     * Records a new task, or replaces the entry of an edited one.
+     */
+    public void recordTask(Task task, boolean isNew) {
+        if (!isNew) eventRepository.deleteBySource(task.getId(), EventType.TASK);
+        Map<String, Object> details = new HashMap<>();
+        details.put("status", task.getStatus().name());
+        details.put("priority", task.getPriority().name());
+        details.put("dueDate", task.getDueDate() != null ? task.getDueDate().toString() : null);
+        append(task.getUserId(), task.getContactId(), EventType.TASK, task.getId(),
+                task.getCreatedAt(), task.getTitle(), details);
+    }
+
+    public void removeTask(String taskId) {
+        eventRepository.deleteBySource(taskId, EventType.TASK);
+    }
+
+    public void recordShare(Share share, User sharedWith) {
+        Map<String, Object> details = new HashMap<>();
+        details.put("sharedWithEmail", sharedWith.getEmail());
+        details.put("permission", share.getPermission().name());
+        append(share.getOwnerUserId(), share.getContactId(), EventType.SHARE, share.getId(),
+                share.getCreatedAt(), sharedWith.getName(), details);
+    }
+
+    void recordMeeting(Meeting meeting) {
+        Map<String, Object> details = new HashMap<>();
+        details.put("medium", meeting.getMedium().name());
+        details.put("notes", meeting.getNotes());
+        details.put("outcome", meeting.getOutcome());
+        append(meeting.getUserId(), meeting.getContactId(), EventType.MEETING, meeting.getId(),
+                meeting.getMeetingDate(), meeting.getMedium().name(), details);
+    }
+
+    void recordContactCreated(Contact contact) {
+        append(contact.getUserId(), contact.getId(), EventType.CONTACT_CREATED, contact.getId(),
+                contact.getCreatedAt(), null, null);
+    }
+
+    /**
+     * Events that occurred before this are deleted by the retention job; null if all are kept.
+     */
+    LocalDateTime retentionCutoff() {
+        return retentionDays > 0 ? LocalDateTime.now().minusDays(retentionDays) : null;
+    }
+
+    @Scheduled(cron = "${app.activity.retention-cron:0 30 3 * * *}")
+    public void applyRetention() {
+        if (retentionDays <= 0) return;
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long deleted = 0;
+        while (true) {
+            Integer removed = transactionTemplate.execute(status -> {
+                List<String> ids = eventRepository.findIdsOccurredBefore(cutoff, PageRequest.of(0, RETENTION_BATCH_SIZE));
+                if (!ids.isEmpty()) eventRepository.deleteAllByIdInBatch(ids);
+                return ids.size();
+            });
+            if (removed == null || removed == 0) break;
+            deleted += removed;
+        }
+        if (deleted > 0) log.info("Deleted {} activity events older than {} days", deleted, retentionDays);
+    }
+
+    private void append(String userId, String contactId, EventType type, String sourceId, LocalDateTime occurredAt,
+                        String title, Map<String, Object> details) {
+        ActivityEvent event = new ActivityEvent();
+        event.setUserId(userId);
+        event.setContactId(contactId);
+        event.setType(type);
+        event.setSourceId(sourceId);
+        event.setOccurredAt(occurredAt != null ? occurredAt : LocalDateTime.now());
+        event.setTitle(title);
+        if (details != null) {
+            try {
+                event.setDetails(objectMapper.writeValueAsString(details));
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to serialize activity details");
+            }
+        }
+        eventPublisher.publishEvent(new ActivityRecordedEvent(eventRepository.save(event)));
+    }
+}
@@ -1,163 +1,159 @@
 package com.crm.service;
 
 import com.crm.dto.ActivityDto;
+import com.crm.dto.CursorPage;
+import com.crm.entity.ActivityEvent;
 import com.crm.entity.Contact;
-import com.crm.entity.Meeting;
-import com.crm.entity.Reminder;
-import com.crm.entity.Task;
+import com.crm.repository.ActivityEventRepository;
 import com.crm.repository.ContactRepository;
-import com.crm.repository.MeetingRepository;
-import com.crm.repository.ReminderRepository;
-import com.crm.repository.TaskRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Activity feeds read from the activity_events log (see {@link ActivityLog}).
+ *
+ * A page is one range scan of the (userId, occurredAt) or (contactId, occurredAt) index, newest
+ * first. Events that share a timestamp are ordered by id, and the cursor returned with a page
+ * encodes the (occurredAt, id) of its last event, so paging never skips or repeats an event.
+ */
 @Service
 public class ActivityService {
+    private static final int MAX_LIMIT = 200;
+    // Stands in for "no cursor"; later than any stored timestamp and valid in every database
+    private static final Position LATEST = new Position(LocalDateTime.of(9999, 12, 31, 0, 0), "");
+    private static final TypeReference<Map<String, Object>> DETAILS = new TypeReference<Map<String, Object>>() {};
+
+    private final ActivityEventRepository eventRepository;
     private final ContactRepository contactRepository;
-    private final MeetingRepository meetingRepository;
-    private final ReminderRepository reminderRepository;
-    private final TaskRepository taskRepository;
+    private final ObjectMapper objectMapper;
 
-    public ActivityService(ContactRepository contactRepository, MeetingRepository meetingRepository,
-                           ReminderRepository reminderRepository, TaskRepository taskRepository) {
+    public ActivityService(ActivityEventRepository eventRepository, ContactRepository contactRepository,
+                           ObjectMapper objectMapper) {
+        this.eventRepository = eventRepository;
         this.contactRepository = contactRepository;
-        this.meetingRepository = meetingRepository;
-        this.reminderRepository = reminderRepository;
-        this.taskRepository = taskRepository;
+        this.objectMapper = objectMapper;
     }
 
     public List<ActivityDto> getRecentActivity(String userId, int limit) {
-        List<ActivityDto> activities = new ArrayList<>();
+        return getRecentActivityPage(userId, limit, null).getItems();
+    }
+
+    public CursorPage<ActivityDto> getRecentActivityPage(String userId, int limit, String cursor) {
+        Position after = decodeCursor(cursor);
+        int size = clamp(limit);
+        // One extra row tells us whether there is a next page
+        List<Object[]> rows = eventRepository.findFeed(userId, after.occurredAt, after.id, PageRequest.of(0, size + 1));
 
-        // Get recent meetings
-        meetingRepository.findByUserId(userId).stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .limit(limit)
-                .forEach(meeting -> {
-                    ActivityDto activity = new ActivityDto();
-                    activity.setId(meeting.getId());
-                    activity.setType("MEETING");
-                    activity.setContactId(meeting.getContactId());
-                    Contact contact = contactRepository.findById(meeting.getContactId()).orElse(null);
-                    activity.setContactName(contact != null ? contact.getName() : "Unknown");
-                    activity.setDescription(meeting.getMedium().name().replace("_", " ") + " with " + activity.getContactName());
-                    activity.setTimestamp(meeting.getMeetingDate().toString());
-                    Map<String, Object> details = new HashMap<>();
-                    details.put("medium", meeting.getMedium().name());
-                    details.put("notes", meeting.getNotes());
-                    details.put("outcome", meeting.getOutcome());
-                    activity.setDetails(details);
-                    activities.add(activity);
-                });
-
-        // Get recent tasks
-        taskRepository.findByUserId(userId).stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .limit(limit)
-                .forEach(task -> {
-                    ActivityDto activity = new ActivityDto();
-                    activity.setId(task.getId());
-                    activity.setType("TASK");
-                    activity.setContactId(task.getContactId());
-                    if (task.getContactId() != null) {
-                        Contact contact = contactRepository.findById(task.getContactId()).orElse(null);
-                        activity.setContactName(contact != null ? contact.getName() : "Unknown");
-                    }
-                    activity.setDescription("Task: " + task.getTitle());
-                    activity.setTimestamp(task.getCreatedAt().toString());
-                    Map<String, Object> details = new HashMap<>();
-                    details.put("status", task.getStatus().name());
-                    details.put("priority", task.getPriority().name());
-                    details.put("dueDate", task.getDueDate() != null ? task.getDueDate().toString() : null);
-                    activity.setDetails(details);
-                    activities.add(activity);
-                });
-
-        // Get recently created contacts
-        contactRepository.findByUserId(userId).stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .limit(limit)
-                .forEach(contact -> {
-                    ActivityDto activity = new ActivityDto();
-                    activity.setId(contact.getId());
-                    activity.setType("CONTACT_CREATED");
-                    activity.setContactId(contact.getId());
-                    activity.setContactName(contact.getName());
-                    activity.setDescription("Added contact: " + contact.getName());
-                    activity.setTimestamp(contact.getCreatedAt().toString());
-                    activities.add(activity);
-                });
-
-        // Sort all activities by timestamp descending
-        return activities.stream()
-                .sorted((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        List<ActivityDto> activities = new ArrayList<>();
+        for (Object[] row : rows.subList(0, Math.min(size, rows.size()))) {
+            activities.add(toDto((ActivityEvent) row[0], (String) row[1], false));
+        }
+        String nextCursor = rows.size() > size ? encodeCursor((ActivityEvent) rows.get(size - 1)[0]) : null;
+        return new CursorPage<>(activities, nextCursor);
     }
 
     public List<ActivityDto> getContactActivity(String userId, String contactId, int limit) {
-        List<ActivityDto> activities = new ArrayList<>();
+        return getContactActivityPage(userId, contactId, limit, null).getItems();
+    }
 
+    public CursorPage<ActivityDto> getContactActivityPage(String userId, String contactId, int limit, String cursor) {
         Contact contact = contactRepository.findById(contactId)
                 .orElseThrow(() -> new RuntimeException("Contact not found"));
         if (!contact.getUserId().equals(userId)) {
             throw new RuntimeException("Access denied");
         }
 
-        // Get contact meetings
-        meetingRepository.findByContactId(contactId).stream()
-                .sorted((a, b) -> b.getMeetingDate().compareTo(a.getMeetingDate()))
-                .forEach(meeting -> {
-                    ActivityDto activity = new ActivityDto();
-                    activity.setId(meeting.getId());
-                    activity.setType("MEETING");
-                    activity.setContactId(contactId);
-                    activity.setContactName(contact.getName());
-                    activity.setDescription(meeting.getMedium().name().replace("_", " "));
-                    activity.setTimestamp(meeting.getMeetingDate().toString());
-                    Map<String, Object> details = new HashMap<>();
-                    details.put("medium", meeting.getMedium().name());
-                    details.put("notes", meeting.getNotes());
-                    details.put("outcome", meeting.getOutcome());
-                    activity.setDetails(details);
-                    activities.add(activity);
-                });
-
-        // Get contact tasks
-        taskRepository.findByContactId(contactId).stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .forEach(task -> {
-                    ActivityDto activity = new ActivityDto();
-                    activity.setId(task.getId());
-                    activity.setType("TASK");
-                    activity.setContactId(contactId);
-                    activity.setContactName(contact.getName());
-                    activity.setDescription("Task: " + task.getTitle());
-                    activity.setTimestamp(task.getCreatedAt().toString());
-                    Map<String, Object> details = new HashMap<>();
-                    details.put("status", task.getStatus().name());
-                    details.put("priority", task.getPriority().name());
-                    activity.setDetails(details);
-                    activities.add(activity);
-                });
-
-        // Add contact creation
-        ActivityDto created = new ActivityDto();
-        created.setId(contact.getId());
-        created.setType("CONTACT_CREATED");
-        created.setContactId(contactId);
-        created.setContactName(contact.getName());
-        created.setDescription("Contact created");
-        created.setTimestamp(contact.getCreatedAt().toString());
-        activities.add(created);
-
-        return activities.stream()
-                .sorted((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        Position after = decodeCursor(cursor);
+        int size = clamp(limit);
+        List<ActivityEvent> events = eventRepository.findContactFeed(contactId, userId, after.occurredAt, after.id,
+                PageRequest.of(0, size + 1));
+
+        List<ActivityDto> activities = new ArrayList<>();
+        for (ActivityEvent event : events.subList(0, Math.min(size, events.size()))) {
+            activities.add(toDto(event, contact.getName(), true));
+        }
+        String nextCursor = events.size() > size ? encodeCursor(events.get(size - 1)) : null;
+        return new CursorPage<>(activities, nextCursor);
+    }
+
+    // Descriptions use the contact's current name; the contact feed leaves it out where it is implied
+    private ActivityDto toDto(ActivityEvent event, String contactName, boolean forContact) {
+        ActivityDto activity = new ActivityDto();
+        activity.setId(event.getSourceId());
+        activity.setType(event.getType().name());
+        activity.setContactId(event.getContactId());
+        if (event.getContactId() != null) activity.setContactName(contactName != null ? contactName : "Unknown");
+        activity.setTimestamp(event.getOccurredAt().toString());
+        activity.setDetails(parseDetails(event.getDetails()));
+
+        switch (event.getType()) {
+            case MEETING:
+                String medium = event.getTitle().replace("_", " ");
+                activity.setDescription(forContact ? medium : medium + " with " + activity.getContactName());
+                break;
+            case TASK:
+                activity.setDescription("Task: " + event.getTitle());
+                break;
+            case CONTACT_CREATED:
+                activity.setDescription(forContact ? "Contact created" : "Added contact: " + activity.getContactName());
+                break;
+            case SHARE:
+                activity.setDescription(forContact ? "Shared with " + event.getTitle()
+                        : "Shared " + activity.getContactName() + " with " + event.getTitle());
+                break;
+        }
+        return activity;
+    }
+
+    private Map<String, Object> parseDetails(String details) {
+        if (details == null) return null;
+        try {
+            return objectMapper.readValue(details, DETAILS);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    private String encodeCursor(ActivityEvent last) {
+        List<String> parts = Arrays.asList(last.getOccurredAt().toString(), last.getId());
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(parts));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to encode cursor");
+        }
+    }
+
+    private Position decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return LATEST;
+        try {
+            String[] parts = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), String[].class);
+            if (parts.length != 2 || parts[0] == null || parts[1] == null) throw new RuntimeException("Invalid cursor");
+            return new Position(LocalDateTime.parse(parts[0]), parts[1]);
+        } catch (IOException | IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    // Where the previous page ended: the (occurredAt, id) of its last event
+    private static final class Position {
+        final LocalDateTime occurredAt;
+        final String id;
+
+        Position(LocalDateTime occurredAt, String id) {
+            this.occurredAt = occurredAt;
+            this.id = id;
+        }
     }
 }
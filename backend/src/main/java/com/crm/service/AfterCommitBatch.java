@@ -0,0 +1,53 @@
+package com.crm.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+
+/**
+ * Values collected per key during a transaction and applied once per key after it commits, so
+ * a write that publishes an event per row (such as an import) causes one piece of follow-up
+ * work per key rather than one per row. Values of a rolled back transaction are dropped; outside
+ * a transaction a value is applied at once. Batches run in ascending {@code order} after commit.
+ */
+final class AfterCommitBatch<K, V> {
+    private final int order;
+    private final BinaryOperator<V> merge;
+    private final BiConsumer<K, V> apply;
+
+    AfterCommitBatch(int order, BinaryOperator<V> merge, BiConsumer<K, V> apply) {
+        this.order = order;
+        this.merge = merge;
+        this.apply = apply;
+    }
+
+    @SuppressWarnings("unchecked")
+    void add(K key, V value) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.accept(key, value);
+            return;
+        }
+        Map<K, V> pending = (Map<K, V>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<K, V> values = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, values);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    return order;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AfterCommitBatch.this);
+                    if (status == STATUS_COMMITTED) values.forEach(apply);
+                }
+            });
+            pending = values;
+        }
+        pending.merge(key, value, merge);
+    }
+}
@@ -3,17 +3,21 @@ package com.crm.service;
 import com.crm.dto.AuthRequest;
 import com.crm.dto.AuthResponse;
 import com.crm.entity.User;
+import com.crm.event.UserChangedEvent;
 import com.crm.repository.ContactRepository;
 import com.crm.repository.MeetingRepository;
 import com.crm.repository.ReminderRepository;
 import com.crm.repository.UserRepository;
 import com.crm.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -26,11 +30,14 @@ public class AuthService {
     private final JwtService jwtService;
     private final TemplateService templateService;
     private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthService(UserRepository userRepository, ContactRepository contactRepository,
                        MeetingRepository meetingRepository, ReminderRepository reminderRepository,
                        PasswordEncoder passwordEncoder, JwtService jwtService,
-                       TemplateService templateService, EmailService emailService) {
+                       TemplateService templateService, EmailService emailService,
+                       ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.contactRepository = contactRepository;
         this.meetingRepository = meetingRepository;
@@ -39,6 +46,8 @@ public class AuthService {
         this.jwtService = jwtService;
         this.templateService = templateService;
         this.emailService = emailService;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -89,6 +98,7 @@ public class AuthService {
         user.setVerificationToken(null);
         user.setVerificationTokenExpiry(null);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
     }
 
     /**
@@ -110,6 +120,7 @@ public class AuthService {
         user.setVerificationToken(verificationToken);
         user.setVerificationTokenExpiry(tokenExpiry);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
         emailService.sendVerificationEmail(user.getEmail(), user.getName(), verificationToken);
     }
@@ -126,16 +137,16 @@ public class AuthService {
     }
 
     public AuthResponse refresh(String refreshToken) {
-        if (!jwtService.isTokenValid(refreshToken)) {
-            throw new RuntimeException("Invalid refresh token");
-        }
-        String userId = jwtService.extractUserId(refreshToken);
+        String userId = jwtService.validateUserId(refreshToken)
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return createAuthResponse(user);
     }
 
-    public void changePassword(User user, String currentPassword, String newPassword) {
+    @Transactional
+    public void changePassword(User principal, String currentPassword, String newPassword) {
+        User user = current(principal);
         if (user.getPasswordHash() == null) {
             throw new RuntimeException("Cannot change password for OAuth-only accounts");
         }
@@ -146,6 +157,25 @@ public class AuthService {
 
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+    }
+
+    @Transactional
+    public User updateProfile(User principal, Map<String, Object> updates) {
+        User user = current(principal);
+        if (updates.containsKey("name")) user.setName((String) updates.get("name"));
+        if (updates.containsKey("timezone")) user.setTimezone((String) updates.get("timezone"));
+        if (updates.containsKey("profilePicture")) user.setProfilePicture((String) updates.get("profilePicture"));
+        if (updates.containsKey("settings")) {
+            try {
+                user.setSettings(objectMapper.writeValueAsString(updates.get("settings")));
+            } catch (Exception e) {
+                user.setSettings(updates.get("settings").toString());
+            }
+        }
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+        return saved;
     }
 
     public String initiatePasswordReset(String email) {
@@ -165,12 +195,21 @@ public class AuthService {
     }
 
     @Transactional
-    public void deleteAccount(User user) {
-        reminderRepository.findByUserIdAndStatus(user.getId(),
-            com.crm.entity.Reminder.ReminderStatus.PENDING).forEach(reminderRepository::delete);
+    public void deleteAccount(User principal) {
+        User user = current(principal);
+        reminderRepository.findByUserIdAndStatusIn(user.getId(),
+            com.crm.entity.Reminder.ACTIVE).forEach(reminderRepository::delete);
         meetingRepository.findByUserId(user.getId()).forEach(meetingRepository::delete);
         contactRepository.findByUserId(user.getId()).forEach(contactRepository::delete);
         userRepository.delete(user);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(user.getId()));
+    }
+
+    // The request's principal may be a cached copy up to app.auth.principal-cache.ttl-ms old, so
+    // account writes check and change the stored user instead
+    private User current(User principal) {
+        return userRepository.findById(principal.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     private AuthResponse createAuthResponse(User user) {
@@ -0,0 +1,89 @@
+package com.crm.service;
+
+import com.crm.dto.CalendarEventDto;
+import com.crm.dto.ImportReport;
+import com.crm.entity.CalendarEvent;
+import com.crm.repository.CalendarEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports calendar events from an ICS file in batches of app.import.batch-size, the same way
+ * {@link ContactImportService} imports CSV. Each VEVENT is one record; events without a SUMMARY
+ * or DTSTART, or with a date that cannot be parsed, are reported with the line of their
+ * BEGIN:VEVENT.
+ */
+@Service
+public class CalendarImportService {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CalendarService calendarService;
+    private final CalendarEventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public CalendarImportService(CalendarService calendarService, CalendarEventRepository eventRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.import.batch-size:500}") int batchSize) {
+        this.calendarService = calendarService;
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public ImportReport importIcs(String userId, Reader input, ImportReport resumeFrom,
+                                  ImportCheckpoint checkpoint, int maxErrors) {
+        ImportBatchWriter<CalendarEventDto> writer = new ImportBatchWriter<>(transactionTemplate, batchSize, maxErrors,
+                resumeFrom, checkpoint, dtos -> insert(userId, dtos));
+        int skip = writer.resumeAfter();
+        IcsEventReader ics = new IcsEventReader(input);
+
+        try {
+            CalendarEventDto dto;
+            int ordinal = 0;
+            while ((dto = ics.next()) != null) {
+                if (++ordinal <= skip) continue;
+                String error = validate(dto, ics.getEventError());
+                if (error != null) {
+                    writer.reject(ordinal, ics.getEventLine(), error);
+                } else {
+                    if (dto.getEndTime() == null) dto.setEndTime(dto.getStartTime());
+                    writer.accept(ordinal, ics.getEventLine(), dto);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read ICS: " + e.getMessage());
+        }
+        return writer.finish();
+    }
+
+    private void insert(String userId, List<CalendarEventDto> dtos) {
+        List<CalendarEvent> events = new ArrayList<>(dtos.size());
+        for (CalendarEventDto dto : dtos) {
+            events.add(calendarService.newEvent(dto, userId));
+        }
+        eventRepository.saveAll(events);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static String validate(CalendarEventDto dto, String parseError) {
+        if (parseError != null) return parseError;
+        if (dto.getTitle() == null || dto.getTitle().isBlank()) return "Missing SUMMARY";
+        if (dto.getStartTime() == null) return "Missing DTSTART";
+        if (dto.getEndTime() != null && LocalDateTime.parse(dto.getEndTime()).isBefore(LocalDateTime.parse(dto.getStartTime()))) {
+            return "DTEND is before DTSTART";
+        }
+        return null;
+    }
+}
@@ -6,15 +6,19 @@ import com.crm.entity.CalendarEvent.EventStatus;
 import com.crm.entity.CalendarEvent.EventType;
 import com.crm.entity.Contact;
 import com.crm.entity.Meeting;
+import com.crm.event.MeetingChangedEvent;
 import com.crm.repository.CalendarEventRepository;
 import com.crm.repository.ContactRepository;
 import com.crm.repository.MeetingRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -70,13 +74,16 @@ public class CalendarService {
     private final CalendarEventRepository eventRepository;
     private final ContactRepository contactRepository;
     private final MeetingRepository meetingRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
 
     public CalendarService(CalendarEventRepository eventRepository, ContactRepository contactRepository,
-                           MeetingRepository meetingRepository, ObjectMapper objectMapper) {
+                           MeetingRepository meetingRepository, ApplicationEventPublisher eventPublisher,
+                           ObjectMapper objectMapper) {
         this.eventRepository = eventRepository;
         this.contactRepository = contactRepository;
         this.meetingRepository = meetingRepository;
+        this.eventPublisher = eventPublisher;
         this.objectMapper = objectMapper;
     }
 
@@ -122,6 +129,12 @@ public class CalendarService {
 
     @Transactional
     public CalendarEventDto create(CalendarEventDto dto, String userId) {
+        CalendarEvent event = eventRepository.save(newEvent(dto, userId));
+        return toDto(event);
+    }
+
+    // Builds an unsaved event from the DTO; shared with the bulk ICS import
+    CalendarEvent newEvent(CalendarEventDto dto, String userId) {
         CalendarEvent event = new CalendarEvent();
         event.setUserId(userId);
         event.setTitle(dto.getTitle());
@@ -142,9 +155,7 @@ public class CalendarService {
         } else if (dto.getMeetLink() != null) {
             event.setMeetLink(dto.getMeetLink());
         }
-
-        event = eventRepository.save(event);
-        return toDto(event);
+        return event;
     }
 
     @Transactional
@@ -208,7 +219,8 @@ public class CalendarService {
                 meeting.setMedium(Meeting.MeetingMedium.IN_PERSON);
             }
 
-            meetingRepository.save(meeting);
+            meeting = meetingRepository.save(meeting);
+            eventPublisher.publishEvent(MeetingChangedEvent.created(meeting));
 
             // Update contact's last contacted time
             Contact contact = contactRepository.findById(event.getContactId()).orElse(null);
@@ -264,42 +276,19 @@ public class CalendarService {
     @Transactional
     public List<CalendarEventDto> importFromIcs(String userId, String icsContent) {
         List<CalendarEventDto> imported = new ArrayList<>();
-        String[] lines = icsContent.split("\n");
-        CalendarEventDto current = null;
-
-        for (String line : lines) {
-            line = line.trim();
-            if (line.equals("BEGIN:VEVENT")) {
-                current = new CalendarEventDto();
-            } else if (line.equals("END:VEVENT") && current != null) {
-                if (current.getTitle() != null && current.getStartTime() != null) {
-                    if (current.getEndTime() == null) {
-                        current.setEndTime(current.getStartTime());
-                    }
-                    imported.add(create(current, userId));
-                }
-                current = null;
-            } else if (current != null) {
-                if (line.startsWith("SUMMARY:")) {
-                    current.setTitle(unescapeIcs(line.substring(8)));
-                } else if (line.startsWith("DESCRIPTION:")) {
-                    current.setDescription(unescapeIcs(line.substring(12)));
-                } else if (line.startsWith("DTSTART")) {
-                    current.setStartTime(parseIcsDateTime(line));
-                } else if (line.startsWith("DTEND")) {
-                    current.setEndTime(parseIcsDateTime(line));
-                } else if (line.startsWith("LOCATION:")) {
-                    current.setLocation(unescapeIcs(line.substring(9)));
-                } else if (line.startsWith("URL:")) {
-                    String url = line.substring(4);
-                    if (url.contains("meet.google.com")) {
-                        current.setMeetLink(url);
-                        current.setType("VIDEO_CALL");
-                    }
+        IcsEventReader ics = new IcsEventReader(new StringReader(icsContent));
+        try {
+            CalendarEventDto event;
+            while ((event = ics.next()) != null) {
+                if (ics.getEventError() != null || event.getTitle() == null || event.getStartTime() == null) continue;
+                if (event.getEndTime() == null) {
+                    event.setEndTime(event.getStartTime());
                 }
+                imported.add(create(event, userId));
             }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read ICS: " + e.getMessage());
         }
-
         return imported;
     }
 
@@ -315,20 +304,6 @@ public class CalendarService {
                 dt.getHour(), dt.getMinute());
     }
 
-    private String parseIcsDateTime(String line) {
-        String value = line.contains(":") ? line.substring(line.indexOf(":") + 1) : line;
-        value = value.replace("Z", "").replace("T", "");
-        if (value.length() >= 8) {
-            int year = Integer.parseInt(value.substring(0, 4));
-            int month = Integer.parseInt(value.substring(4, 6));
-            int day = Integer.parseInt(value.substring(6, 8));
-            int hour = value.length() >= 10 ? Integer.parseInt(value.substring(8, 10)) : 0;
-            int minute = value.length() >= 12 ? Integer.parseInt(value.substring(10, 12)) : 0;
-            return LocalDateTime.of(year, month, day, hour, minute).toString();
-        }
-        return null;
-    }
-
     private String escapeIcs(String value) {
         if (value == null) return "";
         return value.replace("\\", "\\\\")
@@ -337,14 +312,6 @@ public class CalendarService {
                 .replace("\n", "\\n");
     }
 
-    private String unescapeIcs(String value) {
-        if (value == null) return "";
-        return value.replace("\\n", "\n")
-                .replace("\\,", ",")
-                .replace("\\;", ";")
-                .replace("\\\\", "\\");
-    }
-
     private String mapStatusToIcs(EventStatus status) {
         switch (status) {
             case CONFIRMED: return "CONFIRMED";
@@ -0,0 +1,92 @@
+package com.crm.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Text with {@code {placeholder}} fields, parsed once into literal and field segments so each
+ * render is a single pass appending to one builder. A field whose value is null is written back
+ * as it was, braces included; a brace that does not close a field name is plain text.
+ */
+public final class CompiledTemplate {
+    private final String[] literals;
+    private final String[] fields;
+    private final int literalLength;
+
+    private CompiledTemplate(String[] literals, String[] fields) {
+        this.literals = literals;
+        this.fields = fields;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static CompiledTemplate compile(String content) {
+        List<String> literals = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = content.indexOf('{', start)) >= 0) {
+            int close = fieldEnd(content, open + 1);
+            if (close < 0) {
+                // Not a field; keep the brace with the literal that follows
+                int next = content.indexOf('{', open + 1);
+                if (next < 0) break;
+                literals.add(content.substring(start, next));
+                fields.add(null);
+                start = next;
+                continue;
+            }
+            literals.add(content.substring(start, open));
+            fields.add(content.substring(open + 1, close));
+            start = close + 1;
+        }
+        literals.add(content.substring(start));
+        return new CompiledTemplate(literals.toArray(new String[0]), fields.toArray(new String[0]));
+    }
+
+    // Index of the '}' ending a field name that starts at from, or -1
+    private static int fieldEnd(String content, int from) {
+        for (int i = from; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == '}') return i > from ? i : -1;
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '.') return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Names of the fields in order of appearance, repeats included.
+     */
+    public List<String> getFields() {
+        List<String> names = new ArrayList<>();
+        for (String field : fields) {
+            if (field != null) names.add(field);
+        }
+        return names;
+    }
+
+    public String render(Function<String, String> values) {
+        StringBuilder out = new StringBuilder(literalLength + 16 * fields.length);
+        renderTo(out, values);
+        return out.toString();
+    }
+
+    public void renderTo(StringBuilder out, Function<String, String> values) {
+        for (int i = 0; i < fields.length; i++) {
+            out.append(literals[i]);
+            String field = fields[i];
+            if (field == null) continue;
+            String value = values.apply(field);
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append('{').append(field).append('}');
+            }
+        }
+        out.append(literals[fields.length]);
+    }
+}
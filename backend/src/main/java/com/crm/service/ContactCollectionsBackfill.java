@@ -0,0 +1,88 @@
+package com.crm.service;
+
+import com.crm.entity.Contact;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * Copies the emails/phones/tags JSON columns of existing contacts into the contact_emails,
+ * contact_phones and contact_tags tables.
+ *
+ * Runs once per startup on a background thread, so the application serves traffic while it
+ * works. Contacts are visited in id order in small batches, each in its own short transaction
+ * that locks only the rows of that batch; a contact written through the API in the meantime
+ * already has its child rows and is skipped. Once every row is migrated the query finds nothing
+ * and the job ends immediately.
+ */
+@Component
+public class ContactCollectionsBackfill {
+    private static final Logger log = LoggerFactory.getLogger(ContactCollectionsBackfill.class);
+
+    private static final String PENDING = "SELECT c FROM Contact c WHERE c.id > :after AND (" +
+            "(c.emails IS NOT NULL AND c.emails NOT LIKE '' AND c.emails NOT LIKE '[]' AND c.emailEntries IS EMPTY) OR " +
+            "(c.phones IS NOT NULL AND c.phones NOT LIKE '' AND c.phones NOT LIKE '[]' AND c.phoneEntries IS EMPTY) OR " +
+            "(c.tags IS NOT NULL AND c.tags NOT LIKE '' AND c.tags NOT LIKE '[]' AND c.tagEntries IS EMPTY)) " +
+            "ORDER BY c.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ContactValues contactValues;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public ContactCollectionsBackfill(ContactValues contactValues, PlatformTransactionManager transactionManager,
+                                      @Value("${app.migration.contact-collections.enabled:true}") boolean enabled,
+                                      @Value("${app.migration.contact-collections.batch-size:500}") int batchSize) {
+        this.contactValues = contactValues;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        Thread worker = new Thread(this::run, "contact-collections-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void run() {
+        String after = "";
+        long migrated = 0;
+        try {
+            while (true) {
+                String from = after;
+                List<Contact> batch = transactionTemplate.execute(status -> migrateBatch(from));
+                if (batch == null || batch.isEmpty()) break;
+                migrated += batch.size();
+                after = batch.get(batch.size() - 1).getId();
+            }
+            if (migrated > 0) log.info("Backfilled email/phone/tag tables for {} contacts", migrated);
+        } catch (Exception e) {
+            log.warn("Contact collections backfill stopped after {} contacts: {}", migrated, e.getMessage());
+        }
+    }
+
+    private List<Contact> migrateBatch(String after) {
+        List<Contact> batch = entityManager.createQuery(PENDING, Contact.class)
+                .setParameter("after", after)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(batchSize)
+                .getResultList();
+        batch.forEach(contactValues::backfill);
+        return batch;
+    }
+}
@@ -19,11 +19,14 @@ import java.util.stream.Collectors;
 public class ContactGroupService {
     private final ContactGroupRepository groupRepository;
     private final ContactRepository contactRepository;
+    private final ContactValues contactValues;
     private final ObjectMapper objectMapper;
 
-    public ContactGroupService(ContactGroupRepository groupRepository, ContactRepository contactRepository, ObjectMapper objectMapper) {
+    public ContactGroupService(ContactGroupRepository groupRepository, ContactRepository contactRepository,
+                               ContactValues contactValues, ObjectMapper objectMapper) {
         this.groupRepository = groupRepository;
         this.contactRepository = contactRepository;
+        this.contactValues = contactValues;
         this.objectMapper = objectMapper;
     }
 
@@ -53,6 +56,16 @@ public class ContactGroupService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Ids of the group's contacts, in the group's order.
+     */
+    public List<String> getGroupContactIds(String id, String userId) {
+        ContactGroup group = groupRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+        if (!group.getUserId().equals(userId)) throw new RuntimeException("Access denied");
+        return parseJsonArray(group.getContactIds());
+    }
+
     @Transactional
     public ContactGroupDto create(ContactGroupDto dto, String userId) {
         if (groupRepository.existsByUserIdAndName(userId, dto.getName())) {
@@ -148,10 +161,10 @@ public class ContactGroupService {
         ContactDto dto = new ContactDto();
         dto.setId(c.getId());
         dto.setName(c.getName());
-        dto.setEmails(parseJsonArray(c.getEmails()));
-        dto.setPhones(parseJsonArray(c.getPhones()));
+        dto.setEmails(contactValues.emails(c));
+        dto.setPhones(contactValues.phones(c));
         dto.setCompany(c.getCompany());
-        dto.setTags(parseJsonArray(c.getTags()));
+        dto.setTags(contactValues.tags(c));
         return dto;
     }
 
@@ -0,0 +1,173 @@
+package com.crm.service;
+
+import com.crm.dto.ContactDto;
+import com.crm.dto.ImportReport;
+import com.crm.entity.Contact;
+import com.crm.entity.User;
+import com.crm.event.ContactChangedEvent;
+import com.crm.repository.ContactRepository;
+import com.crm.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports contacts from CSV in the column order written by the CSV export.
+ *
+ * The file is parsed one record at a time. Valid rows are inserted in batches of
+ * app.import.batch-size, each batch in its own transaction, together with their birthday and
+ * anniversary reminders; with hibernate.jdbc.batch_size set and UUID ids assigned in memory,
+ * a batch goes to the database as a handful of JDBC batches. A row that fails validation is
+ * reported and skipped; see {@link ImportBatchWriter} for how failed batches and checkpoints
+ * are handled.
+ */
+@Service
+public class ContactImportService {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ContactService contactService;
+    private final ContactRepository contactRepository;
+    private final UserRepository userRepository;
+    private final ReminderService reminderService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ContactImportService(ContactService contactService, ContactRepository contactRepository,
+                                UserRepository userRepository, ReminderService reminderService,
+                                ApplicationEventPublisher eventPublisher, Validator validator,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.import.batch-size:500}") int batchSize) {
+        this.contactService = contactService;
+        this.contactRepository = contactRepository;
+        this.userRepository = userRepository;
+        this.reminderService = reminderService;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public ImportReport importCsv(String userId, Reader input) {
+        return importCsv(userId, input, null, ImportCheckpoint.NONE, MAX_REPORTED_ERRORS);
+    }
+
+    /**
+     * Imports the CSV, skipping the records already covered by {@code resumeFrom} (null to start
+     * from the beginning) and saving progress through {@code checkpoint} with every committed batch.
+     */
+    public ImportReport importCsv(String userId, Reader input, ImportReport resumeFrom,
+                                  ImportCheckpoint checkpoint, int maxErrors) {
+        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+        ImportBatchWriter<ContactDto> writer = new ImportBatchWriter<>(transactionTemplate, batchSize, maxErrors,
+                resumeFrom, checkpoint, dtos -> insert(user, dtos));
+        int skip = writer.resumeAfter();
+        CsvReader csv = new CsvReader(input);
+
+        try {
+            csv.next(); // Skip header
+            List<String> fields;
+            int ordinal = 0;
+            while ((fields = csv.next()) != null) {
+                if (++ordinal <= skip) continue;
+                ContactDto dto = toDto(fields);
+                String error = validate(dto);
+                if (error != null) {
+                    writer.reject(ordinal, csv.getRecordLine(), error);
+                } else {
+                    writer.accept(ordinal, csv.getRecordLine(), dto);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read CSV: " + e.getMessage());
+        }
+        return writer.finish();
+    }
+
+    private void insert(User user, List<ContactDto> dtos) {
+        List<Contact> contacts = new ArrayList<>(dtos.size());
+        for (ContactDto dto : dtos) {
+            contacts.add(contactService.newContact(dto, user.getId()));
+        }
+        contactRepository.saveAll(contacts);
+        reminderService.createDateReminders(contacts, user);
+        // Surface constraint violations inside this transaction, then drop the batch from memory.
+        entityManager.flush();
+        entityManager.clear();
+        contacts.forEach(contact -> eventPublisher.publishEvent(ContactChangedEvent.created(contact)));
+    }
+
+    private ContactDto toDto(List<String> fields) {
+        ContactDto dto = new ContactDto();
+        dto.setName(field(fields, 0));
+        dto.setCompany(emptyToNull(field(fields, 1)));
+        dto.setEmails(splitList(field(fields, 2)));
+        dto.setPhones(splitList(field(fields, 3)));
+        dto.setWhatsappNumber(emptyToNull(field(fields, 4)));
+        dto.setInstagramHandle(emptyToNull(field(fields, 5)));
+        dto.setAddress(emptyToNull(field(fields, 6)));
+        dto.setTags(splitList(field(fields, 7)));
+        dto.setBirthday(emptyToNull(field(fields, 8)));
+        dto.setAnniversary(emptyToNull(field(fields, 9)));
+        dto.setNotes(emptyToNull(field(fields, 10)));
+        return dto;
+    }
+
+    private String validate(ContactDto dto) {
+        Set<ConstraintViolation<ContactDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!isDate(dto.getBirthday())) return "Invalid birthday '" + dto.getBirthday() + "', expected YYYY-MM-DD";
+        if (!isDate(dto.getAnniversary())) return "Invalid anniversary '" + dto.getAnniversary() + "', expected YYYY-MM-DD";
+        return null;
+    }
+
+    private static boolean isDate(String value) {
+        if (value == null) return true;
+        try {
+            LocalDate.parse(value);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static List<String> splitList(String value) {
+        if (value == null || value.isEmpty()) return new ArrayList<>();
+        return Arrays.stream(value.split(";"))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,65 @@
+package com.crm.service;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Blocking keys for duplicate detection. Two contacts can only be duplicates if they share at
+ * least one key, so candidates are found by key lookup instead of comparing every pair.
+ *
+ * - email: trimmed and lower-cased address
+ * - phone: the last 10 digits, which lines up "+1 (555) 010-2030", "1-555-010-2030" and
+ *   "555 010 2030" without a full numbering-plan database
+ * - name: Double Metaphone codes of the first and last name token, so spelling variants such
+ *   as "Jon Smyth" and "John Smith" land in the same block
+ */
+public final class ContactMatchKeys {
+    private static final int MIN_PHONE_DIGITS = 7;
+    private static final int PHONE_KEY_DIGITS = 10;
+    private static final DoubleMetaphone METAPHONE = new DoubleMetaphone();
+
+    static {
+        METAPHONE.setMaxCodeLen(6);
+    }
+
+    private ContactMatchKeys() {}
+
+    public static String email(String email) {
+        if (email == null) return null;
+        String key = email.trim().toLowerCase(Locale.ROOT);
+        return key.indexOf('@') > 0 ? key : null;
+    }
+
+    public static String phone(String phone) {
+        if (phone == null) return null;
+        String digits = phone.replaceAll("[^0-9]", "");
+        if (digits.length() < MIN_PHONE_DIGITS) return null;
+        return digits.length() > PHONE_KEY_DIGITS ? digits.substring(digits.length() - PHONE_KEY_DIGITS) : digits;
+    }
+
+    public static String name(String name) {
+        String normalized = normalizeName(name);
+        if (normalized.isEmpty()) return null;
+        String[] tokens = normalized.split(" ");
+        String first = phonetic(tokens[0]);
+        String last = tokens.length > 1 ? phonetic(tokens[tokens.length - 1]) : "";
+        // Double Metaphone only knows Latin letters; other scripts are blocked on the exact name
+        if (first.isEmpty() && last.isEmpty()) return normalized;
+        return last.isEmpty() ? first : first + " " + last;
+    }
+
+    /**
+     * Lower-case letters only, accents removed and words separated by single spaces.
+     */
+    public static String normalizeName(String name) {
+        if (name == null) return "";
+        String stripped = Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}]+", " ").trim();
+    }
+
+    private static String phonetic(String token) {
+        String code = METAPHONE.doubleMetaphone(token);
+        return code != null ? code : "";
+    }
+}
@@ -0,0 +1,460 @@
+package com.crm.service;
+
+import com.crm.entity.Contact;
+import com.crm.event.ContactChangedEvent;
+import com.crm.event.UserChangedEvent;
+import com.crm.repository.ContactRepository;
+import com.crm.repository.ContactSearchRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory, per-user inverted index used to answer search-as-you-type queries without
+ * touching the database.
+ *
+ * Each user's index maps tokens (for prefix matches) and trigrams of the short fields
+ * (name, company, emails, phones, tags; for substring matches) to sorted int posting lists of
+ * document ordinals. Indexes are built lazily on a background thread the first time a user
+ * searches, kept current from {@link ContactChangedEvent}s after commit, and evicted in LRU
+ * order once app.search.index.max-users or max-documents is exceeded. While a user's index is
+ * missing or still building, {@link #search} returns empty and callers fall back to the
+ * database search.
+ */
+@Component
+public class ContactSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(ContactSearchIndex.class);
+
+    private final ContactRepository contactRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxUsers;
+    private final long maxDocuments;
+    private final ExecutorService buildExecutor;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer rebuildTimer;
+
+    // Access-ordered, so iteration starts at the least recently used user. Guarded by "this".
+    private final LinkedHashMap<String, UserIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalDocuments;
+
+    public ContactSearchIndex(ContactRepository contactRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${app.search.index.enabled:true}") boolean enabled,
+                              @Value("${app.search.index.max-users:500}") int maxUsers,
+                              @Value("${app.search.index.max-documents:250000}") long maxDocuments) {
+        this.contactRepository = contactRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxUsers = maxUsers;
+        this.maxDocuments = maxDocuments;
+        this.buildExecutor = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "search-index-build");
+            t.setDaemon(true);
+            return t;
+        });
+        this.hits = Counter.builder("crm.search.index.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("crm.search.index.requests").tag("result", "miss").register(meterRegistry);
+        this.rebuildTimer = Timer.builder("crm.search.index.rebuild").register(meterRegistry);
+        meterRegistry.gauge("crm.search.index.users", this, index -> index.size());
+        meterRegistry.gauge("crm.search.index.documents", this, index -> index.documents());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buildExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns matching contact ids, best match first, or empty if the user's index is not ready.
+     * Every query term has to match: terms shorter than three characters match token prefixes,
+     * longer ones also match anywhere inside the short fields. With {@code namesOnly} the whole
+     * query must additionally be contained in the contact name.
+     */
+    public Optional<List<String>> search(String userId, String query, int limit, boolean namesOnly) {
+        if (!enabled) return Optional.empty();
+
+        UserIndex index;
+        synchronized (this) {
+            index = indexes.get(userId);
+            if (index == null) {
+                index = new UserIndex();
+                indexes.put(userId, index);
+                scheduleBuild(userId, index);
+            }
+        }
+
+        List<String> terms = ContactSearchRepository.terms(query);
+        Optional<List<String>> result = index.search(terms, query.toLowerCase(Locale.ROOT), limit, namesOnly);
+        (result.isPresent() ? hits : misses).increment();
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContactChanged(ContactChangedEvent event) {
+        if (!enabled) return;
+
+        UserIndex index;
+        synchronized (this) {
+            index = indexes.get(event.getUserId());
+        }
+        if (index == null) return;
+
+        Document document = event.getType() == ContactChangedEvent.ChangeType.DELETED ? null : toDocument(event.getContact());
+        long delta = index.apply(event.getContactId(), document);
+        if (delta != 0) {
+            synchronized (this) {
+                totalDocuments += delta;
+                evictIfNeeded(event.getUserId());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.isDeleted()) invalidate(event.getUserId());
+    }
+
+    /**
+     * Drops a user's index; the next search rebuilds it from the database.
+     */
+    public void invalidate(String userId) {
+        synchronized (this) {
+            UserIndex removed = indexes.remove(userId);
+            if (removed != null) totalDocuments -= removed.documentCount();
+        }
+    }
+
+    private void scheduleBuild(String userId, UserIndex index) {
+        buildExecutor.execute(() -> {
+            try {
+                long added = rebuildTimer.recordCallable(() -> {
+                    List<Contact> contacts = contactRepository.findByUserId(userId);
+                    List<Document> documents = new ArrayList<>(contacts.size());
+                    for (Contact contact : contacts) {
+                        documents.add(toDocument(contact));
+                    }
+                    return index.load(documents);
+                });
+                synchronized (this) {
+                    if (indexes.get(userId) != index) return;
+                    totalDocuments += added;
+                    evictIfNeeded(userId);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to build search index for user {}: {}", userId, e.getMessage());
+                synchronized (this) {
+                    if (indexes.get(userId) == index) indexes.remove(userId);
+                }
+            }
+        });
+    }
+
+    private void evictIfNeeded(String keepUserId) {
+        Iterator<Map.Entry<String, UserIndex>> it = indexes.entrySet().iterator();
+        while ((indexes.size() > maxUsers || totalDocuments > maxDocuments) && it.hasNext()) {
+            Map.Entry<String, UserIndex> eldest = it.next();
+            if (eldest.getKey().equals(keepUserId)) continue;
+            totalDocuments -= eldest.getValue().documentCount();
+            it.remove();
+        }
+    }
+
+    private synchronized int size() {
+        return indexes.size();
+    }
+
+    private synchronized long documents() {
+        return totalDocuments;
+    }
+
+    private Document toDocument(Contact c) {
+        StringBuilder shortText = new StringBuilder(c.getName() != null ? c.getName() : "");
+        appendField(shortText, c.getCompany());
+        for (String email : parseJson(c.getEmails())) appendField(shortText, email);
+        for (String phone : parseJson(c.getPhones())) {
+            appendField(shortText, phone);
+            appendField(shortText, phone.replaceAll("[^0-9]", ""));
+        }
+        for (String tag : parseJson(c.getTags())) appendField(shortText, tag);
+
+        String name = c.getName() != null ? c.getName().toLowerCase(Locale.ROOT) : "";
+        String shortLower = shortText.toString().toLowerCase(Locale.ROOT);
+        Set<String> tokens = new HashSet<>(ContactSearchRepository.terms(shortLower));
+        tokens.addAll(ContactSearchRepository.terms(c.getNotes()));
+        long updatedAt = c.getUpdatedAt() != null ? c.getUpdatedAt().toEpochSecond(ZoneOffset.UTC) : 0L;
+        return new Document(c.getId(), name, shortLower, tokens, updatedAt);
+    }
+
+    private static void appendField(StringBuilder sb, String value) {
+        if (value != null && !value.isEmpty()) sb.append(' ').append(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> parseJson(String json) {
+        try {
+            return json != null ? objectMapper.readValue(json, List.class) : List.of();
+        } catch (JsonProcessingException e) {
+            return List.of();
+        }
+    }
+
+    private static final class Document {
+        final String id;
+        final String name;
+        final String shortText;
+        final Set<String> tokens;
+        final long updatedAt;
+
+        Document(String id, String name, String shortText, Set<String> tokens, long updatedAt) {
+            this.id = id;
+            this.name = name;
+            this.shortText = shortText;
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    /**
+     * One user's index. Documents are addressed by a dense int ordinal; deleted ordinals are
+     * reused so the posting lists stay small. Writers buffer while the initial load is running.
+     */
+    private static final class UserIndex {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final List<Document> documents = new ArrayList<>();
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+        private final TreeMap<String, PostingList> tokens = new TreeMap<>();
+        private final Map<String, PostingList> trigrams = new HashMap<>();
+        private final List<Map.Entry<String, Document>> pending = new ArrayList<>();
+        private boolean ready;
+
+        long load(List<Document> loaded) {
+            lock.writeLock().lock();
+            try {
+                for (Document document : loaded) put(document);
+                // Changes committed while the load was reading are replayed on top of it.
+                for (Map.Entry<String, Document> change : pending) {
+                    if (change.getValue() == null) remove(change.getKey());
+                    else put(change.getValue());
+                }
+                pending.clear();
+                ready = true;
+                return ordinals.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        long apply(String contactId, Document document) {
+            lock.writeLock().lock();
+            try {
+                if (!ready) {
+                    pending.add(new AbstractMap.SimpleEntry<>(contactId, document));
+                    return 0;
+                }
+                int before = ordinals.size();
+                if (document == null) remove(contactId);
+                else put(document);
+                return ordinals.size() - before;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        long documentCount() {
+            lock.readLock().lock();
+            try {
+                return ordinals.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Optional<List<String>> search(List<String> terms, String wholeQuery, int limit, boolean namesOnly) {
+            lock.readLock().lock();
+            try {
+                if (!ready) return Optional.empty();
+                if (terms.isEmpty()) return Optional.of(List.of());
+
+                PostingList candidates = null;
+                for (String term : terms) {
+                    PostingList matches = match(term);
+                    candidates = candidates == null ? matches : candidates.intersect(matches);
+                    if (candidates.size() == 0) return Optional.of(List.of());
+                }
+
+                String first = terms.get(0);
+                List<Document> results = new ArrayList<>();
+                for (int i = 0; i < candidates.size(); i++) {
+                    Document document = documents.get(candidates.get(i));
+                    if (namesOnly && !document.name.contains(wholeQuery)) continue;
+                    results.add(document);
+                }
+                results.sort(Comparator.<Document>comparingInt(d -> d.name.startsWith(first) ? 0 : d.name.contains(first) ? 1 : 2)
+                        .thenComparingLong(d -> -d.updatedAt));
+
+                List<String> ids = new ArrayList<>(Math.min(limit, results.size()));
+                for (int i = 0; i < results.size() && i < limit; i++) {
+                    ids.add(results.get(i).id);
+                }
+                return Optional.of(ids);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private PostingList match(String term) {
+            // A short prefix can cover thousands of tokens, so their lists are merged in one pass
+            List<PostingList> matches = new ArrayList<>(tokens.subMap(term, true, term + Character.MAX_VALUE, false).values());
+            if (term.length() >= 3) {
+                PostingList grams = null;
+                for (String gram : trigramsOf(term)) {
+                    PostingList postings = trigrams.get(gram);
+                    if (postings == null) {
+                        grams = new PostingList();
+                        break;
+                    }
+                    grams = grams == null ? postings : grams.intersect(postings);
+                }
+                if (grams != null) {
+                    PostingList verified = new PostingList();
+                    for (int i = 0; i < grams.size(); i++) {
+                        int ordinal = grams.get(i);
+                        if (documents.get(ordinal).shortText.contains(term)) verified.add(ordinal);
+                    }
+                    matches.add(verified);
+                }
+            }
+            return PostingList.unionAll(matches, documents.size());
+        }
+
+        private void put(Document document) {
+            Integer ordinal = ordinals.get(document.id);
+            if (ordinal != null) {
+                unindex(ordinal, documents.get(ordinal));
+            } else if (!freeOrdinals.isEmpty()) {
+                ordinal = freeOrdinals.pop();
+            } else {
+                ordinal = documents.size();
+                documents.add(null);
+            }
+            documents.set(ordinal, document);
+            ordinals.put(document.id, ordinal);
+            for (String token : document.tokens) {
+                tokens.computeIfAbsent(token, k -> new PostingList()).add(ordinal);
+            }
+            for (String gram : trigramsOf(document.shortText)) {
+                trigrams.computeIfAbsent(gram, k -> new PostingList()).add(ordinal);
+            }
+        }
+
+        private void remove(String contactId) {
+            Integer ordinal = ordinals.remove(contactId);
+            if (ordinal == null) return;
+            unindex(ordinal, documents.get(ordinal));
+            documents.set(ordinal, null);
+            freeOrdinals.push(ordinal);
+        }
+
+        private void unindex(int ordinal, Document document) {
+            for (String token : document.tokens) {
+                PostingList postings = tokens.get(token);
+                if (postings != null && postings.remove(ordinal) && postings.size() == 0) tokens.remove(token);
+            }
+            for (String gram : trigramsOf(document.shortText)) {
+                PostingList postings = trigrams.get(gram);
+                if (postings != null && postings.remove(ordinal) && postings.size() == 0) trigrams.remove(gram);
+            }
+        }
+
+        private static Set<String> trigramsOf(String text) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                grams.add(text.substring(i, i + 3));
+            }
+            return grams;
+        }
+    }
+
+    /**
+     * Sorted, duplicate-free list of ordinals backed by a growable int array.
+     */
+    static final class PostingList {
+        private int[] values = new int[4];
+        private int size;
+
+        int size() { return size; }
+
+        int get(int i) { return values[i]; }
+
+        void add(int value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            System.arraycopy(values, pos, values, pos + 1, size - pos);
+            values[pos] = value;
+            size++;
+        }
+
+        boolean remove(int value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos < 0) return false;
+            System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        PostingList intersect(PostingList other) {
+            PostingList result = new PostingList();
+            result.values = new int[Math.max(1, Math.min(size, other.size))];
+            int i = 0, j = 0;
+            while (i < size && j < other.size) {
+                if (values[i] < other.values[j]) i++;
+                else if (values[i] > other.values[j]) j++;
+                else {
+                    result.values[result.size++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Union of any number of lists of ordinals below {@code universe}, through one bitset
+         * rather than a new merged array per list.
+         */
+        static PostingList unionAll(List<PostingList> lists, int universe) {
+            if (lists.isEmpty()) return new PostingList();
+            if (lists.size() == 1) return lists.get(0);
+            BitSet bits = new BitSet(universe);
+            for (PostingList list : lists) {
+                for (int i = 0; i < list.size; i++) {
+                    bits.set(list.values[i]);
+                }
+            }
+            PostingList result = new PostingList();
+            result.values = new int[Math.max(1, bits.cardinality())];
+            for (int ordinal = bits.nextSetBit(0); ordinal >= 0; ordinal = bits.nextSetBit(ordinal + 1)) {
+                result.values[result.size++] = ordinal;
+            }
+            return result;
+        }
+    }
+}
@@ -1,40 +1,76 @@
 package com.crm.service;
 
 import com.crm.dto.ContactDto;
+import com.crm.dto.CursorPage;
 import com.crm.dto.ContactSearchDto;
 import com.crm.entity.Contact;
+import com.crm.entity.DuplicateCandidate;
+import com.crm.entity.DuplicateCandidate.CandidateStatus;
 import com.crm.entity.User;
+import com.crm.event.ContactChangedEvent;
+import com.crm.repository.ContactKeyset;
 import com.crm.repository.ContactRepository;
+import com.crm.repository.ContactSpecifications;
+import com.crm.repository.DuplicateCandidateRepository;
 import com.crm.repository.ReminderRepository;
 import com.crm.repository.UserRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.io.BufferedReader;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ContactService {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int STREAM_CHUNK_SIZE = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private final ContactRepository contactRepository;
     private final ReminderRepository reminderRepository;
     private final UserRepository userRepository;
     private final ReminderService reminderService;
+    private final ContactSearchIndex contactSearchIndex;
+    private final ContactValues contactValues;
+    private final DuplicateDetector duplicateDetector;
+    private final DuplicateCandidateRepository duplicateCandidateRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
 
     public ContactService(ContactRepository contactRepository, ReminderRepository reminderRepository,
                           UserRepository userRepository, @Lazy ReminderService reminderService,
-                          ObjectMapper objectMapper) {
+                          ContactSearchIndex contactSearchIndex, ContactValues contactValues,
+                          DuplicateDetector duplicateDetector, DuplicateCandidateRepository duplicateCandidateRepository,
+                          ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
         this.contactRepository = contactRepository;
         this.reminderRepository = reminderRepository;
         this.userRepository = userRepository;
         this.reminderService = reminderService;
+        this.contactSearchIndex = contactSearchIndex;
+        this.contactValues = contactValues;
+        this.duplicateDetector = duplicateDetector;
+        this.duplicateCandidateRepository = duplicateCandidateRepository;
+        this.eventPublisher = eventPublisher;
         this.objectMapper = objectMapper;
     }
 
@@ -53,6 +89,7 @@ public class ContactService {
         Contact contact = toEntity(dto);
         contact.setUserId(userId);
         contact = contactRepository.save(contact);
+        eventPublisher.publishEvent(ContactChangedEvent.created(contact));
 
         User user = userRepository.findById(userId).orElse(null);
         if (user != null) {
@@ -67,11 +104,14 @@ public class ContactService {
         return toDto(contact);
     }
 
+    @Transactional
     public ContactDto update(String id, ContactDto dto, String userId) {
         Contact contact = contactRepository.findById(id).orElseThrow(() -> new RuntimeException("Contact not found"));
         if (!contact.getUserId().equals(userId)) throw new RuntimeException("Access denied");
         updateEntity(contact, dto);
-        return toDto(contactRepository.save(contact));
+        contact = contactRepository.save(contact);
+        eventPublisher.publishEvent(ContactChangedEvent.updated(contact));
+        return toDto(contact);
     }
 
     @Transactional
@@ -80,208 +120,166 @@ public class ContactService {
         if (!contact.getUserId().equals(userId)) throw new RuntimeException("Access denied");
         reminderRepository.deleteByContactId(id);
         contactRepository.delete(contact);
+        eventPublisher.publishEvent(ContactChangedEvent.deleted(contact));
     }
 
     public List<ContactDto> search(String userId, String query) {
+        Optional<List<String>> ids = contactSearchIndex.search(userId, query, Integer.MAX_VALUE, true);
+        if (ids.isPresent()) {
+            Map<String, Contact> byId = contactRepository.findAllById(ids.get()).stream()
+                    .collect(Collectors.toMap(Contact::getId, c -> c));
+            return ids.get().stream().map(byId::get).filter(Objects::nonNull).map(this::toDto).collect(Collectors.toList());
+        }
         return contactRepository.findByUserIdAndNameContainingIgnoreCase(userId, query).stream().map(this::toDto).collect(Collectors.toList());
     }
 
     public List<ContactDto> advancedSearch(String userId, ContactSearchDto search) {
-        List<Contact> contacts = contactRepository.findByUserId(userId);
-
-        return contacts.stream()
-                .filter(c -> matchesSearch(c, search))
-                .sorted((a, b) -> compareContacts(a, b, search.getSortBy(), search.getSortOrder()))
+        Specification<Contact> filter = ContactSpecifications.forSearch(userId, search);
+        ContactKeyset keyset = ContactKeyset.first(ContactKeyset.SortKey.from(search.getSortBy()),
+                "desc".equalsIgnoreCase(search.getSortOrder()));
+        return contactRepository.findPage(filter, keyset, Integer.MAX_VALUE).stream()
                 .map(this::toDto)
                 .collect(Collectors.toList());
     }
 
-    private boolean matchesSearch(Contact c, ContactSearchDto search) {
-        // Text query filter
-        if (search.getQuery() != null && !search.getQuery().isEmpty()) {
-            String q = search.getQuery().toLowerCase();
-            boolean matches = c.getName().toLowerCase().contains(q) ||
-                    (c.getCompany() != null && c.getCompany().toLowerCase().contains(q)) ||
-                    (c.getEmails() != null && c.getEmails().toLowerCase().contains(q)) ||
-                    (c.getNotes() != null && c.getNotes().toLowerCase().contains(q));
-            if (!matches) return false;
-        }
-
-        // Tag filter
-        if (search.getTags() != null && !search.getTags().isEmpty()) {
-            List<String> contactTags = parseJson(c.getTags());
-            boolean hasTag = search.getTags().stream().anyMatch(contactTags::contains);
-            if (!hasTag) return false;
-        }
-
-        // Company filter
-        if (search.getCompany() != null && !search.getCompany().isEmpty()) {
-            if (c.getCompany() == null || !c.getCompany().toLowerCase().contains(search.getCompany().toLowerCase())) {
-                return false;
-            }
-        }
+    /**
+     * Same filters and order as {@link #advancedSearch}, one page at a time. The cursor returned
+     * with a page encodes the sort key and id of its last row; passing it back continues from there.
+     */
+    public CursorPage<ContactDto> advancedSearchPage(String userId, ContactSearchDto search) {
+        ContactKeyset keyset = ContactKeyset.first(ContactKeyset.SortKey.from(search.getSortBy()),
+                "desc".equalsIgnoreCase(search.getSortOrder()));
+        return page(ContactSpecifications.forSearch(userId, search), keyset, search.getCursor(), search.getLimit());
+    }
 
-        // Last contacted date range
-        if (search.getLastContactedFrom() != null && !search.getLastContactedFrom().isEmpty()) {
-            LocalDateTime from = LocalDateTime.parse(search.getLastContactedFrom());
-            if (c.getLastContactedAt() == null || c.getLastContactedAt().isBefore(from)) return false;
-        }
-        if (search.getLastContactedTo() != null && !search.getLastContactedTo().isEmpty()) {
-            LocalDateTime to = LocalDateTime.parse(search.getLastContactedTo());
-            if (c.getLastContactedAt() == null || c.getLastContactedAt().isAfter(to)) return false;
-        }
+    /**
+     * All of the user's contacts, one page at a time: by name, or most recently updated first.
+     */
+    public CursorPage<ContactDto> getPage(String userId, String sort, String cursor, Integer limit) {
+        ContactKeyset keyset = "updated".equalsIgnoreCase(sort)
+                ? ContactKeyset.first(ContactKeyset.SortKey.UPDATED, true)
+                : ContactKeyset.first(ContactKeyset.SortKey.NAME, false);
+        return page(ContactSpecifications.ownedBy(userId), keyset, cursor, limit);
+    }
 
-        // Created date range
-        if (search.getCreatedFrom() != null && !search.getCreatedFrom().isEmpty()) {
-            LocalDateTime from = LocalDateTime.parse(search.getCreatedFrom());
-            if (c.getCreatedAt() == null || c.getCreatedAt().isBefore(from)) return false;
-        }
-        if (search.getCreatedTo() != null && !search.getCreatedTo().isEmpty()) {
-            LocalDateTime to = LocalDateTime.parse(search.getCreatedTo());
-            if (c.getCreatedAt() == null || c.getCreatedAt().isAfter(to)) return false;
+    private CursorPage<ContactDto> page(Specification<Contact> filter, ContactKeyset keyset, String cursor, Integer requestedLimit) {
+        int limit = requestedLimit != null ? Math.max(1, Math.min(requestedLimit, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+        if (cursor != null && !cursor.isEmpty()) {
+            keyset = decodeCursor(keyset, cursor);
         }
 
-        // Has email filter
-        if (Boolean.TRUE.equals(search.getHasEmail())) {
-            List<String> emails = parseJson(c.getEmails());
-            if (emails.isEmpty()) return false;
-        }
+        // One extra row tells us whether there is a next page without a COUNT query.
+        List<Contact> rows = contactRepository.findPage(filter, keyset, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) rows = rows.subList(0, limit);
 
-        // Has phone filter
-        if (Boolean.TRUE.equals(search.getHasPhone())) {
-            List<String> phones = parseJson(c.getPhones());
-            if (phones.isEmpty()) return false;
-        }
+        String nextCursor = hasMore ? encodeCursor(keyset.after(rows.get(rows.size() - 1))) : null;
+        return new CursorPage<>(rows.stream().map(this::toDto).collect(Collectors.toList()), nextCursor);
+    }
 
-        // Has WhatsApp filter
-        if (Boolean.TRUE.equals(search.getHasWhatsapp())) {
-            if (c.getWhatsappNumber() == null || c.getWhatsappNumber().isEmpty()) return false;
-        }
+    /**
+     * Writes every contact of the user as newline-delimited JSON while the rows are read from a
+     * database cursor; see forEachStreamed.
+     */
+    @Transactional(readOnly = true)
+    public void writeAllAsNdjson(String userId, OutputStream out) throws IOException {
+        forEachStreamed(userId, out, c -> {
+            out.write(objectMapper.writeValueAsBytes(toDto(c)));
+            out.write('\n');
+        });
+    }
 
-        // Has Instagram filter
-        if (Boolean.TRUE.equals(search.getHasInstagram())) {
-            if (c.getInstagramHandle() == null || c.getInstagramHandle().isEmpty()) return false;
+    private String encodeCursor(ContactKeyset keyset) {
+        Object value = keyset.getLastValue();
+        List<String> parts = Arrays.asList(value != null ? value.toString() : null, keyset.getLastId());
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(parts));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to encode cursor");
         }
-
-        return true;
     }
 
-    private int compareContacts(Contact a, Contact b, String sortBy, String sortOrder) {
-        int result = 0;
-        if (sortBy == null) sortBy = "name";
-
-        switch (sortBy.toLowerCase()) {
-            case "name":
-                result = a.getName().compareToIgnoreCase(b.getName());
-                break;
-            case "company":
-                String compA = a.getCompany() != null ? a.getCompany() : "";
-                String compB = b.getCompany() != null ? b.getCompany() : "";
-                result = compA.compareToIgnoreCase(compB);
-                break;
-            case "lastcontacted":
-                if (a.getLastContactedAt() == null && b.getLastContactedAt() == null) result = 0;
-                else if (a.getLastContactedAt() == null) result = 1;
-                else if (b.getLastContactedAt() == null) result = -1;
-                else result = a.getLastContactedAt().compareTo(b.getLastContactedAt());
-                break;
-            case "created":
-                result = a.getCreatedAt().compareTo(b.getCreatedAt());
-                break;
-            default:
-                result = a.getName().compareToIgnoreCase(b.getName());
+    private ContactKeyset decodeCursor(ContactKeyset first, String cursor) {
+        try {
+            String[] parts = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), String[].class);
+            if (parts.length != 2 || parts[1] == null) throw new RuntimeException("Invalid cursor");
+            Object value = parts[0];
+            ContactKeyset.SortKey sortKey = first.getSortKey();
+            if (sortKey == ContactKeyset.SortKey.LAST_CONTACTED || sortKey == ContactKeyset.SortKey.CREATED
+                    || sortKey == ContactKeyset.SortKey.UPDATED) {
+                value = parts[0] != null ? LocalDateTime.parse(parts[0]) : null;
+            } else if (value == null) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            return new ContactKeyset(sortKey, first.isDescending(), value, parts[1]);
+        } catch (IOException | IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
         }
-
-        return "desc".equalsIgnoreCase(sortOrder) ? -result : result;
     }
 
     // Duplicate detection
+    // Reads the candidate pairs kept up to date by DuplicateCandidateService
+    @Transactional(readOnly = true)
     public List<List<ContactDto>> findDuplicates(String userId) {
-        List<Contact> contacts = contactRepository.findByUserId(userId);
-        Map<String, List<Contact>> emailGroups = new HashMap<>();
-        Map<String, List<Contact>> phoneGroups = new HashMap<>();
-        Map<String, List<Contact>> nameGroups = new HashMap<>();
-
-        for (Contact c : contacts) {
-            // Group by email
-            List<String> emails = parseJson(c.getEmails());
-            for (String email : emails) {
-                String key = email.toLowerCase().trim();
-                emailGroups.computeIfAbsent(key, k -> new ArrayList<>()).add(c);
-            }
-
-            // Group by phone
-            List<String> phones = parseJson(c.getPhones());
-            for (String phone : phones) {
-                String key = phone.replaceAll("[^0-9]", "");
-                if (key.length() >= 7) {
-                    phoneGroups.computeIfAbsent(key, k -> new ArrayList<>()).add(c);
-                }
-            }
-
-            // Group by name (fuzzy)
-            String nameKey = c.getName().toLowerCase().replaceAll("[^a-z]", "");
-            nameGroups.computeIfAbsent(nameKey, k -> new ArrayList<>()).add(c);
-        }
-
-        // Find duplicates (groups with more than one contact)
-        Set<Set<String>> seenGroups = new HashSet<>();
-        List<List<ContactDto>> duplicates = new ArrayList<>();
-
-        for (List<Contact> group : emailGroups.values()) {
-            if (group.size() > 1) {
-                Set<String> ids = group.stream().map(Contact::getId).collect(Collectors.toSet());
-                if (!seenGroups.contains(ids)) {
-                    seenGroups.add(ids);
-                    duplicates.add(group.stream().map(this::toDto).collect(Collectors.toList()));
-                }
-            }
+        List<String[]> pairs = new ArrayList<>();
+        for (DuplicateCandidate candidate : duplicateCandidateRepository.findByUserIdAndStatus(userId, CandidateStatus.OPEN)) {
+            pairs.add(new String[] { candidate.getContactA(), candidate.getContactB() });
         }
+        List<List<String>> groups = duplicateDetector.clusterPairs(pairs);
 
-        for (List<Contact> group : phoneGroups.values()) {
-            if (group.size() > 1) {
-                Set<String> ids = group.stream().map(Contact::getId).collect(Collectors.toSet());
-                if (!seenGroups.contains(ids)) {
-                    seenGroups.add(ids);
-                    duplicates.add(group.stream().map(this::toDto).collect(Collectors.toList()));
-                }
-            }
+        // Load the contacts of all groups in one query and map each of them once
+        List<String> ids = groups.stream().flatMap(List::stream).collect(Collectors.toList());
+        Map<String, ContactDto> byId = new HashMap<>();
+        for (Contact c : contactRepository.findAllById(ids)) {
+            byId.put(c.getId(), toDto(c));
         }
-
-        for (List<Contact> group : nameGroups.values()) {
-            if (group.size() > 1) {
-                Set<String> ids = group.stream().map(Contact::getId).collect(Collectors.toSet());
-                if (!seenGroups.contains(ids)) {
-                    seenGroups.add(ids);
-                    duplicates.add(group.stream().map(this::toDto).collect(Collectors.toList()));
-                }
-            }
+        Comparator<ContactDto> byName = Comparator.comparing(ContactDto::getName, String.CASE_INSENSITIVE_ORDER);
+        List<List<ContactDto>> duplicates = new ArrayList<>(groups.size());
+        for (List<String> group : groups) {
+            List<ContactDto> dtos = group.stream().map(byId::get).filter(Objects::nonNull)
+                    .sorted(byName).collect(Collectors.toList());
+            if (dtos.size() > 1) duplicates.add(dtos);
         }
-
+        duplicates.sort(Comparator.<List<ContactDto>>comparingInt(List::size).reversed()
+                .thenComparing(group -> group.get(0), byName));
         return duplicates;
     }
 
-    // CSV Export
-    public String exportToCsv(String userId) {
-        List<Contact> contacts = contactRepository.findByUserId(userId);
-        StringBuilder sb = new StringBuilder();
-        sb.append("Name,Company,Emails,Phones,WhatsApp,Instagram,Address,Tags,Birthday,Anniversary,Notes\n");
-
-        for (Contact c : contacts) {
-            sb.append(escapeCsv(c.getName())).append(",");
-            sb.append(escapeCsv(c.getCompany())).append(",");
-            sb.append(escapeCsv(String.join(";", parseJson(c.getEmails())))).append(",");
-            sb.append(escapeCsv(String.join(";", parseJson(c.getPhones())))).append(",");
-            sb.append(escapeCsv(c.getWhatsappNumber())).append(",");
-            sb.append(escapeCsv(c.getInstagramHandle())).append(",");
-            sb.append(escapeCsv(c.getAddress())).append(",");
-            sb.append(escapeCsv(String.join(";", parseJson(c.getTags())))).append(",");
-            sb.append(c.getBirthday() != null ? c.getBirthday().toString() : "").append(",");
-            sb.append(c.getAnniversary() != null ? c.getAnniversary().toString() : "").append(",");
-            sb.append(escapeCsv(c.getNotes())).append("\n");
-        }
+    // Stops suggesting the given contacts as duplicates of each other
+    @Transactional
+    public void dismissDuplicates(String userId, List<String> contactIds) {
+        if (contactIds == null || contactIds.size() < 2) throw new RuntimeException("At least two contacts are required");
+        duplicateCandidateRepository.updateStatusAmong(userId, contactIds, CandidateStatus.OPEN, CandidateStatus.DISMISSED);
+    }
 
-        return sb.toString();
+    // CSV Export, streamed in the same chunks as writeAllAsNdjson
+    @Transactional(readOnly = true)
+    public void writeCsv(String userId, Writer out) throws IOException {
+        out.write("Name,Company,Emails,Phones,WhatsApp,Instagram,Address,Tags,Birthday,Anniversary,Notes\n");
+        forEachStreamed(userId, out, c -> {
+            writeCsvField(out, c.getName());
+            out.write(',');
+            writeCsvField(out, c.getCompany());
+            out.write(',');
+            writeCsvField(out, String.join(";", contactValues.emails(c)));
+            out.write(',');
+            writeCsvField(out, String.join(";", contactValues.phones(c)));
+            out.write(',');
+            writeCsvField(out, c.getWhatsappNumber());
+            out.write(',');
+            writeCsvField(out, c.getInstagramHandle());
+            out.write(',');
+            writeCsvField(out, c.getAddress());
+            out.write(',');
+            writeCsvField(out, String.join(";", contactValues.tags(c)));
+            out.write(',');
+            if (c.getBirthday() != null) out.write(c.getBirthday().toString());
+            out.write(',');
+            if (c.getAnniversary() != null) out.write(c.getAnniversary().toString());
+            out.write(',');
+            writeCsvField(out, c.getNotes());
+            out.write('\n');
+        });
     }
 
     // CSV Import
@@ -322,59 +320,95 @@ public class ContactService {
         Contact c = contactRepository.findById(contactId)
                 .orElseThrow(() -> new RuntimeException("Contact not found"));
         if (!c.getUserId().equals(userId)) throw new RuntimeException("Access denied");
-        return generateVCard(c);
+        StringWriter vcard = new StringWriter();
+        try {
+            writeVCard(c, vcard);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to export vCard");
+        }
+        return vcard.toString();
     }
 
-    public String exportAllToVCard(String userId) {
-        List<Contact> contacts = contactRepository.findByUserId(userId);
-        StringBuilder sb = new StringBuilder();
-        for (Contact c : contacts) {
-            sb.append(generateVCard(c)).append("\n");
-        }
-        return sb.toString();
+    @Transactional(readOnly = true)
+    public void writeVCards(String userId, Writer out) throws IOException {
+        forEachStreamed(userId, out, c -> {
+            writeVCard(c, out);
+            out.write('\n');
+        });
     }
 
-    private String generateVCard(Contact c) {
-        StringBuilder vcard = new StringBuilder();
-        vcard.append("BEGIN:VCARD\n");
-        vcard.append("VERSION:3.0\n");
-        vcard.append("FN:").append(c.getName()).append("\n");
-        vcard.append("N:").append(c.getName()).append(";;;;\n");
+    private void writeVCard(Contact c, Writer vcard) throws IOException {
+        vcard.write("BEGIN:VCARD\n");
+        vcard.write("VERSION:3.0\n");
+        vcard.write("FN:" + c.getName() + "\n");
+        vcard.write("N:" + c.getName() + ";;;;\n");
 
         if (c.getCompany() != null) {
-            vcard.append("ORG:").append(c.getCompany()).append("\n");
+            vcard.write("ORG:" + c.getCompany() + "\n");
         }
 
-        for (String email : parseJson(c.getEmails())) {
-            vcard.append("EMAIL:").append(email).append("\n");
+        for (String email : contactValues.emails(c)) {
+            vcard.write("EMAIL:" + email + "\n");
         }
 
-        for (String phone : parseJson(c.getPhones())) {
-            vcard.append("TEL:").append(phone).append("\n");
+        for (String phone : contactValues.phones(c)) {
+            vcard.write("TEL:" + phone + "\n");
         }
 
         if (c.getAddress() != null) {
-            vcard.append("ADR:;;").append(c.getAddress().replace("\n", " ")).append(";;;;\n");
+            vcard.write("ADR:;;" + c.getAddress().replace("\n", " ") + ";;;;\n");
         }
 
         if (c.getBirthday() != null) {
-            vcard.append("BDAY:").append(c.getBirthday().toString().replace("-", "")).append("\n");
+            vcard.write("BDAY:" + c.getBirthday().toString().replace("-", "") + "\n");
         }
 
         if (c.getNotes() != null) {
-            vcard.append("NOTE:").append(c.getNotes().replace("\n", "\\n")).append("\n");
+            vcard.write("NOTE:" + c.getNotes().replace("\n", "\\n") + "\n");
         }
 
-        vcard.append("END:VCARD\n");
-        return vcard.toString();
+        vcard.write("END:VCARD\n");
+    }
+
+    /**
+     * Feeds every contact of the user, in name order, to {@code row}, reading them through a
+     * database cursor. Contacts are handed over in chunks of STREAM_CHUNK_SIZE so the
+     * email/phone/tag collections of a chunk are batch-fetched together; after each chunk the
+     * output is flushed and the persistence context cleared, so memory use stays flat however
+     * many contacts there are.
+     */
+    private void forEachStreamed(String userId, Flushable out, ContactWriter row) throws IOException {
+        try (Stream<Contact> rows = contactRepository.streamByUserId(userId)) {
+            List<Contact> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            Iterator<Contact> it = rows.iterator();
+            while (it.hasNext()) {
+                chunk.add(it.next());
+                if (chunk.size() == STREAM_CHUNK_SIZE || !it.hasNext()) {
+                    for (Contact c : chunk) {
+                        row.write(c);
+                    }
+                    out.flush();
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ContactWriter {
+        void write(Contact contact) throws IOException;
     }
 
-    private String escapeCsv(String value) {
-        if (value == null) return "";
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        if (value == null) return;
         if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        } else {
+            out.write(value);
         }
-        return value;
     }
 
     private String[] parseCsvLine(String line) {
@@ -408,19 +442,19 @@ public class ContactService {
             if (merge == null || !merge.getUserId().equals(userId)) continue;
 
             // Merge emails
-            Set<String> emails = new HashSet<>(parseJson(primary.getEmails()));
-            emails.addAll(parseJson(merge.getEmails()));
-            primary.setEmails(toJson(new ArrayList<>(emails)));
+            Set<String> emails = new HashSet<>(contactValues.emails(primary));
+            emails.addAll(contactValues.emails(merge));
+            contactValues.setEmails(primary, new ArrayList<>(emails));
 
             // Merge phones
-            Set<String> phones = new HashSet<>(parseJson(primary.getPhones()));
-            phones.addAll(parseJson(merge.getPhones()));
-            primary.setPhones(toJson(new ArrayList<>(phones)));
+            Set<String> phones = new HashSet<>(contactValues.phones(primary));
+            phones.addAll(contactValues.phones(merge));
+            contactValues.setPhones(primary, new ArrayList<>(phones));
 
             // Merge tags
-            Set<String> tags = new HashSet<>(parseJson(primary.getTags()));
-            tags.addAll(parseJson(merge.getTags()));
-            primary.setTags(toJson(new ArrayList<>(tags)));
+            Set<String> tags = new HashSet<>(contactValues.tags(primary));
+            tags.addAll(contactValues.tags(merge));
+            contactValues.setTags(primary, new ArrayList<>(tags));
 
             // Fill empty fields
             if (primary.getCompany() == null && merge.getCompany() != null) primary.setCompany(merge.getCompany());
@@ -439,9 +473,11 @@ public class ContactService {
             // Delete merged contact
             reminderRepository.deleteByContactId(mergeId);
             contactRepository.delete(merge);
+            eventPublisher.publishEvent(ContactChangedEvent.deleted(merge));
         }
 
         primary = contactRepository.save(primary);
+        eventPublisher.publishEvent(ContactChangedEvent.updated(primary));
         return toDto(primary);
     }
 
@@ -449,12 +485,12 @@ public class ContactService {
         ContactDto dto = new ContactDto();
         dto.setId(c.getId());
         dto.setName(c.getName());
-        dto.setEmails(parseJson(c.getEmails()));
-        dto.setPhones(parseJson(c.getPhones()));
+        dto.setEmails(contactValues.emails(c));
+        dto.setPhones(contactValues.phones(c));
         dto.setWhatsappNumber(c.getWhatsappNumber());
         dto.setInstagramHandle(c.getInstagramHandle());
         dto.setCompany(c.getCompany());
-        dto.setTags(parseJson(c.getTags()));
+        dto.setTags(contactValues.tags(c));
         dto.setAddress(c.getAddress());
         dto.setNotes(c.getNotes());
         dto.setBirthday(c.getBirthday() != null ? c.getBirthday().toString() : null);
@@ -466,6 +502,15 @@ public class ContactService {
         return dto;
     }
 
+    /**
+     * Builds an unsaved contact for {@code userId} from a DTO, as {@link #create} would.
+     */
+    Contact newContact(ContactDto dto, String userId) {
+        Contact contact = toEntity(dto);
+        contact.setUserId(userId);
+        return contact;
+    }
+
     private Contact toEntity(ContactDto dto) {
         Contact c = new Contact();
         updateEntity(c, dto);
@@ -474,12 +519,12 @@ public class ContactService {
 
     private void updateEntity(Contact c, ContactDto dto) {
         c.setName(dto.getName());
-        c.setEmails(toJson(dto.getEmails()));
-        c.setPhones(toJson(dto.getPhones()));
+        contactValues.setEmails(c, dto.getEmails());
+        contactValues.setPhones(c, dto.getPhones());
         c.setWhatsappNumber(dto.getWhatsappNumber());
         c.setInstagramHandle(dto.getInstagramHandle());
         c.setCompany(dto.getCompany());
-        c.setTags(toJson(dto.getTags()));
+        contactValues.setTags(c, dto.getTags());
         c.setAddress(dto.getAddress());
         c.setNotes(dto.getNotes());
         c.setBirthday(dto.getBirthday() != null && !dto.getBirthday().isEmpty() ? LocalDate.parse(dto.getBirthday()) : null);
@@ -487,15 +532,4 @@ public class ContactService {
         c.setProfilePicture(dto.getProfilePicture());
         if (dto.getLastContactedAt() != null) c.setLastContactedAt(LocalDateTime.parse(dto.getLastContactedAt()));
     }
-
-    private String toJson(List<String> list) {
-        try { return list != null ? objectMapper.writeValueAsString(list) : "[]"; }
-        catch (JsonProcessingException e) { return "[]"; }
-    }
-
-    @SuppressWarnings("unchecked")
-    private List<String> parseJson(String json) {
-        try { return json != null ? objectMapper.readValue(json, List.class) : List.of(); }
-        catch (JsonProcessingException e) { return List.of(); }
-    }
 }
@@ -0,0 +1,107 @@
+package com.crm.service;
+
+import com.crm.entity.Contact;
+import com.crm.entity.ContactEmail;
+import com.crm.entity.ContactPhone;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and writes a contact's emails, phones and tags.
+ *
+ * The contact_emails/contact_phones/contact_tags child tables are what queries and DTOs use;
+ * the JSON TEXT columns on contacts are still written alongside them because the full-text
+ * search indexes are built over those columns. Until {@link ContactCollectionsBackfill} has
+ * reached a row, its child tables are empty and reads fall back to the JSON column.
+ */
+@Component
+public class ContactValues {
+    private final ObjectMapper objectMapper;
+
+    public ContactValues(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public List<String> emails(Contact c) {
+        if (c.getEmailEntries().isEmpty() && hasJsonValues(c.getEmails())) return parseJson(c.getEmails());
+        return c.getEmailEntries().stream().map(ContactEmail::getEmail).collect(Collectors.toList());
+    }
+
+    public List<String> phones(Contact c) {
+        if (c.getPhoneEntries().isEmpty() && hasJsonValues(c.getPhones())) return parseJson(c.getPhones());
+        return c.getPhoneEntries().stream().map(ContactPhone::getPhone).collect(Collectors.toList());
+    }
+
+    public List<String> tags(Contact c) {
+        if (c.getTagEntries().isEmpty() && hasJsonValues(c.getTags())) return parseJson(c.getTags());
+        return new ArrayList<>(c.getTagEntries());
+    }
+
+    public void setEmails(Contact c, List<String> emails) {
+        List<String> values = clean(emails);
+        c.setEmails(toJson(values));
+        c.getEmailEntries().clear();
+        values.forEach(email -> c.getEmailEntries().add(new ContactEmail(email)));
+    }
+
+    public void setPhones(Contact c, List<String> phones) {
+        List<String> values = clean(phones);
+        c.setPhones(toJson(values));
+        c.getPhoneEntries().clear();
+        values.forEach(phone -> c.getPhoneEntries().add(new ContactPhone(phone)));
+    }
+
+    public void setTags(Contact c, List<String> tags) {
+        List<String> values = clean(tags);
+        c.setTags(toJson(values));
+        c.getTagEntries().clear();
+        c.getTagEntries().addAll(values);
+    }
+
+    /**
+     * Fills any empty child collection from its JSON column. Returns whether anything changed.
+     */
+    public boolean backfill(Contact c) {
+        boolean changed = false;
+        if (c.getEmailEntries().isEmpty() && hasJsonValues(c.getEmails())) {
+            parseJson(c.getEmails()).stream().filter(Objects::nonNull)
+                    .forEach(email -> c.getEmailEntries().add(new ContactEmail(email)));
+            changed = true;
+        }
+        if (c.getPhoneEntries().isEmpty() && hasJsonValues(c.getPhones())) {
+            parseJson(c.getPhones()).stream().filter(Objects::nonNull)
+                    .forEach(phone -> c.getPhoneEntries().add(new ContactPhone(phone)));
+            changed = true;
+        }
+        if (c.getTagEntries().isEmpty() && hasJsonValues(c.getTags())) {
+            parseJson(c.getTags()).stream().filter(Objects::nonNull).forEach(c.getTagEntries()::add);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static boolean hasJsonValues(String json) {
+        return json != null && !json.isEmpty() && !"[]".equals(json);
+    }
+
+    private static List<String> clean(List<String> values) {
+        if (values == null) return new ArrayList<>();
+        return values.stream().filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private String toJson(List<String> list) {
+        try { return objectMapper.writeValueAsString(list); }
+        catch (JsonProcessingException e) { return "[]"; }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> parseJson(String json) {
+        try { return objectMapper.readValue(json, List.class); }
+        catch (JsonProcessingException e) { return List.of(); }
+    }
+}
@@ -0,0 +1,112 @@
+package com.crm.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 style CSV one record at a time, so a file never has to be held in memory.
+ * Quoted fields may contain commas, doubled quotes and line breaks; unquoted fields are trimmed.
+ */
+public class CsvReader {
+    private final BufferedReader reader;
+    private int line = 1;
+    private int recordLine;
+    private int pending = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Returns the next record, or null at end of input. Blank lines are skipped.
+     */
+    public List<String> next() throws IOException {
+        while (true) {
+            int ch = read();
+            if (ch == -1) return null;
+            if (ch == '\r' || ch == '\n') {
+                consumeLineBreak(ch);
+                continue;
+            }
+            recordLine = line;
+            unread(ch);
+            return readRecord();
+        }
+    }
+
+    /**
+     * The 1-based line number on which the record last returned by {@link #next()} started.
+     */
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+
+        while (true) {
+            int ch = read();
+            if (quoted) {
+                if (ch == -1) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                if (ch == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    if (ch == '\n') line++;
+                    field.append((char) ch);
+                }
+                continue;
+            }
+
+            if (ch == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (ch == ',') {
+                fields.add(wasQuoted ? field.toString() : field.toString().trim());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (ch == -1 || ch == '\r' || ch == '\n') {
+                fields.add(wasQuoted ? field.toString() : field.toString().trim());
+                if (ch != -1) consumeLineBreak(ch);
+                return fields;
+            } else {
+                field.append((char) ch);
+            }
+        }
+    }
+
+    private void consumeLineBreak(int ch) throws IOException {
+        if (ch == '\r') {
+            int next = read();
+            if (next != '\n') unread(next);
+        }
+        line++;
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int ch = pending;
+            pending = -2;
+            return ch;
+        }
+        return reader.read();
+    }
+
+    private void unread(int ch) {
+        pending = ch;
+    }
+}
@@ -0,0 +1,312 @@
+package com.crm.service;
+
+import com.crm.entity.JobShard;
+import com.crm.entity.Reminder;
+import com.crm.entity.Reminder.ReminderType;
+import com.crm.entity.User;
+import com.crm.event.ReminderCreatedEvent;
+import com.crm.repository.ContactRepository;
+import com.crm.repository.ReminderRepository;
+import com.crm.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Birthday, anniversary and no-contact reminders, generated for each user shortly before their
+ * local day starts, with reminder times in their own timezone.
+ *
+ * The cron (app.reminders.daily.cron, hourly by default) prepares the coming UTC hour: users
+ * whose timezone has a midnight within that hour form its slot, so the day's work is spread
+ * over the 24 hours instead of one spike at server midnight. Users without a valid timezone use
+ * the server's. The instance that takes the job's lease (see {@link SchedulerLeaseService})
+ * splits the slot into app.reminders.daily.shards shards; user ids are random UUIDs, so ranges
+ * of their leading hex digits make evenly sized shards. The shards of all 24 slots of a UTC
+ * date are numbered hour * shards + n within one run. Every instance claims pending shards
+ * right after the cron and then every app.reminders.daily.claim-interval-ms, so the work
+ * spreads over all live instances, and a shard whose instance stops extending its lease is
+ * picked up by another.
+ *
+ * Within a shard, users are paged in id order in chunks of app.reminders.daily.chunk-size, and
+ * the chunks run on a pool of app.reminders.daily.workers threads, each chunk in its own
+ * transaction. Within a chunk, users are grouped by the date or threshold their settings and
+ * zone give, and each group's candidates come from one query per reminder type, which skips
+ * contacts that already have an active reminder of that type; that check also keeps a re-run
+ * shard from duplicating reminders. The new reminders are saved together, so they go out as
+ * JDBC batches. A failed chunk fails its shard, which is retried up to
+ * app.reminders.daily.max-attempts times.
+ */
+@Component
+public class DailyReminderJob {
+    private static final Logger log = LoggerFactory.getLogger(DailyReminderJob.class);
+    private static final String JOB = "daily-reminders";
+    private static final Duration SLOT = Duration.ofHours(1);
+    // Past the last hex digit in every collation, so the last shard's range has an upper bound
+    static final String AFTER_LAST_ID = "g";
+
+    private final UserRepository userRepository;
+    private final ContactRepository contactRepository;
+    private final ReminderRepository reminderRepository;
+    private final ReminderService reminderService;
+    private final SchedulerLeaseService leases;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int chunkSize;
+    private final int shardCount;
+    private final Duration shardLease;
+    private final int maxAttempts;
+    private final AtomicBoolean working = new AtomicBoolean();
+    private final Timer shardTimer;
+    private final Timer chunkTimer;
+    private final Counter shardsCompleted;
+    private final Counter shardsFailed;
+    private final Map<ReminderType, Counter> created = new EnumMap<>(ReminderType.class);
+    private final Counter usersProcessed;
+
+    public DailyReminderJob(UserRepository userRepository, ContactRepository contactRepository,
+                            ReminderRepository reminderRepository, ReminderService reminderService,
+                            SchedulerLeaseService leases, ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                            @Value("${app.reminders.daily.chunk-size:200}") int chunkSize,
+                            @Value("${app.reminders.daily.workers:4}") int workers,
+                            @Value("${app.reminders.daily.shards:4}") int shardCount,
+                            @Value("${app.reminders.daily.shard-lease-ms:600000}") long shardLeaseMs,
+                            @Value("${app.reminders.daily.max-attempts:3}") int maxAttempts) {
+        this.userRepository = userRepository;
+        this.contactRepository = contactRepository;
+        this.reminderRepository = reminderRepository;
+        this.reminderService = reminderService;
+        this.leases = leases;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        // Ranges are cut on the first four hex digits of the id
+        this.shardCount = Math.max(1, Math.min(shardCount, 0x10000 / 24));
+        this.shardLease = Duration.ofMillis(shardLeaseMs);
+        this.maxAttempts = maxAttempts;
+        AtomicInteger threads = new AtomicInteger();
+        // A full queue makes the paging thread run the chunk itself, so at most a few chunks wait
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers), task -> {
+                    Thread thread = new Thread(task, "daily-reminders-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.shardTimer = Timer.builder("crm.reminders.daily.shard").register(meterRegistry);
+        this.chunkTimer = Timer.builder("crm.reminders.daily.chunk").register(meterRegistry);
+        this.shardsCompleted = Counter.builder("crm.reminders.daily.shards").tag("result", "completed").register(meterRegistry);
+        this.shardsFailed = Counter.builder("crm.reminders.daily.shards").tag("result", "failed").register(meterRegistry);
+        for (ReminderType type : new ReminderType[] { ReminderType.BIRTHDAY, ReminderType.ANNIVERSARY, ReminderType.NO_CONTACT }) {
+            created.put(type, Counter.builder("crm.reminders.daily.created").tag("type", type.name()).register(meterRegistry));
+        }
+        this.usersProcessed = Counter.builder("crm.reminders.daily.users").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${app.reminders.daily.cron:0 45 * * * *}")
+    public void generateDailyReminders() {
+        Instant slot = Instant.now().truncatedTo(ChronoUnit.HOURS).plus(SLOT);
+        // Held past this tick but not the next, so instances whose cron fires a little later skip it
+        if (leases.tryAcquire(JOB, SLOT.dividedBy(2)) && !timezonesStartingDayIn(slot).isEmpty()) {
+            LocalDateTime utc = LocalDateTime.ofInstant(slot, ZoneOffset.UTC);
+            leases.createShards(JOB, utc.toLocalDate(), utc.getHour() * shardCount, shardCount, 24 * shardCount);
+            leases.deleteShardsBefore(JOB, utc.toLocalDate().minusDays(7));
+        }
+        processShards();
+    }
+
+    /**
+     * Claims and processes shards of today's or yesterday's run until none is left to claim.
+     */
+    @Scheduled(initialDelayString = "${app.reminders.daily.claim-interval-ms:60000}",
+               fixedDelayString = "${app.reminders.daily.claim-interval-ms:60000}")
+    public void processShards() {
+        if (!working.compareAndSet(false, true)) return;
+        try {
+            Optional<JobShard> shard;
+            LocalDate since = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+            while ((shard = leases.claimNext(JOB, since, shardLease, maxAttempts)).isPresent()) {
+                JobShard claimed = shard.get();
+                try {
+                    shardTimer.record(() -> processShard(claimed));
+                    leases.complete(claimed);
+                    shardsCompleted.increment();
+                } catch (RuntimeException e) {
+                    // Left RUNNING; another attempt claims it once the lease runs out
+                    shardsFailed.increment();
+                    log.warn("Daily reminder shard {} of {} failed: {}", claimed.getShard(), claimed.getRunDate(), e.getMessage());
+                }
+            }
+        } finally {
+            working.set(false);
+        }
+    }
+
+    void processShard(JobShard shard) {
+        // Left over from before runs were split into hourly slots; the slots cover those users now
+        if (shard.getShardCount() % 24 != 0) return;
+        int perSlot = shard.getShardCount() / 24;
+        int hour = shard.getShard() / perSlot;
+        int index = shard.getShard() % perSlot;
+        Instant slot = shard.getRunDate().atTime(hour, 0).toInstant(ZoneOffset.UTC);
+        List<String> timezones = timezonesStartingDayIn(slot);
+        if (timezones.isEmpty()) return;
+        String from = index == 0 ? "" : rangeStart(index, perSlot);
+        String to = index == perSlot - 1 ? AFTER_LAST_ID : rangeStart(index + 1, perSlot);
+        long renewEvery = shardLease.toMillis() / 3;
+        long renewAt = System.currentTimeMillis() + renewEvery;
+
+        List<Future<?>> chunks = new ArrayList<>();
+        int users = 0;
+        String after = "";
+        List<String> ids;
+        while (!(ids = userRepository.findIdsInRange(after, from, to, timezones, PageRequest.of(0, chunkSize))).isEmpty()) {
+            List<String> chunk = ids;
+            chunks.add(executor.submit(() -> chunkTimer.record(() -> processChunk(chunk, slot))));
+            users += ids.size();
+            after = ids.get(ids.size() - 1);
+            if (System.currentTimeMillis() >= renewAt) {
+                renew(shard);
+                renewAt = System.currentTimeMillis() + renewEvery;
+            }
+        }
+
+        for (Future<?> chunk : chunks) {
+            try {
+                while (true) {
+                    try {
+                        chunk.get(renewEvery, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        renew(shard);
+                    }
+                }
+            } catch (ExecutionException e) {
+                chunks.forEach(pending -> pending.cancel(false));
+                throw new RuntimeException("Chunk failed: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted");
+            }
+        }
+        log.info("Generated daily reminders for {} users in shard {} of the {} slot", users, index, slot);
+    }
+
+    private void renew(JobShard shard) {
+        if (!leases.extend(shard, shardLease)) {
+            throw new RuntimeException("Lease on shard " + shard.getShard() + " was lost");
+        }
+    }
+
+    // Stored timezone values ('' for unset) of the users whose next local day starts within the slot
+    private List<String> timezonesStartingDayIn(Instant slot) {
+        List<String> timezones = new ArrayList<>();
+        for (String timezone : userRepository.findDistinctTimezones()) {
+            if (dayStartingIn(slot, ReminderService.zoneOf(timezone)) != null) timezones.add(timezone);
+        }
+        return timezones;
+    }
+
+    // The local date whose midnight falls within the hour from slot, or null if none does
+    static LocalDate dayStartingIn(Instant slot, ZoneId zone) {
+        ZonedDateTime local = slot.atZone(zone);
+        LocalDate day = local.toLocalTime().equals(LocalTime.MIDNIGHT) ? local.toLocalDate() : local.toLocalDate().plusDays(1);
+        return day.atStartOfDay(zone).toInstant().isBefore(slot.plus(SLOT)) ? day : null;
+    }
+
+    // Lowest four-hex-digit id prefix of the shard
+    static String rangeStart(int shard, int shardCount) {
+        return String.format("%04x", (int) ((long) shard * 0x10000 / shardCount));
+    }
+
+    private void processChunk(List<String> userIds, Instant slot) {
+        Map<String, List<Reminder>> byUser = new LinkedHashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<MonthDay, List<String>> birthdays = new HashMap<>();
+            Map<MonthDay, List<String>> anniversaries = new HashMap<>();
+            Map<LocalDateTime, List<String>> noContact = new HashMap<>();
+            Map<String, LocalDateTime> scheduledAt = new HashMap<>();
+            for (User user : userRepository.findAllById(userIds)) {
+                ZoneId zone = ReminderService.zoneOf(user.getTimezone());
+                LocalDate day = dayStartingIn(slot, zone);
+                // Moved to another timezone since the slot was prepared
+                if (day == null) continue;
+                scheduledAt.put(user.getId(), ReminderService.reminderAt(day, zone));
+                birthdays.computeIfAbsent(MonthDay.from(day.plusDays(reminderService.getBirthdayReminderDays(user))),
+                        key -> new ArrayList<>()).add(user.getId());
+                anniversaries.computeIfAbsent(MonthDay.from(day.plusDays(reminderService.getAnniversaryReminderDays(user))),
+                        key -> new ArrayList<>()).add(user.getId());
+                LocalDateTime threshold = day.atStartOfDay(zone).minusDays(reminderService.getDefaultFollowupDays(user))
+                        .withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+                noContact.computeIfAbsent(threshold, key -> new ArrayList<>()).add(user.getId());
+            }
+
+            birthdays.forEach((target, ids) -> add(byUser, ReminderType.BIRTHDAY, scheduledAt,
+                    contactRepository.findBirthdayReminderCandidates(ids, target.getMonthValue(), target.getDayOfMonth(),
+                            ReminderType.BIRTHDAY, Reminder.ACTIVE)));
+            anniversaries.forEach((target, ids) -> add(byUser, ReminderType.ANNIVERSARY, scheduledAt,
+                    contactRepository.findAnniversaryReminderCandidates(ids, target.getMonthValue(), target.getDayOfMonth(),
+                            ReminderType.ANNIVERSARY, Reminder.ACTIVE)));
+            noContact.forEach((threshold, ids) -> add(byUser, ReminderType.NO_CONTACT, scheduledAt,
+                    contactRepository.findNoContactReminderCandidates(ids, threshold,
+                            ReminderType.NO_CONTACT, Reminder.ACTIVE)));
+
+            List<Reminder> reminders = new ArrayList<>();
+            byUser.values().forEach(reminders::addAll);
+            reminderRepository.saveAll(reminders);
+            byUser.forEach((userId, userReminders) ->
+                    eventPublisher.publishEvent(ReminderCreatedEvent.of(userId, userReminders)));
+        });
+        byUser.values().forEach(reminders -> reminders.forEach(reminder -> created.get(reminder.getType()).increment()));
+        usersProcessed.increment(userIds.size());
+    }
+
+    private void add(Map<String, List<Reminder>> byUser, ReminderType type, Map<String, LocalDateTime> scheduledAt,
+                     List<Object[]> candidates) {
+        for (Object[] row : candidates) {
+            String userId = (String) row[0];
+            byUser.computeIfAbsent(userId, id -> new ArrayList<>())
+                    .add(reminderService.newReminder(userId, (String) row[1], type, scheduledAt.get(userId)));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.crm.service;
+
+import com.crm.event.ContactChangedEvent;
+import com.crm.event.MeetingChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Serialized dashboard responses per user and endpoint, with an ETag for each.
+ *
+ * The backing cache is whatever Spring's CacheManager provides under the name "dashboard":
+ * Caffeine by default, or a shared store such as Redis when spring.cache.type says so. Entries
+ * are JSON bytes, so any backend can hold them. Entries are evicted after commit by the writes
+ * that change what an endpoint shows, and otherwise expire by the cache's own TTL, which also
+ * covers the date rolling over and the counter reconciler correcting a chart. A transaction
+ * evicts each of its users' endpoints once, with one notification to the user's streams,
+ * however many rows it wrote; an import would otherwise flood every stream into a resync.
+ */
+@Component
+public class DashboardCache {
+    public static final String STATS = "stats";
+    public static final String MEETINGS_CHART = "meetings-chart";
+    public static final String MEDIUM_BREAKDOWN = "medium-breakdown";
+    public static final String CONTACTS_OVER_TIME = "contacts-over-time";
+
+    private final Cache cache;
+    private final ObjectMapper objectMapper;
+    private final EventStreamService eventStream;
+    private final Counter hits;
+    private final Counter misses;
+    private final Map<String, Timer> loadTimers = new HashMap<>();
+    // Runs after DashboardCounterService has applied the same transaction's counter changes
+    private final AfterCommitBatch<String, Set<String>> evictions =
+            new AfterCommitBatch<>(Ordered.LOWEST_PRECEDENCE, DashboardCache::union, this::evictNow);
+
+    public DashboardCache(CacheManager cacheManager, ObjectMapper objectMapper, EventStreamService eventStream,
+                          MeterRegistry meterRegistry) {
+        this.cache = cacheManager.getCache("dashboard");
+        this.objectMapper = objectMapper;
+        this.eventStream = eventStream;
+        this.hits = Counter.builder("crm.dashboard.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("crm.dashboard.cache.requests").tag("result", "miss").register(meterRegistry);
+        for (String endpoint : new String[] { STATS, MEETINGS_CHART, MEDIUM_BREAKDOWN, CONTACTS_OVER_TIME }) {
+            loadTimers.put(endpoint, Timer.builder("crm.dashboard.cache.load").tag("endpoint", endpoint).register(meterRegistry));
+        }
+    }
+
+    /**
+     * Returns the cached response for the endpoint, computing and storing it on a miss.
+     */
+    public Entry get(String userId, String endpoint, Supplier<Object> loader) {
+        AtomicBoolean loaded = new AtomicBoolean();
+        Entry entry = cache.get(key(userId, endpoint), () -> {
+            loaded.set(true);
+            return loadTimers.get(endpoint).record(() -> serialize(loader.get()));
+        });
+        (loaded.get() ? misses : hits).increment();
+        return entry;
+    }
+
+    /**
+     * Drops the user's cached responses and tells their open event streams which ones changed,
+     * after the current transaction commits.
+     */
+    public void evict(String userId, String... endpoints) {
+        evictions.add(userId, new LinkedHashSet<>(Arrays.asList(endpoints)));
+    }
+
+    @EventListener
+    public void onContactChanged(ContactChangedEvent event) {
+        if (event.getType() == ContactChangedEvent.ChangeType.UPDATED) {
+            evict(event.getUserId(), STATS);
+        } else {
+            evict(event.getUserId(), STATS, CONTACTS_OVER_TIME);
+        }
+    }
+
+    @EventListener
+    public void onMeetingChanged(MeetingChangedEvent event) {
+        evict(event.getUserId(), STATS, MEETINGS_CHART, MEDIUM_BREAKDOWN);
+    }
+
+    private void evictNow(String userId, Set<String> endpoints) {
+        for (String endpoint : endpoints) {
+            cache.evict(key(userId, endpoint));
+        }
+        eventStream.publish(userId, EventStreamService.DASHBOARD, endpoints);
+    }
+
+    private static Set<String> union(Set<String> a, Set<String> b) {
+        a.addAll(b);
+        return a;
+    }
+
+    private Entry serialize(Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            return new Entry(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize dashboard response");
+        }
+    }
+
+    private static String key(String userId, String endpoint) {
+        return userId + ":" + endpoint;
+    }
+
+    public static final class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] body;
+        private final String etag;
+
+        Entry(byte[] body, String etag) {
+            this.body = body;
+            this.etag = etag;
+        }
+
+        public byte[] getBody() { return body; }
+        public String getEtag() { return etag; }
+    }
+}
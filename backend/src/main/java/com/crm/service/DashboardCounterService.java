@@ -0,0 +1,226 @@
+package com.crm.service;
+
+import com.crm.entity.Contact;
+import com.crm.entity.DashboardCounter;
+import com.crm.entity.DashboardCounter.Metric;
+import com.crm.entity.Meeting;
+import com.crm.event.ContactChangedEvent;
+import com.crm.event.MeetingChangedEvent;
+import com.crm.event.UserChangedEvent;
+import com.crm.repository.ContactRepository;
+import com.crm.repository.DashboardCounterRepository;
+import com.crm.repository.MeetingRepository;
+import com.crm.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Per-user counters behind the dashboard charts, so a chart is one range read instead of a
+ * COUNT query per bar.
+ *
+ * Counters follow {@link ContactChangedEvent}s and {@link MeetingChangedEvent}s: the changes
+ * of a transaction are added up per bucket and applied after it commits, one short transaction
+ * per bucket, so an import of thousands of contacts touches its month's counter once. A missed
+ * or raced event can leave a counter off, so {@link #reconcileAll} periodically re-derives every
+ * user's counters from the contacts and meetings tables, on one instance at a time; it also
+ * fills the table the first time the application starts with it.
+ */
+@Service
+public class DashboardCounterService {
+    private static final Logger log = LoggerFactory.getLogger(DashboardCounterService.class);
+    private static final int USER_BATCH_SIZE = 100;
+    private static final String RECONCILE_JOB = "dashboard-counters-reconcile";
+
+    private final DashboardCounterRepository counterRepository;
+    private final ContactRepository contactRepository;
+    private final MeetingRepository meetingRepository;
+    private final UserRepository userRepository;
+    private final SchedulerLeaseService leases;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration reconcileInterval;
+    // Applied before DashboardCache evicts, so a refetched chart sees the new counts
+    private final AfterCommitBatch<Bucket, Long> deltas =
+            new AfterCommitBatch<>(Ordered.HIGHEST_PRECEDENCE, Long::sum, this::add);
+
+    public DashboardCounterService(DashboardCounterRepository counterRepository, ContactRepository contactRepository,
+                                   MeetingRepository meetingRepository, UserRepository userRepository,
+                                   SchedulerLeaseService leases, PlatformTransactionManager transactionManager,
+                                   @Value("${app.dashboard.counters.reconcile-interval-ms:21600000}") long reconcileIntervalMs) {
+        this.counterRepository = counterRepository;
+        this.contactRepository = contactRepository;
+        this.meetingRepository = meetingRepository;
+        this.userRepository = userRepository;
+        this.leases = leases;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconcileInterval = Duration.ofMillis(reconcileIntervalMs);
+    }
+
+    /**
+     * Counts per bucket for {@code from} to {@code to}, inclusive; buckets without a row are absent.
+     */
+    public Map<LocalDate, Long> counts(String userId, Metric metric, LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> counts = new HashMap<>();
+        for (DashboardCounter counter : counterRepository.findByUserIdAndMetricAndBucketBetween(userId, metric, from, to)) {
+            counts.put(counter.getBucket(), counter.getTotal());
+        }
+        return counts;
+    }
+
+    @EventListener
+    public void onContactChanged(ContactChangedEvent event) {
+        Contact contact = event.getContact();
+        if (contact == null) return;
+        LocalDateTime createdAt = contact.getCreatedAt() != null ? contact.getCreatedAt() : LocalDateTime.now();
+        switch (event.getType()) {
+            case CREATED:
+                add(event.getUserId(), Metric.CONTACTS, monthBucket(createdAt), 1);
+                break;
+            case DELETED:
+                add(event.getUserId(), Metric.CONTACTS, monthBucket(createdAt), -1);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @EventListener
+    public void onMeetingChanged(MeetingChangedEvent event) {
+        Meeting meeting = event.getMeeting();
+        switch (event.getType()) {
+            case CREATED:
+                add(event.getUserId(), Metric.MEETINGS, meeting.getMeetingDate().toLocalDate(), 1);
+                break;
+            case UPDATED:
+                LocalDate before = event.getPreviousMeetingDate().toLocalDate();
+                LocalDate after = meeting.getMeetingDate().toLocalDate();
+                if (before.equals(after)) break;
+                add(event.getUserId(), Metric.MEETINGS, before, -1);
+                add(event.getUserId(), Metric.MEETINGS, after, 1);
+                break;
+            case DELETED:
+                add(event.getUserId(), Metric.MEETINGS, meeting.getMeetingDate().toLocalDate(), -1);
+                break;
+        }
+    }
+
+    // In the deleting transaction, since reconciliation only visits existing users
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.isDeleted()) counterRepository.deleteByUserId(event.getUserId());
+    }
+
+    @Scheduled(initialDelayString = "${app.dashboard.counters.reconcile-initial-delay-ms:30000}",
+               fixedDelayString = "${app.dashboard.counters.reconcile-interval-ms:21600000}")
+    public void reconcileAll() {
+        // Held for half the interval, so only one instance reconciles per run
+        if (!leases.tryAcquire(RECONCILE_JOB, reconcileInterval.dividedBy(2))) return;
+        String after = "";
+        int users = 0;
+        try {
+            List<String> ids;
+            while (!(ids = userRepository.findIdsAfter(after, PageRequest.of(0, USER_BATCH_SIZE))).isEmpty()) {
+                for (String userId : ids) {
+                    reconcile(userId);
+                }
+                users += ids.size();
+                after = ids.get(ids.size() - 1);
+            }
+            log.info("Reconciled dashboard counters for {} users", users);
+        } catch (Exception e) {
+            log.warn("Dashboard counter reconciliation stopped after {} users: {}", users, e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the user's counters with counts derived from the source tables. The old counters
+     * are deleted before counting: that locks them, so an increment arriving meanwhile waits and
+     * then applies on top of the new rows rather than being wiped out by the delete.
+     */
+    public void reconcile(String userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            counterRepository.deleteByUserId(userId);
+            counterRepository.flush();
+            List<DashboardCounter> counters = new ArrayList<>();
+            for (Object[] row : meetingRepository.countByUserIdPerDay(userId)) {
+                LocalDate day = LocalDate.of(toInt(row[0]), toInt(row[1]), toInt(row[2]));
+                counters.add(new DashboardCounter(userId, Metric.MEETINGS, day, ((Number) row[3]).longValue()));
+            }
+            for (Object[] row : contactRepository.countByUserIdPerMonth(userId)) {
+                LocalDate month = LocalDate.of(toInt(row[0]), toInt(row[1]), 1);
+                counters.add(new DashboardCounter(userId, Metric.CONTACTS, month, ((Number) row[2]).longValue()));
+            }
+            counterRepository.saveAll(counters);
+        });
+    }
+
+    static LocalDate monthBucket(LocalDateTime time) {
+        return time.toLocalDate().withDayOfMonth(1);
+    }
+
+    private void add(String userId, Metric metric, LocalDate bucket, long delta) {
+        deltas.add(new Bucket(userId, metric, bucket), delta);
+    }
+
+    private void add(Bucket key, long delta) {
+        if (delta == 0) return;
+        String userId = key.userId;
+        Metric metric = key.metric;
+        LocalDate bucket = key.bucket;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (counterRepository.increment(userId, metric, bucket, delta) > 0 || delta < 0) return;
+                counterRepository.saveAndFlush(new DashboardCounter(userId, metric, bucket, delta));
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another writer created the bucket between our update and insert
+            transactionTemplate.executeWithoutResult(status -> counterRepository.increment(userId, metric, bucket, delta));
+        }
+    }
+
+    private static int toInt(Object value) {
+        return ((Number) value).intValue();
+    }
+
+    private static final class Bucket {
+        private final String userId;
+        private final Metric metric;
+        private final LocalDate bucket;
+
+        Bucket(String userId, Metric metric, LocalDate bucket) {
+            this.userId = userId;
+            this.metric = metric;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Bucket)) return false;
+            Bucket other = (Bucket) o;
+            return userId.equals(other.userId) && metric == other.metric && bucket.equals(other.bucket);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, metric, bucket);
+        }
+    }
+}
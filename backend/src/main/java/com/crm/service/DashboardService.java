@@ -1,9 +1,12 @@
 package com.crm.service;
 
 import com.crm.dto.ContactDto;
+import com.crm.entity.DashboardCounter.Metric;
 import com.crm.repository.ContactRepository;
 import com.crm.repository.MeetingRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.*;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -12,16 +15,22 @@ import java.util.stream.Collectors;
 public class DashboardService {
     private final ContactRepository contactRepository;
     private final MeetingRepository meetingRepository;
-    private final ContactService contactService;
     private final MeetingService meetingService;
+    private final DashboardCounterService dashboardCounterService;
 
-    public DashboardService(ContactRepository contactRepository, MeetingRepository meetingRepository, ContactService contactService, MeetingService meetingService) {
+    public DashboardService(ContactRepository contactRepository, MeetingRepository meetingRepository, MeetingService meetingService,
+                            DashboardCounterService dashboardCounterService) {
         this.contactRepository = contactRepository;
         this.meetingRepository = meetingRepository;
-        this.contactService = contactService;
         this.meetingService = meetingService;
+        this.dashboardCounterService = dashboardCounterService;
     }
 
+    /**
+     * A fixed number of queries whatever the size of the account: two counts, follow-ups, and
+     * three top-5 contact lists read as projections.
+     */
+    @Transactional(readOnly = true)
     public Map<String, Object> getStats(String userId) {
         Map<String, Object> stats = new HashMap<>();
         LocalDateTime now = LocalDateTime.now();
@@ -38,14 +47,18 @@ public class DashboardService {
         return stats;
     }
 
+    // Eight rolling weeks, the last one starting today, summed from daily counters
     public List<Map<String, Object>> getMeetingsChart(String userId) {
         List<Map<String, Object>> data = new ArrayList<>();
         LocalDate today = LocalDate.now();
+        Map<LocalDate, Long> perDay = dashboardCounterService.counts(userId, Metric.MEETINGS,
+                today.minusWeeks(7), today.plusDays(6));
         for (int i = 7; i >= 0; i--) {
             LocalDate weekStart = today.minusWeeks(i);
-            LocalDateTime start = weekStart.atStartOfDay();
-            LocalDateTime end = start.plusWeeks(1);
-            long count = meetingRepository.countByUserIdAndDateRange(userId, start, end);
+            long count = 0;
+            for (int day = 0; day < 7; day++) {
+                count += perDay.getOrDefault(weekStart.plusDays(day), 0L);
+            }
             Map<String, Object> entry = new HashMap<>();
             entry.put("week", "W" + (8 - i));
             entry.put("count", count);
@@ -65,52 +78,52 @@ public class DashboardService {
 
     public List<Map<String, Object>> getContactsOverTime(String userId) {
         List<Map<String, Object>> data = new ArrayList<>();
-        LocalDate today = LocalDate.now();
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        Map<LocalDate, Long> perMonth = dashboardCounterService.counts(userId, Metric.CONTACTS,
+                thisMonth.minusMonths(11), thisMonth);
 
         for (int i = 11; i >= 0; i--) {
-            LocalDate monthStart = today.minusMonths(i).withDayOfMonth(1);
-            LocalDateTime start = monthStart.atStartOfDay();
-            LocalDateTime end = monthStart.plusMonths(1).atStartOfDay();
-
-            long count = contactRepository.countByUserIdAndCreatedAtBetween(userId, start, end);
-
+            LocalDate monthStart = thisMonth.minusMonths(i);
             Map<String, Object> entry = new HashMap<>();
             entry.put("month", monthStart.getMonth().toString().substring(0, 3));
-            entry.put("count", count);
+            entry.put("count", perMonth.getOrDefault(monthStart, 0L));
             data.add(entry);
         }
         return data;
     }
 
     private List<ContactDto> getUpcomingBirthdays(String userId) {
-        LocalDate now = LocalDate.now();
-        return contactRepository.findByUserId(userId).stream()
-                .filter(c -> c.getBirthday() != null)
-                .filter(c -> {
-                    MonthDay bd = MonthDay.of(c.getBirthday().getMonth(), c.getBirthday().getDayOfMonth());
-                    MonthDay today = MonthDay.now();
-                    MonthDay next7 = MonthDay.from(now.plusDays(7));
-                    return !bd.isBefore(today) && !bd.isAfter(next7);
-                })
-                .limit(5)
-                .map(c -> contactService.getById(c.getId(), userId))
-                .collect(Collectors.toList());
+        LocalDate today = LocalDate.now();
+        return toSummaries(contactRepository.findBirthdaySummaries(userId, monthDayKey(today),
+                monthDayKey(today.plusDays(7)), PageRequest.of(0, 5)));
     }
 
     private List<ContactDto> getRecentlyContacted(String userId) {
-        return contactRepository.findByUserId(userId).stream()
-                .filter(c -> c.getLastContactedAt() != null)
-                .sorted((a, b) -> b.getLastContactedAt().compareTo(a.getLastContactedAt()))
-                .limit(5)
-                .map(c -> contactService.getById(c.getId(), userId))
-                .collect(Collectors.toList());
+        return toSummaries(contactRepository.findRecentlyContactedSummaries(userId, PageRequest.of(0, 5)));
     }
 
     private List<ContactDto> getNeedsAttention(String userId) {
         LocalDateTime threshold = LocalDateTime.now().minusDays(30);
-        return contactRepository.findNeedsAttention(userId, threshold).stream()
-                .limit(5)
-                .map(c -> contactService.getById(c.getId(), userId))
-                .collect(Collectors.toList());
+        return toSummaries(contactRepository.findNeedsAttentionSummaries(userId, threshold, PageRequest.of(0, 5)));
+    }
+
+    private static int monthDayKey(LocalDate date) {
+        return date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    // The dashboard lists only show these fields; emails, phones and tags are left out
+    private static List<ContactDto> toSummaries(List<Object[]> rows) {
+        List<ContactDto> contacts = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ContactDto dto = new ContactDto();
+            dto.setId((String) row[0]);
+            dto.setName((String) row[1]);
+            dto.setProfilePicture((String) row[2]);
+            dto.setBirthday(row[3] != null ? row[3].toString() : null);
+            dto.setAnniversary(row[4] != null ? row[4].toString() : null);
+            dto.setLastContactedAt(row[5] != null ? row[5].toString() : null);
+            contacts.add(dto);
+        }
+        return contacts;
     }
 }
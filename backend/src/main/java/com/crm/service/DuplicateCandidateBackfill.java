@@ -0,0 +1,84 @@
+package com.crm.service;
+
+import com.crm.entity.Contact;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * Computes match keys and duplicate candidates for contacts that have none yet, i.e. contacts
+ * written before duplicate candidates were maintained on every write.
+ *
+ * Works like {@link ContactCollectionsBackfill}: once per startup, on a background thread, in
+ * small id-ordered batches of short transactions. Each contact is matched against the keys of
+ * the contacts indexed before it, so every pair is found when the second of the two is indexed.
+ */
+@Component
+public class DuplicateCandidateBackfill {
+    private static final Logger log = LoggerFactory.getLogger(DuplicateCandidateBackfill.class);
+
+    private static final String PENDING = "SELECT c FROM Contact c WHERE c.id > :after AND " +
+            "NOT EXISTS (SELECT k.id FROM ContactMatchKey k WHERE k.contactId = c.id) ORDER BY c.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final DuplicateCandidateService duplicateCandidateService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public DuplicateCandidateBackfill(DuplicateCandidateService duplicateCandidateService,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${app.migration.duplicate-candidates.enabled:true}") boolean enabled,
+                                      @Value("${app.migration.duplicate-candidates.batch-size:200}") int batchSize) {
+        this.duplicateCandidateService = duplicateCandidateService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        Thread worker = new Thread(this::run, "duplicate-candidates-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void run() {
+        String after = "";
+        long indexed = 0;
+        try {
+            while (true) {
+                String from = after;
+                List<Contact> batch = transactionTemplate.execute(status -> indexBatch(from));
+                if (batch == null || batch.isEmpty()) break;
+                indexed += batch.size();
+                after = batch.get(batch.size() - 1).getId();
+            }
+            if (indexed > 0) log.info("Computed duplicate candidates for {} contacts", indexed);
+        } catch (Exception e) {
+            log.warn("Duplicate candidates backfill stopped after {} contacts: {}", indexed, e.getMessage());
+        }
+    }
+
+    private List<Contact> indexBatch(String after) {
+        List<Contact> batch = entityManager.createQuery(PENDING, Contact.class)
+                .setParameter("after", after)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(batchSize)
+                .getResultList();
+        batch.forEach(contact -> duplicateCandidateService.index(contact, true));
+        return batch;
+    }
+}
@@ -0,0 +1,175 @@
+package com.crm.service;
+
+import com.crm.entity.Contact;
+import com.crm.entity.ContactMatchKey;
+import com.crm.entity.DuplicateCandidate;
+import com.crm.entity.DuplicateCandidate.CandidateStatus;
+import com.crm.entity.DuplicateCandidate.MatchReason;
+import com.crm.event.ContactChangedEvent;
+import com.crm.event.UserChangedEvent;
+import com.crm.repository.ContactMatchKeyRepository;
+import com.crm.repository.DuplicateCandidateRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps contact_match_keys and duplicate_candidates up to date as contacts are written.
+ *
+ * Unlike the read models that follow ContactChangedEvent after commit, this listener runs
+ * synchronously inside the transaction that writes the contact, so a contact and its duplicate
+ * candidates are always committed together. Only the written contact's keys are looked up, so
+ * the cost of a write does not depend on the size of the address book. Pairs the user
+ * dismissed survive edits and are not suggested again.
+ */
+@Service
+public class DuplicateCandidateService {
+    // Bounds the work for very common names; email and phone keys are looked up in full
+    private static final int MAX_NAME_MATCHES = 200;
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final ContactMatchKeyRepository keyRepository;
+    private final DuplicateCandidateRepository candidateRepository;
+    private final ContactValues contactValues;
+
+    public DuplicateCandidateService(ContactMatchKeyRepository keyRepository,
+                                     DuplicateCandidateRepository candidateRepository,
+                                     ContactValues contactValues) {
+        this.keyRepository = keyRepository;
+        this.candidateRepository = candidateRepository;
+        this.contactValues = contactValues;
+    }
+
+    @EventListener
+    public void onContactChanged(ContactChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                index(event.getContact(), true);
+                break;
+            case UPDATED:
+                index(event.getContact(), false);
+                break;
+            case DELETED:
+                keyRepository.deleteByContactId(event.getContactId());
+                candidateRepository.deleteByContact(event.getContactId());
+                break;
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.isDeleted()) return;
+        keyRepository.deleteByUserId(event.getUserId());
+        candidateRepository.deleteByUserId(event.getUserId());
+    }
+
+    /**
+     * Rewrites the keys of the contact and its open candidate pairs. {@code isNew} skips the
+     * lookups of existing rows for contacts that cannot have any yet.
+     */
+    void index(Contact contact, boolean isNew) {
+        String contactId = contact.getId();
+        String name = ContactMatchKeys.normalizeName(contact.getName());
+        Map<String, String> keys = keysOf(contact, name);
+
+        Set<String> dismissed = new HashSet<>();
+        if (!isNew) {
+            if (sameKeys(keyRepository.findByContactId(contactId), keys)) return;
+            keyRepository.deleteByContactId(contactId);
+            candidateRepository.deleteByContactAndStatus(contactId, CandidateStatus.OPEN);
+            for (DuplicateCandidate kept : candidateRepository.findByContact(contactId)) {
+                dismissed.add(kept.getContactA().equals(contactId) ? kept.getContactB() : kept.getContactA());
+            }
+        }
+
+        List<ContactMatchKey> rows = new ArrayList<>(keys.size());
+        keys.forEach((key, keyName) -> rows.add(new ContactMatchKey(contact.getUserId(), contactId, key, keyName)));
+        keyRepository.saveAll(rows);
+        if (keys.isEmpty()) return;
+
+        List<String> exactKeys = new ArrayList<>();
+        List<ContactMatchKey> shared = new ArrayList<>();
+        for (Map.Entry<String, String> key : keys.entrySet()) {
+            if (key.getKey().startsWith("N:")) {
+                shared.addAll(keyRepository.findSharedKeys(contact.getUserId(), List.of(key.getKey()), contactId,
+                        PageRequest.of(0, MAX_NAME_MATCHES)));
+            } else {
+                exactKeys.add(key.getKey());
+            }
+        }
+        if (!exactKeys.isEmpty()) {
+            shared.addAll(0, keyRepository.findSharedKeys(contact.getUserId(), exactKeys, contactId, Pageable.unpaged()));
+        }
+
+        Map<String, DuplicateCandidate> byOther = new LinkedHashMap<>();
+        for (ContactMatchKey match : shared) {
+            String other = match.getContactId();
+            if (dismissed.contains(other)) continue;
+            MatchReason reason = reasonOf(match.getMatchKey());
+            double score = 1.0;
+            if (reason == MatchReason.NAME) {
+                if (match.getNormalizedName() == null || !DuplicateDetector.similarNames(name, match.getNormalizedName())) continue;
+                score = NameSimilarity.jaroWinkler(name, match.getNormalizedName());
+            }
+            DuplicateCandidate found = byOther.get(other);
+            // An email or phone match is stronger evidence than a similar name
+            if (found != null && (found.getReason() != MatchReason.NAME || reason == MatchReason.NAME)) continue;
+            byOther.put(other, pair(contact.getUserId(), contactId, other, reason, score));
+        }
+        candidateRepository.saveAll(byOther.values());
+    }
+
+    private Map<String, String> keysOf(Contact contact, String normalizedName) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        for (String email : contactValues.emails(contact)) {
+            String key = ContactMatchKeys.email(email);
+            if (key != null) keys.put(truncate("E:" + key), null);
+        }
+        for (String phone : contactValues.phones(contact)) {
+            String key = ContactMatchKeys.phone(phone);
+            if (key != null) keys.put(truncate("P:" + key), null);
+        }
+        String nameKey = ContactMatchKeys.name(contact.getName());
+        if (nameKey != null) keys.put(truncate("N:" + nameKey), normalizedName);
+        return keys;
+    }
+
+    private static boolean sameKeys(List<ContactMatchKey> existing, Map<String, String> keys) {
+        if (existing.size() != keys.size()) return false;
+        for (ContactMatchKey key : existing) {
+            if (!keys.containsKey(key.getMatchKey())) return false;
+            if (!Objects.equals(keys.get(key.getMatchKey()), key.getNormalizedName())) return false;
+        }
+        return true;
+    }
+
+    private static DuplicateCandidate pair(String userId, String a, String b, MatchReason reason, double score) {
+        DuplicateCandidate candidate = new DuplicateCandidate();
+        candidate.setUserId(userId);
+        candidate.setContactA(a.compareTo(b) < 0 ? a : b);
+        candidate.setContactB(a.compareTo(b) < 0 ? b : a);
+        candidate.setReason(reason);
+        candidate.setScore(score);
+        return candidate;
+    }
+
+    private static MatchReason reasonOf(String matchKey) {
+        switch (matchKey.charAt(0)) {
+            case 'E': return MatchReason.EMAIL;
+            case 'P': return MatchReason.PHONE;
+            default: return MatchReason.NAME;
+        }
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+}
@@ -0,0 +1,88 @@
+package com.crm.service;
+
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides which contacts are likely the same person.
+ *
+ * Contacts sharing an email or phone key (see {@link ContactMatchKeys}) are duplicates
+ * outright; contacts sharing a phonetic name key are duplicates when their names are at least
+ * NAME_THRESHOLD similar by Jaro-Winkler. {@link DuplicateCandidateService} records the matching
+ * pairs as contacts are written, and {@link #clusterPairs} merges them with union-find so a
+ * contact linked to two others ends up in one group instead of two overlapping ones.
+ */
+@Component
+public class DuplicateDetector {
+    static final double NAME_THRESHOLD = 0.90;
+
+    /**
+     * Groups the contact ids of the given pairs into connected components.
+     */
+    public List<List<String>> clusterPairs(List<String[]> pairs) {
+        Map<String, Integer> index = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        for (String[] pair : pairs) {
+            for (String id : pair) {
+                if (index.putIfAbsent(id, ids.size()) == null) ids.add(id);
+            }
+        }
+        UnionFind groups = new UnionFind(ids.size());
+        for (String[] pair : pairs) {
+            groups.union(index.get(pair[0]), index.get(pair[1]));
+        }
+
+        Map<Integer, List<String>> members = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            members.computeIfAbsent(groups.find(i), k -> new ArrayList<>()).add(ids.get(i));
+        }
+        return new ArrayList<>(members.values());
+    }
+
+    /**
+     * Whether two normalized names are close enough to flag the contacts as duplicates.
+     */
+    static boolean similarNames(String a, String b) {
+        return !a.isEmpty() && !b.isEmpty() && NameSimilarity.jaroWinkler(a, b) >= NAME_THRESHOLD;
+    }
+
+    // Disjoint sets over 0..n-1 with path halving and union by size
+    static final class UnionFind {
+        private final int[] parent;
+        private final int[] size;
+
+        UnionFind(int n) {
+            parent = new int[n];
+            size = new int[n];
+            for (int i = 0; i < n; i++) {
+                parent[i] = i;
+                size[i] = 1;
+            }
+        }
+
+        int find(int i) {
+            while (parent[i] != i) {
+                parent[i] = parent[parent[i]];
+                i = parent[i];
+            }
+            return i;
+        }
+
+        void union(int a, int b) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) return;
+            if (size[rootA] < size[rootB]) {
+                int swap = rootA;
+                rootA = rootB;
+                rootB = swap;
+            }
+            parent[rootB] = rootA;
+            size[rootA] += size[rootB];
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.crm.service;
+
+import com.crm.entity.OutboundEmail;
+import com.crm.entity.OutboundEmail.EmailStatus;
+import com.crm.repository.OutboundEmailRepository;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.annotation.PreDestroy;
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers the email outbox written by EmailService.
+ *
+ * Every app.mail.outbox.poll-ms, batches of up to app.mail.outbox.batch-size ready emails are
+ * claimed (status SENDING with a claim that expires after claim-timeout-ms, so instances never
+ * share a row) and handed to app.mail.outbox.workers threads. Each worker sends its whole batch
+ * over one SMTP connection taken from a small pool; connections stay open between batches and
+ * are closed after idle-ms unused, so a burst costs one handshake and login per worker rather
+ * than per message. Results are written back in one transaction per batch: a failed email is
+ * retried after backoff-ms, doubling per attempt up to max-backoff-ms, and left DEAD after
+ * max-attempts or when the server refuses it permanently (a 5xx reply). Temporary 4xx refusals
+ * such as throttling or greylisting are retried like any failure; after a 421 the server has
+ * closed the connection, so the message is tried once more on a new one first.
+ *
+ * Transactional emails are claimed before bulk ones, and app.mail.outbox.max-per-second, shared
+ * by the workers, keeps a digest run from flooding the relay.
+ *
+ * Delivery is at least once: if an instance dies after sending but before recording, the claim
+ * expires and the batch goes out again.
+ */
+@Component
+public class EmailOutboxSender {
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxSender.class);
+
+    private final OutboundEmailRepository outboxRepository;
+    private final JavaMailSenderImpl mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String fromEmail;
+    private final int batchSize;
+    private final int workers;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Duration claimTimeout;
+    private final long idleMs;
+    private final int retentionDays;
+    private final long sendIntervalNanos;
+    private final AtomicLong nextSendAt = new AtomicLong(System.nanoTime());
+    private final ExecutorService executor;
+    private final BlockingQueue<PooledTransport> transports = new LinkedBlockingQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger openTransports = new AtomicInteger();
+    private final AtomicLong pending = new AtomicLong();
+    private final Timer batchTimer;
+
+    public EmailOutboxSender(OutboundEmailRepository outboxRepository, JavaMailSenderImpl mailSender,
+                             PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                             @Value("${spring.mail.username:noreply@nu-connect.com}") String fromEmail,
+                             @Value("${app.mail.outbox.batch-size:100}") int batchSize,
+                             @Value("${app.mail.outbox.workers:2}") int workers,
+                             @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+                             @Value("${app.mail.outbox.backoff-ms:30000}") long backoffMs,
+                             @Value("${app.mail.outbox.max-backoff-ms:3600000}") long maxBackoffMs,
+                             @Value("${app.mail.outbox.claim-timeout-ms:300000}") long claimTimeoutMs,
+                             @Value("${app.mail.outbox.idle-ms:60000}") long idleMs,
+                             @Value("${app.mail.outbox.retention-days:7}") int retentionDays,
+                             @Value("${app.mail.outbox.max-per-second:0}") double maxPerSecond) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.fromEmail = fromEmail == null || fromEmail.isBlank() ? "noreply@nu-connect.com" : fromEmail;
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+        this.backoff = Duration.ofMillis(backoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.claimTimeout = Duration.ofMillis(claimTimeoutMs);
+        this.idleMs = idleMs;
+        this.retentionDays = retentionDays;
+        this.sendIntervalNanos = maxPerSecond > 0 ? (long) (1_000_000_000L / maxPerSecond) : 0;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "email-sender-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.batchTimer = Timer.builder("crm.mail.batch").register(meterRegistry);
+        meterRegistry.gauge("crm.mail.outbox.pending", pending);
+        meterRegistry.gauge("crm.mail.transports", openTransports);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        PooledTransport transport;
+        while ((transport = transports.poll()) != null) {
+            close(transport);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-ms:1000}")
+    public void poll() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxRepository.releaseExpired(EmailStatus.SENDING, EmailStatus.PENDING, now));
+            pending.set(outboxRepository.countByStatus(EmailStatus.PENDING));
+            closeIdleTransports();
+
+            while (inFlight.get() < workers) {
+                String claim = UUID.randomUUID().toString();
+                List<OutboundEmail> batch = claimBatch(claim);
+                if (batch.isEmpty()) break;
+                inFlight.incrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        batchTimer.record(() -> send(claim, batch));
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            log.warn("Email outbox poll failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.mail.outbox.cleanup-cron:0 30 3 * * *}")
+    public void deleteSent() {
+        Integer deleted = transactionTemplate.execute(status -> outboxRepository.deleteByStatusAndSentAtBefore(
+                EmailStatus.SENT, LocalDateTime.now().minusDays(retentionDays)));
+        if (deleted != null && deleted > 0) log.info("Deleted {} sent emails from the outbox", deleted);
+    }
+
+    private List<OutboundEmail> claimBatch(String claim) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> ids = new ArrayList<>(outboxRepository.findReady(EmailStatus.PENDING, OutboundEmail.TRANSACTIONAL,
+                    now, PageRequest.of(0, batchSize)));
+            if (ids.size() < batchSize) {
+                ids.addAll(outboxRepository.findReady(EmailStatus.PENDING, OutboundEmail.BULK, now,
+                        PageRequest.of(0, batchSize - ids.size())));
+            }
+            if (ids.isEmpty()) return List.of();
+            outboxRepository.claim(ids, claim, EmailStatus.SENDING, now.plus(claimTimeout), EmailStatus.PENDING);
+            return outboxRepository.findByClaimedByAndStatus(claim, EmailStatus.SENDING);
+        });
+    }
+
+    private void send(String claim, List<OutboundEmail> batch) {
+        Map<String, String> failures = new HashMap<>();
+        Set<String> rejected = new HashSet<>();
+        PooledTransport transport = null;
+        try {
+            for (OutboundEmail email : batch) {
+                MimeMessage message;
+                try {
+                    message = toMessage(email);
+                } catch (MessagingException e) {
+                    rejected.add(email.getId());
+                    failures.put(email.getId(), e.getMessage());
+                    continue;
+                }
+                try {
+                    transport = connected(transport);
+                    sendOn(transport, message);
+                    continue;
+                } catch (SendFailedException e) {
+                    if (!closesConnection(e)) {
+                        fail(email, e, failures, rejected);
+                        continue;
+                    }
+                } catch (MessagingException e) {
+                    // Most likely the connection dropped
+                }
+                // Reconnect once for this message
+                close(transport);
+                transport = null;
+                try {
+                    transport = connected(null);
+                    sendOn(transport, message);
+                } catch (MessagingException retry) {
+                    if (!(retry instanceof SendFailedException) || closesConnection((SendFailedException) retry)) {
+                        close(transport);
+                        transport = null;
+                    }
+                    fail(email, retry, failures, rejected);
+                }
+            }
+        } finally {
+            if (transport != null) {
+                transport.lastUsed = System.currentTimeMillis();
+                transports.offer(transport);
+            }
+        }
+        record(claim, batch, failures, rejected);
+    }
+
+    // Only a permanent refusal is rejected outright; the rest goes through backoff like any failure
+    private static void fail(OutboundEmail email, MessagingException e, Map<String, String> failures, Set<String> rejected) {
+        failures.put(email.getId(), e.getMessage());
+        if (e instanceof SendFailedException && isPermanent((SendFailedException) e)) rejected.add(email.getId());
+    }
+
+    /**
+     * Whether the server refused the message for good: a 5xx reply, or every recipient refused.
+     * 4xx replies (throttling, greylisting, a busy mailbox) are worth trying again later.
+     */
+    static boolean isPermanent(SendFailedException e) {
+        if (e instanceof SMTPSendFailedException) return ((SMTPSendFailedException) e).getReturnCode() >= 500;
+        Address[] invalid = e.getInvalidAddresses();
+        Address[] validUnsent = e.getValidUnsentAddresses();
+        return invalid != null && invalid.length > 0 && (validUnsent == null || validUnsent.length == 0);
+    }
+
+    // 421: the server is closing the connection, e.g. because of a rate limit
+    private static boolean closesConnection(SendFailedException e) {
+        return e instanceof SMTPSendFailedException && ((SMTPSendFailedException) e).getReturnCode() == 421;
+    }
+
+    private MimeMessage toMessage(OutboundEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(email.getToAddress());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody());
+        message.saveChanges();
+        return message;
+    }
+
+    private void sendOn(PooledTransport transport, MimeMessage message) throws MessagingException {
+        pace();
+        transport.transport.sendMessage(message, message.getAllRecipients());
+    }
+
+    // Waits for this send's slot under app.mail.outbox.max-per-second
+    private void pace() {
+        if (sendIntervalNanos == 0) return;
+        long now = System.nanoTime();
+        long slot = nextSendAt.getAndUpdate(next -> Math.max(next, now) + sendIntervalNanos);
+        long wait = Math.max(slot, now) - now;
+        if (wait > 0) LockSupport.parkNanos(wait);
+    }
+
+    private PooledTransport connected(PooledTransport current) throws MessagingException {
+        if (current != null && current.transport.isConnected()) return current;
+        close(current);
+        PooledTransport pooled;
+        while ((pooled = transports.poll()) != null) {
+            if (pooled.transport.isConnected()) return pooled;
+            close(pooled);
+        }
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        String username = mailSender.getUsername();
+        String password = mailSender.getPassword();
+        if (username == null || username.isEmpty()) {
+            username = null;
+            password = null;
+        }
+        transport.connect(mailSender.getHost(), mailSender.getPort(), username, password);
+        openTransports.incrementAndGet();
+        return new PooledTransport(transport);
+    }
+
+    private void closeIdleTransports() {
+        long cutoff = System.currentTimeMillis() - idleMs;
+        for (PooledTransport transport : transports) {
+            if (transport.lastUsed < cutoff && transports.remove(transport)) close(transport);
+        }
+    }
+
+    // Safe to call more than once: a failed reconnect has already closed the transport it replaced
+    private void close(PooledTransport transport) {
+        if (transport == null || !transport.closed.compareAndSet(false, true)) return;
+        openTransports.decrementAndGet();
+        try {
+            transport.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Failed to close SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private void record(String claim, List<OutboundEmail> batch, Map<String, String> failures, Set<String> rejected) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (OutboundEmail email : outboxRepository.findAllById(
+                    batch.stream().map(OutboundEmail::getId).collect(Collectors.toList()))) {
+                // The claim expired and the row was released or claimed again meanwhile
+                if (email.getStatus() != EmailStatus.SENDING || !claim.equals(email.getClaimedBy())) continue;
+                email.setClaimedBy(null);
+                email.setClaimedUntil(null);
+                String error = failures.get(email.getId());
+                if (error == null) {
+                    email.setStatus(EmailStatus.SENT);
+                    email.setSentAt(now);
+                    meterRegistry.counter("crm.mail.sent", "category", email.getCategory()).increment();
+                    continue;
+                }
+                int attempts = email.getAttempts() + 1;
+                email.setAttempts(attempts);
+                email.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+                if (attempts >= maxAttempts || rejected.contains(email.getId())) {
+                    email.setStatus(EmailStatus.DEAD);
+                    meterRegistry.counter("crm.mail.dead", "category", email.getCategory()).increment();
+                    log.warn("Giving up on {} email {} after {} attempts: {}", email.getCategory(), email.getId(), attempts, error);
+                } else {
+                    email.setStatus(EmailStatus.PENDING);
+                    email.setNextAttemptAt(now.plus(backoffAfter(attempts)));
+                    meterRegistry.counter("crm.mail.retried", "category", email.getCategory()).increment();
+                }
+            }
+        });
+    }
+
+    private Duration backoffAfter(int attempts) {
+        Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.crm.service;
 
+import com.crm.entity.OutboundEmail;
+import com.crm.repository.OutboundEmailRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Email service for sending verification and notification emails.
  *
+ * Emails are not sent here but written to the outbox (email_outbox) in the caller's transaction,
+ * so a request never waits on SMTP and an email exists exactly when what it announces was
+ * committed. EmailOutboxSender delivers them in the background.
+ *
  * Configuration required in application.yml:
  * spring:
  *   mail:
@@ -21,16 +29,43 @@ import org.springframework.stereotype.Service;
  */
 @Service
 public class EmailService {
-    private final JavaMailSender mailSender;
+    public static final String VERIFICATION = "verification";
+    public static final String PASSWORD_RESET = "password-reset";
 
-    @Value("${spring.mail.username:noreply@nu-connect.com}")
-    private String fromEmail;
+    private final OutboundEmailRepository outboxRepository;
 
     @Value("${app.frontend-url:http://localhost:5173}")
     private String frontendUrl;
 
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(OutboundEmailRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    /**
+     * Queue a plain-text email; {@code category} tags it in the outbox and the mail metrics.
+     */
+    public OutboundEmail enqueue(String toEmail, String subject, String text, String category) {
+        return outboxRepository.save(new OutboundEmail(toEmail, subject, text, category));
+    }
+
+    /**
+     * Queue bulk emails at low priority, skipping those whose dedupe key is already in the
+     * outbox. Returns the number queued.
+     */
+    public int enqueueBulk(List<OutboundEmail> emails) {
+        List<String> keys = new ArrayList<>();
+        for (OutboundEmail email : emails) {
+            if (email.getDedupeKey() != null) keys.add(email.getDedupeKey());
+        }
+        Set<String> existing = keys.isEmpty() ? Set.of() : new HashSet<>(outboxRepository.findExistingDedupeKeys(keys));
+        List<OutboundEmail> queued = new ArrayList<>();
+        for (OutboundEmail email : emails) {
+            if (email.getDedupeKey() != null && existing.contains(email.getDedupeKey())) continue;
+            email.setPriority(OutboundEmail.BULK);
+            queued.add(email);
+        }
+        outboxRepository.saveAll(queued);
+        return queued.size();
     }
 
     /**
@@ -43,26 +78,16 @@ public class EmailService {
     public void sendVerificationEmail(String toEmail, String name, String verificationToken) {
         String verificationLink = frontendUrl + "/verify-email?token=" + verificationToken;
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject("Verify your Nu-Connect account");
-        message.setText(
+        enqueue(toEmail, "Verify your Nu-Connect account",
             "Hi " + (name != null ? name : "there") + ",\n\n" +
             "Welcome to Nu-Connect! Please verify your email address by clicking the link below:\n\n" +
             verificationLink + "\n\n" +
             "This link will expire in 24 hours.\n\n" +
             "If you didn't create an account with Nu-Connect, you can safely ignore this email.\n\n" +
             "Best regards,\n" +
-            "The Nu-Connect Team"
+            "The Nu-Connect Team",
+            VERIFICATION
         );
-
-        try {
-            mailSender.send(message);
-        } catch (Exception e) {
-            // Log error but don't fail registration
-            System.err.println("Failed to send verification email: " + e.getMessage());
-        }
     }
 
     /**
@@ -75,24 +100,15 @@ public class EmailService {
     public void sendPasswordResetEmail(String toEmail, String name, String resetToken) {
         String resetLink = frontendUrl + "/reset-password?token=" + resetToken;
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject("Reset your Nu-Connect password");
-        message.setText(
+        enqueue(toEmail, "Reset your Nu-Connect password",
             "Hi " + (name != null ? name : "there") + ",\n\n" +
             "We received a request to reset your password. Click the link below to set a new password:\n\n" +
             resetLink + "\n\n" +
             "This link will expire in 1 hour.\n\n" +
             "If you didn't request a password reset, you can safely ignore this email.\n\n" +
             "Best regards,\n" +
-            "The Nu-Connect Team"
+            "The Nu-Connect Team",
+            PASSWORD_RESET
         );
-
-        try {
-            mailSender.send(message);
-        } catch (Exception e) {
-            System.err.println("Failed to send password reset email: " + e.getMessage());
-        }
     }
 }
@@ -0,0 +1,233 @@
+package com.crm.service;
+
+import com.crm.entity.ActivityEvent;
+import com.crm.entity.Reminder;
+import com.crm.event.ActivityRecordedEvent;
+import com.crm.event.ReminderCreatedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events streams per user, pushing new and due reminders, activity feed entries and
+ * dashboard invalidations so the frontend does not have to poll for them.
+ *
+ * An open stream is an async request: between messages it holds a socket but no Tomcat thread,
+ * so the number of idle streams is bounded by server.tomcat.max-connections rather than the
+ * request thread pool. Publishing only appends to each connection's queue; a small pool of
+ * app.events.sender-threads writes the queues out, one drain at a time per connection. A
+ * connection whose queue reaches app.events.queue-capacity has it replaced by a single
+ * {@code resync} event, telling the client to refetch instead of replaying what it missed.
+ * A comment line every app.events.heartbeat-ms keeps proxies from closing idle streams and
+ * finds dead sockets; streams end after app.events.timeout-ms and EventSource reconnects.
+ */
+@Service
+public class EventStreamService {
+    public static final String REMINDER = "reminder";
+    public static final String REMINDER_DUE = "reminder-due";
+    public static final String EVENT_REMINDER = "event-reminder";
+    public static final String ACTIVITY = "activity";
+    public static final String DASHBOARD = "dashboard";
+    public static final String RESYNC = "resync";
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final int queueCapacity;
+    private final int maxPerUser;
+    private final ExecutorService sender;
+    private final Map<String, List<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final Counter resyncs;
+
+    public EventStreamService(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${app.events.timeout-ms:1800000}") long timeoutMs,
+                              @Value("${app.events.queue-capacity:100}") int queueCapacity,
+                              @Value("${app.events.max-connections-per-user:10}") int maxPerUser,
+                              @Value("${app.events.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.queueCapacity = queueCapacity;
+        this.maxPerUser = maxPerUser;
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread t = new Thread(r, "event-stream-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.resyncs = Counter.builder("crm.events.resyncs").register(meterRegistry);
+        meterRegistry.gauge("crm.events.connections", open);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        connections.values().forEach(list -> list.forEach(connection -> connection.emitter.complete()));
+    }
+
+    /**
+     * Opens a stream for the user. The oldest of the user's streams is closed when this one
+     * would exceed app.events.max-connections-per-user.
+     */
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(userId, emitter);
+        List<Connection> userConnections = connections.compute(userId, (id, list) -> {
+            List<Connection> result = list != null ? list : new CopyOnWriteArrayList<>();
+            result.add(connection);
+            return result;
+        });
+        open.incrementAndGet();
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(connection));
+
+        if (userConnections.size() > maxPerUser) {
+            userConnections.get(0).emitter.complete();
+        }
+        // Sent right away so the response headers go out and the client sees the stream open
+        connection.offer(SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    /**
+     * Whether the user has a stream open on this instance.
+     */
+    public boolean isConnected(String userId) {
+        List<Connection> userConnections = connections.get(userId);
+        return userConnections != null && !userConnections.isEmpty();
+    }
+
+    public void publish(String userId, String name, Object data) {
+        List<Connection> userConnections = connections.get(userId);
+        if (userConnections == null || userConnections.isEmpty()) return;
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + name + " event");
+        }
+        for (Connection connection : userConnections) {
+            connection.offer(SseEmitter.event().name(name).data(json));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReminderCreated(ReminderCreatedEvent event) {
+        for (Reminder reminder : event.getReminders()) {
+            publish(event.getUserId(), REMINDER, reminder);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivityRecorded(ActivityRecordedEvent event) {
+        ActivityEvent entry = event.getEvent();
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", entry.getSourceId());
+        data.put("type", entry.getType().name());
+        data.put("contactId", entry.getContactId());
+        data.put("timestamp", entry.getOccurredAt().toString());
+        publish(event.getUserId(), ACTIVITY, data);
+    }
+
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (List<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                connection.offer(SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+
+    private void remove(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) return;
+        open.decrementAndGet();
+        connections.computeIfPresent(connection.userId, (id, list) -> {
+            list.remove(connection);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private final class Connection {
+        private final String userId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Guarded by queue
+        private boolean draining;
+        private boolean resyncQueued;
+
+        Connection(String userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder message) {
+            if (closed.get()) return;
+            synchronized (queue) {
+                if (resyncQueued) return;
+                if (queue.size() >= queueCapacity) {
+                    // The client is behind; whatever it missed is covered by refetching
+                    queue.clear();
+                    queue.add(SseEmitter.event().name(RESYNC).data("{}"));
+                    resyncQueued = true;
+                    resyncs.increment();
+                } else {
+                    queue.add(message);
+                }
+                if (draining) return;
+                draining = true;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                emitter.complete();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder message;
+                synchronized (queue) {
+                    message = queue.poll();
+                    if (message == null) {
+                        draining = false;
+                        return;
+                    }
+                    if (queue.isEmpty()) resyncQueued = false;
+                }
+                try {
+                    emitter.send(message);
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away or the stream already ended
+                    synchronized (queue) {
+                        queue.clear();
+                        draining = false;
+                    }
+                    remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -2,11 +2,13 @@ package com.crm.service;
 
 import com.crm.dto.AuthResponse;
 import com.crm.entity.User;
+import com.crm.event.UserChangedEvent;
 import com.crm.repository.UserRepository;
 import com.crm.security.JwtService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +35,7 @@ public class GoogleAuthService {
     private final TemplateService templateService;
     private final ObjectMapper objectMapper;
     private final RestTemplate restTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${spring.security.oauth2.client.registration.google.client-id}")
     private String clientId;
@@ -47,12 +50,14 @@ public class GoogleAuthService {
     private static final String USER_INFO_URL = "https://www.googleapis.com/oauth2/v2/userinfo";
 
     public GoogleAuthService(UserRepository userRepository, JwtService jwtService,
-                             TemplateService templateService, ObjectMapper objectMapper) {
+                             TemplateService templateService, ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.jwtService = jwtService;
         this.templateService = templateService;
         this.objectMapper = objectMapper;
         this.restTemplate = new RestTemplate();
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -191,7 +196,9 @@ public class GoogleAuthService {
             user.setName(userInfo.name);
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+        return saved;
     }
 
     private User createNewUser(GoogleUserInfo userInfo) {
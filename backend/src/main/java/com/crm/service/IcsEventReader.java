@@ -0,0 +1,132 @@
+package com.crm.service;
+
+import com.crm.dto.CalendarEventDto;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+
+/**
+ * Streaming reader for the VEVENTs of an iCalendar file. Reads one line at a time, unfolding
+ * continuation lines (RFC 5545 section 3.1), so memory use is bounded by the largest event
+ * rather than the file.
+ *
+ * Only the properties the CRM stores are read: SUMMARY, DESCRIPTION, DTSTART, DTEND, LOCATION
+ * and Google Meet URLs.
+ */
+public class IcsEventReader {
+    private final BufferedReader reader;
+    private String pending;
+    private int pendingLine;
+    private int logicalLine;
+    private int lineNumber;
+    private int eventLine;
+    private String eventError;
+
+    public IcsEventReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Returns the next event, or null at the end of the input. The event is returned even when a
+     * property could not be parsed; {@link #getEventError()} then describes the problem.
+     */
+    public CalendarEventDto next() throws IOException {
+        CalendarEventDto current = null;
+        String line;
+        while ((line = nextLine()) != null) {
+            line = line.trim();
+            if (line.equals("BEGIN:VEVENT")) {
+                current = new CalendarEventDto();
+                eventLine = logicalLine;
+                eventError = null;
+            } else if (line.equals("END:VEVENT") && current != null) {
+                return current;
+            } else if (current != null) {
+                try {
+                    readProperty(current, line);
+                } catch (RuntimeException e) {
+                    if (eventError == null) eventError = "Invalid value '" + line + "'";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 1-based line number of the BEGIN:VEVENT of the event last returned by {@link #next()}.
+     */
+    public int getEventLine() {
+        return eventLine;
+    }
+
+    public String getEventError() {
+        return eventError;
+    }
+
+    private void readProperty(CalendarEventDto event, String line) {
+        if (line.startsWith("SUMMARY:")) {
+            event.setTitle(unescape(line.substring(8)));
+        } else if (line.startsWith("DESCRIPTION:")) {
+            event.setDescription(unescape(line.substring(12)));
+        } else if (line.startsWith("DTSTART")) {
+            event.setStartTime(parseDateTime(line));
+        } else if (line.startsWith("DTEND")) {
+            event.setEndTime(parseDateTime(line));
+        } else if (line.startsWith("LOCATION:")) {
+            event.setLocation(unescape(line.substring(9)));
+        } else if (line.startsWith("URL:")) {
+            String url = line.substring(4);
+            if (url.contains("meet.google.com")) {
+                event.setMeetLink(url);
+                event.setType("VIDEO_CALL");
+            }
+        }
+    }
+
+    // Returns the next logical line, with folded continuation lines joined back on
+    private String nextLine() throws IOException {
+        String raw;
+        while ((raw = reader.readLine()) != null) {
+            lineNumber++;
+            if (pending != null && !raw.isEmpty() && (raw.charAt(0) == ' ' || raw.charAt(0) == '\t')) {
+                pending += raw.substring(1);
+                continue;
+            }
+            String complete = pending;
+            int completeLine = pendingLine;
+            pending = raw;
+            pendingLine = lineNumber;
+            if (complete != null) {
+                logicalLine = completeLine;
+                return complete;
+            }
+        }
+        String last = pending;
+        logicalLine = pendingLine;
+        pending = null;
+        return last;
+    }
+
+    private static String parseDateTime(String line) {
+        String value = line.contains(":") ? line.substring(line.indexOf(":") + 1) : line;
+        value = value.replace("Z", "").replace("T", "");
+        if (value.length() >= 8) {
+            int year = Integer.parseInt(value.substring(0, 4));
+            int month = Integer.parseInt(value.substring(4, 6));
+            int day = Integer.parseInt(value.substring(6, 8));
+            int hour = value.length() >= 10 ? Integer.parseInt(value.substring(8, 10)) : 0;
+            int minute = value.length() >= 12 ? Integer.parseInt(value.substring(10, 12)) : 0;
+            return LocalDateTime.of(year, month, day, hour, minute).toString();
+        }
+        return null;
+    }
+
+    private static String unescape(String value) {
+        if (value == null) return "";
+        return value.replace("\\n", "\n")
+                .replace("\\,", ",")
+                .replace("\\;", ";")
+                .replace("\\\\", "\\");
+    }
+}
@@ -0,0 +1,155 @@
+package com.crm.service;
+
+import com.crm.dto.ImportReport;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Groups parsed import records into batches and commits each batch in its own transaction,
+ * together with a checkpoint of the import's progress.
+ *
+ * Records are numbered from 1 in file order. Rejected records ride along with the batch they
+ * were read in, so a checkpoint always covers a contiguous prefix of the file. If a batch fails
+ * to insert, its records are retried one per transaction; only the ones that still fail are
+ * reported, and the checkpoint advances with every record that commits.
+ */
+class ImportBatchWriter<T> {
+    private static final int MAX_MESSAGE_LENGTH = 300;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxErrors;
+    private final ImportReport report;
+    private final ImportCheckpoint checkpoint;
+    private final Consumer<List<T>> insert;
+    private final List<Row<T>> batch = new ArrayList<>();
+
+    ImportBatchWriter(TransactionTemplate transactionTemplate, int batchSize, int maxErrors, ImportReport resumeFrom,
+                      ImportCheckpoint checkpoint, Consumer<List<T>> insert) {
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.report = resumeFrom != null ? copy(resumeFrom) : new ImportReport();
+        this.checkpoint = checkpoint;
+        this.insert = insert;
+    }
+
+    /**
+     * Records up to this number were handled before a restart and must be skipped.
+     */
+    int resumeAfter() {
+        return report.getTotalRows();
+    }
+
+    void accept(int ordinal, int line, T value) {
+        add(new Row<>(ordinal, line, value, null));
+    }
+
+    void reject(int ordinal, int line, String error) {
+        add(new Row<>(ordinal, line, null, error));
+    }
+
+    ImportReport finish() {
+        if (!batch.isEmpty()) flush();
+        return report;
+    }
+
+    private void add(Row<T> row) {
+        batch.add(row);
+        if (batch.size() >= batchSize) flush();
+    }
+
+    private void flush() {
+        List<Row<T>> rows = new ArrayList<>(batch);
+        batch.clear();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<T> values = new ArrayList<>(rows.size());
+                for (Row<T> row : rows) {
+                    if (row.error == null) values.add(row.value);
+                }
+                if (!values.isEmpty()) insert.accept(values);
+                ImportReport progress = copy(report);
+                applyAll(progress, rows);
+                checkpoint.save(progress);
+            });
+            applyAll(report, rows);
+        } catch (RuntimeException batchError) {
+            for (Row<T> row : rows) {
+                if (row.error != null) {
+                    fail(report, row.ordinal, row.line, row.error);
+                    continue;
+                }
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        insert.accept(List.of(row.value));
+                        ImportReport progress = copy(report);
+                        succeed(progress, row.ordinal);
+                        checkpoint.save(progress);
+                    });
+                    succeed(report, row.ordinal);
+                } catch (RuntimeException rowError) {
+                    fail(report, row.ordinal, row.line, "Could not be saved: " + rootMessage(rowError));
+                }
+            }
+        }
+    }
+
+    private void applyAll(ImportReport target, List<Row<T>> rows) {
+        for (Row<T> row : rows) {
+            if (row.error == null) succeed(target, row.ordinal);
+            else fail(target, row.ordinal, row.line, row.error);
+        }
+    }
+
+    private static void succeed(ImportReport target, int ordinal) {
+        target.setImported(target.getImported() + 1);
+        target.setTotalRows(ordinal);
+    }
+
+    private void fail(ImportReport target, int ordinal, int line, String message) {
+        target.setFailed(target.getFailed() + 1);
+        target.setTotalRows(ordinal);
+        if (target.getErrors().size() < maxErrors) {
+            if (message.length() > MAX_MESSAGE_LENGTH) message = message.substring(0, MAX_MESSAGE_LENGTH) + "...";
+            target.getErrors().add(new ImportReport.RowError(line, message));
+        } else {
+            target.setErrorsTruncated(true);
+        }
+    }
+
+    private static ImportReport copy(ImportReport source) {
+        ImportReport copy = new ImportReport();
+        copy.setTotalRows(source.getTotalRows());
+        copy.setImported(source.getImported());
+        copy.setFailed(source.getFailed());
+        copy.setErrorsTruncated(source.isErrorsTruncated());
+        copy.setErrors(new ArrayList<>(source.getErrors()));
+        return copy;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) root = root.getCause();
+        if (root.getMessage() == null) return root.getClass().getSimpleName();
+        // Driver messages often go on to quote the whole SQL statement; the first line is enough.
+        int end = root.getMessage().indexOf('\n');
+        return end > 0 ? root.getMessage().substring(0, end).trim() : root.getMessage();
+    }
+
+    private static final class Row<T> {
+        final int ordinal;
+        final int line;
+        final T value;
+        final String error;
+
+        Row(int ordinal, int line, T value, String error) {
+            this.ordinal = ordinal;
+            this.line = line;
+            this.value = value;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.crm.service;
+
+import com.crm.dto.ImportReport;
+
+/**
+ * Persists the progress of an import. Called inside the transaction that commits a batch, with
+ * a report whose totalRows is the number of records fully handled so far, so a restarted import
+ * can skip exactly those records.
+ */
+@FunctionalInterface
+public interface ImportCheckpoint {
+    ImportCheckpoint NONE = progress -> {};
+
+    void save(ImportReport progress);
+}
@@ -0,0 +1,256 @@
+package com.crm.service;
+
+import com.crm.dto.ImportJobDto;
+import com.crm.dto.ImportReport;
+import com.crm.entity.ImportJob;
+import com.crm.entity.ImportJob.JobStatus;
+import com.crm.entity.ImportJob.JobType;
+import com.crm.repository.ImportJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs CSV and ICS imports in the background.
+ *
+ * An upload is copied to the spool directory (app.jobs.spool-dir) and recorded as a QUEUED
+ * import_jobs row, and the request returns with the job id. Jobs run on a fixed pool of
+ * app.jobs.workers threads with a bounded queue; when the queue is full the upload is refused
+ * instead of piling up on disk. Each import batch commits together with the job's progress, so
+ * after a restart a QUEUED or RUNNING job whose file is still in this instance's spool
+ * directory picks up right after its last committed record. The spool directory should
+ * therefore live on persistent storage.
+ */
+@Service
+public class ImportJobService {
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+    private static final int MAX_JOB_ERRORS = 100;
+
+    private final ImportJobRepository jobRepository;
+    private final ContactImportService contactImportService;
+    private final CalendarImportService calendarImportService;
+    private final ObjectMapper objectMapper;
+    private final Path spoolDir;
+    private final ThreadPoolExecutor executor;
+    private volatile boolean stopping;
+
+    public ImportJobService(ImportJobRepository jobRepository, ContactImportService contactImportService,
+                            CalendarImportService calendarImportService, ObjectMapper objectMapper,
+                            @Value("${app.jobs.spool-dir:${java.io.tmpdir}/crm-import-jobs}") String spoolDir,
+                            @Value("${app.jobs.workers:2}") int workers,
+                            @Value("${app.jobs.queue-capacity:50}") int queueCapacity) {
+        this.jobRepository = jobRepository;
+        this.contactImportService = contactImportService;
+        this.calendarImportService = calendarImportService;
+        this.objectMapper = objectMapper;
+        this.spoolDir = Paths.get(spoolDir);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "import-job-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public ImportJobDto submit(String userId, JobType type, MultipartFile file) throws IOException {
+        if (file.isEmpty()) throw new RuntimeException("Uploaded file is empty");
+        Files.createDirectories(spoolDir);
+
+        ImportJob job = new ImportJob();
+        job.setUserId(userId);
+        job.setType(type);
+        job.setFileName(file.getOriginalFilename());
+        job = jobRepository.save(job);
+
+        Path spool = spoolDir.resolve(job.getId() + ".upload");
+        file.transferTo(spool);
+        job.setSpoolPath(spool.toString());
+        job = jobRepository.save(job);
+
+        try {
+            String jobId = job.getId();
+            executor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            finish(job.getId(), JobStatus.FAILED, null, "Too many imports in progress");
+            throw new RuntimeException("Too many imports in progress, try again later");
+        }
+        return toDto(job);
+    }
+
+    public ImportJobDto get(String id, String userId) {
+        return jobRepository.findByIdAndUserId(id, userId)
+                .map(this::toDto)
+                .orElseThrow(() -> new RuntimeException("Import job not found"));
+    }
+
+    public List<ImportJobDto> getRecent(String userId) {
+        return jobRepository.findTop20ByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (ImportJob job : jobRepository.findByStatusInOrderByCreatedAt(List.of(JobStatus.QUEUED, JobStatus.RUNNING))) {
+            if (job.getSpoolPath() == null || !Files.exists(Paths.get(job.getSpoolPath()))) {
+                // Accepted by another instance, or its upload is gone; nothing to resume here
+                log.warn("Import job {} is {} but its file is not in this instance's spool directory", job.getId(), job.getStatus());
+                continue;
+            }
+            try {
+                String jobId = job.getId();
+                executor.execute(() -> run(jobId));
+                log.info("Resuming import job {} after record {}", job.getId(), job.getRowsRead());
+            } catch (RejectedExecutionException e) {
+                log.warn("Import job {} could not be resumed, queue is full", job.getId());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        executor.shutdownNow();
+    }
+
+    void run(String jobId) {
+        ImportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || (job.getStatus() != JobStatus.QUEUED && job.getStatus() != JobStatus.RUNNING)) return;
+        job.setStatus(JobStatus.RUNNING);
+        if (job.getStartedAt() == null) job.setStartedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        ImportReport resumeFrom = job.getRowsRead() > 0 ? toReport(job) : null;
+        ImportCheckpoint checkpoint = progress -> jobRepository.saveCheckpoint(jobId, progress.getTotalRows(),
+                progress.getImported(), progress.getFailed(), toJson(progress.getErrors()),
+                progress.isErrorsTruncated(), LocalDateTime.now());
+
+        try (Reader reader = Files.newBufferedReader(Paths.get(job.getSpoolPath()), StandardCharsets.UTF_8)) {
+            ImportReport report;
+            switch (job.getType()) {
+                case CONTACTS_CSV:
+                    report = contactImportService.importCsv(job.getUserId(), reader, resumeFrom, checkpoint, MAX_JOB_ERRORS);
+                    break;
+                case CALENDAR_ICS:
+                    report = calendarImportService.importIcs(job.getUserId(), reader, resumeFrom, checkpoint, MAX_JOB_ERRORS);
+                    break;
+                default:
+                    throw new RuntimeException("Unsupported import type " + job.getType());
+            }
+            finish(jobId, JobStatus.COMPLETED, report, null);
+        } catch (Exception e) {
+            if (stopping) {
+                // Left RUNNING on purpose; the next startup resumes it from the last checkpoint
+                log.info("Import job {} interrupted by shutdown", jobId);
+                return;
+            }
+            log.warn("Import job {} failed: {}", jobId, e.getMessage());
+            finish(jobId, JobStatus.FAILED, null, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private void finish(String jobId, JobStatus status, ImportReport report, String errorMessage) {
+        ImportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) return;
+        job.setStatus(status);
+        if (report != null) {
+            job.setRowsRead(report.getTotalRows());
+            job.setRowsInserted(report.getImported());
+            job.setRowsFailed(report.getFailed());
+            job.setErrors(toJson(report.getErrors()));
+            job.setErrorsTruncated(report.isErrorsTruncated());
+        }
+        if (errorMessage != null) {
+            job.setErrorMessage(errorMessage.length() > 1000 ? errorMessage.substring(0, 1000) : errorMessage);
+        }
+        job.setFinishedAt(LocalDateTime.now());
+        if (job.getSpoolPath() != null) {
+            try {
+                Files.deleteIfExists(Paths.get(job.getSpoolPath()));
+            } catch (IOException e) {
+                log.warn("Could not delete spooled upload {}: {}", job.getSpoolPath(), e.getMessage());
+            }
+            job.setSpoolPath(null);
+        }
+        jobRepository.save(job);
+    }
+
+    private ImportReport toReport(ImportJob job) {
+        ImportReport report = new ImportReport();
+        report.setTotalRows(job.getRowsRead());
+        report.setImported(job.getRowsInserted());
+        report.setFailed(job.getRowsFailed());
+        report.setErrorsTruncated(job.isErrorsTruncated());
+        report.setErrors(parseErrors(job.getErrors()));
+        return report;
+    }
+
+    private ImportJobDto toDto(ImportJob job) {
+        ImportJobDto dto = new ImportJobDto();
+        dto.setId(job.getId());
+        dto.setType(job.getType().name());
+        dto.setStatus(job.getStatus().name());
+        dto.setFileName(job.getFileName());
+        dto.setRowsRead(job.getRowsRead());
+        dto.setRowsInserted(job.getRowsInserted());
+        dto.setRowsFailed(job.getRowsFailed());
+        dto.setRowsPerSecond(throughput(job));
+        dto.setErrorsTruncated(job.isErrorsTruncated());
+        dto.setErrors(parseErrors(job.getErrors()));
+        dto.setErrorMessage(job.getErrorMessage());
+        dto.setCreatedAt(job.getCreatedAt() != null ? job.getCreatedAt().toString() : null);
+        dto.setStartedAt(job.getStartedAt() != null ? job.getStartedAt().toString() : null);
+        dto.setFinishedAt(job.getFinishedAt() != null ? job.getFinishedAt().toString() : null);
+        return dto;
+    }
+
+    // Records per second from the first start until the job finished (or until now)
+    private static double throughput(ImportJob job) {
+        if (job.getStartedAt() == null || job.getRowsRead() == 0) return 0;
+        LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis());
+        return Math.round(job.getRowsRead() * 10000.0 / millis) / 10.0;
+    }
+
+    private List<ImportReport.RowError> parseErrors(String json) {
+        try {
+            return json != null ? objectMapper.readValue(json, new TypeReference<List<ImportReport.RowError>>() {})
+                    : new ArrayList<>();
+        } catch (JsonProcessingException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private String toJson(List<ImportReport.RowError> errors) {
+        try {
+            return objectMapper.writeValueAsString(errors);
+        } catch (JsonProcessingException e) {
+            return "[]";
+        }
+    }
+}
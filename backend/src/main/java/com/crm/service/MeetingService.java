@@ -3,8 +3,10 @@ package com.crm.service;
 import com.crm.dto.MeetingDto;
 import com.crm.entity.Contact;
 import com.crm.entity.Meeting;
+import com.crm.event.MeetingChangedEvent;
 import com.crm.repository.ContactRepository;
 import com.crm.repository.MeetingRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,12 +20,14 @@ public class MeetingService {
     private final MeetingRepository meetingRepository;
     private final ContactRepository contactRepository;
     private final ReminderService reminderService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public MeetingService(MeetingRepository meetingRepository, ContactRepository contactRepository,
-                          @Lazy ReminderService reminderService) {
+                          @Lazy ReminderService reminderService, ApplicationEventPublisher eventPublisher) {
         this.meetingRepository = meetingRepository;
         this.contactRepository = contactRepository;
         this.reminderService = reminderService;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<MeetingDto> getAll(String userId) {
@@ -44,6 +48,7 @@ public class MeetingService {
         Meeting meeting = toEntity(dto);
         meeting.setUserId(userId);
         meeting = meetingRepository.save(meeting);
+        eventPublisher.publishEvent(MeetingChangedEvent.created(meeting));
 
         Contact contact = contactRepository.findById(dto.getContactId()).orElse(null);
         if (contact != null) {
@@ -58,17 +63,23 @@ public class MeetingService {
         return toDto(meeting);
     }
 
+    @Transactional
     public MeetingDto update(String id, MeetingDto dto, String userId) {
         Meeting meeting = meetingRepository.findById(id).orElseThrow(() -> new RuntimeException("Meeting not found"));
         if (!meeting.getUserId().equals(userId)) throw new RuntimeException("Access denied");
+        LocalDateTime previousMeetingDate = meeting.getMeetingDate();
         updateEntity(meeting, dto);
-        return toDto(meetingRepository.save(meeting));
+        meeting = meetingRepository.save(meeting);
+        eventPublisher.publishEvent(MeetingChangedEvent.updated(meeting, previousMeetingDate));
+        return toDto(meeting);
     }
 
+    @Transactional
     public void delete(String id, String userId) {
         Meeting meeting = meetingRepository.findById(id).orElseThrow(() -> new RuntimeException("Meeting not found"));
         if (!meeting.getUserId().equals(userId)) throw new RuntimeException("Access denied");
         meetingRepository.delete(meeting);
+        eventPublisher.publishEvent(MeetingChangedEvent.deleted(meeting));
     }
 
     private MeetingDto toDto(Meeting m) {
@@ -0,0 +1,49 @@
+package com.crm.service;
+
+import com.crm.entity.CalendarEvent;
+import com.crm.entity.Reminder;
+import org.springframework.stereotype.Component;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes due reminders to the user's open event streams. A stream lives on one instance, so
+ * this channel only reaches users connected to the instance that delivers; ReminderDispatcher
+ * gives that instance the first chance to deliver. Push stays best-effort: a user who connects
+ * after the reminder went out, or whose stream drops meanwhile, does not get it.
+ */
+@Component
+public class PushReminderChannel implements ReminderChannel {
+    private final EventStreamService eventStream;
+
+    public PushReminderChannel(EventStreamService eventStream) {
+        this.eventStream = eventStream;
+    }
+
+    @Override
+    public void deliverReminders(List<Reminder> reminders) {
+        for (Reminder reminder : reminders) {
+            eventStream.publish(reminder.getUserId(), EventStreamService.REMINDER_DUE, reminder);
+        }
+    }
+
+    @Override
+    public boolean reaches(String userId) {
+        return eventStream.isConnected(userId);
+    }
+
+    @Override
+    public void deliverEventReminders(List<CalendarEvent> events) {
+        for (CalendarEvent event : events) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("id", event.getId());
+            data.put("title", event.getTitle());
+            data.put("contactId", event.getContactId());
+            data.put("startTime", event.getStartTime().toString());
+            data.put("location", event.getLocation());
+            data.put("meetLink", event.getMeetLink());
+            eventStream.publish(event.getUserId(), EventStreamService.EVENT_REMINDER, data);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.crm.service;
+
+import com.crm.entity.CalendarEvent;
+import com.crm.entity.Reminder;
+import java.util.List;
+
+/**
+ * A way of telling users that reminders came due. {@link ReminderDispatcher} calls every channel
+ * bean with each batch after it has been marked sent, so a channel that fails does not cause a
+ * redelivery through the others.
+ */
+public interface ReminderChannel {
+    void deliverReminders(List<Reminder> reminders);
+
+    void deliverEventReminders(List<CalendarEvent> events);
+
+    /**
+     * Whether this instance can reach the user right now. A channel that delivers through
+     * connections held by a single instance answers false for users connected elsewhere.
+     */
+    default boolean reaches(String userId) {
+        return true;
+    }
+}
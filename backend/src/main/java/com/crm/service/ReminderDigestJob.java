@@ -0,0 +1,389 @@
+package com.crm.service;
+
+import com.crm.entity.JobShard;
+import com.crm.entity.MessageTemplate;
+import com.crm.entity.MessageTemplate.TemplateType;
+import com.crm.entity.OutboundEmail;
+import com.crm.entity.Reminder;
+import com.crm.entity.Reminder.ReminderType;
+import com.crm.entity.User;
+import com.crm.repository.ContactRepository;
+import com.crm.repository.MessageTemplateRepository;
+import com.crm.repository.ReminderRepository;
+import com.crm.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Daily and weekly digest emails listing each user's due birthday, anniversary, follow-up and
+ * no-contact reminders.
+ *
+ * Users get the digest at app.mail.digest.hour in their own timezone, every day or only on
+ * app.mail.digest.weekly-day, as their "digest" setting says; users who have not asked for a
+ * digest get none (see {@link ReminderService#getDigestFrequency}). The hourly cron prepares the users whose digest
+ * time falls in the current UTC hour, split into job shards as in {@link DailyReminderJob}, so
+ * any instance can claim them. A shard pages its users in chunks of app.mail.digest.chunk-size;
+ * per chunk, one query per digest window loads the active reminders of all its users, contact
+ * names come in batches of app.mail.digest.contact-batch-size, and the users' message templates
+ * in one query. The digests are rendered from compiled templates (see {@link TemplateCompiler})
+ * and queued through {@link EmailService#enqueueBulk} in the chunk's transaction, keyed by user
+ * and day so a re-run shard queues nothing twice. The outbox sender then delivers them at bulk
+ * priority under its rate limit.
+ */
+@Component
+public class ReminderDigestJob {
+    private static final Logger log = LoggerFactory.getLogger(ReminderDigestJob.class);
+    private static final String JOB = "reminder-digest";
+    private static final String CATEGORY = "digest";
+    private static final Duration SLOT = Duration.ofHours(1);
+    private static final List<ReminderType> DIGEST_TYPES =
+            List.of(ReminderType.BIRTHDAY, ReminderType.ANNIVERSARY, ReminderType.FOLLOWUP, ReminderType.NO_CONTACT);
+    private static final List<TemplateType> SUGGESTION_TYPES =
+            List.of(TemplateType.BIRTHDAY, TemplateType.ANNIVERSARY, TemplateType.FOLLOWUP);
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("EEE d MMM", Locale.ENGLISH);
+
+    private static final CompiledTemplate DAILY_SUBJECT = CompiledTemplate.compile("Your Nu-Connect reminders for {day}");
+    private static final CompiledTemplate WEEKLY_SUBJECT = CompiledTemplate.compile("Your Nu-Connect week: {count} reminders");
+    private static final CompiledTemplate BODY = CompiledTemplate.compile(
+            "Hi {name},\n\n" +
+            "{intro}\n\n" +
+            "{items}\n" +
+            "See them all in Nu-Connect: {link}\n\n" +
+            "You are getting this email because reminder digests are turned on for your account.\n\n" +
+            "Best regards,\n" +
+            "The Nu-Connect Team");
+    private static final CompiledTemplate SUGGESTION = CompiledTemplate.compile("    Suggested message: \"{message}\"\n");
+    private static final Map<ReminderType, CompiledTemplate> ITEMS = new EnumMap<>(Map.of(
+            ReminderType.BIRTHDAY, CompiledTemplate.compile("- {day}: {contact}'s birthday is coming up\n"),
+            ReminderType.ANNIVERSARY, CompiledTemplate.compile("- {day}: {contact}'s anniversary is coming up\n"),
+            ReminderType.FOLLOWUP, CompiledTemplate.compile("- {day}: follow up with {contact}\n"),
+            ReminderType.NO_CONTACT, CompiledTemplate.compile("- {day}: you haven't been in touch with {contact} for a while\n")));
+
+    private final UserRepository userRepository;
+    private final ReminderRepository reminderRepository;
+    private final ContactRepository contactRepository;
+    private final MessageTemplateRepository templateRepository;
+    private final ReminderService reminderService;
+    private final EmailService emailService;
+    private final TemplateCompiler templateCompiler;
+    private final SchedulerLeaseService leases;
+    private final TransactionTemplate transactionTemplate;
+    private final String frontendUrl;
+    private final int hour;
+    private final DayOfWeek weeklyDay;
+    private final int chunkSize;
+    private final int contactBatchSize;
+    private final int shardCount;
+    private final Duration shardLease;
+    private final int maxAttempts;
+    private final AtomicBoolean working = new AtomicBoolean();
+    private final Timer chunkTimer;
+    private final Counter dailyQueued;
+    private final Counter weeklyQueued;
+
+    public ReminderDigestJob(UserRepository userRepository, ReminderRepository reminderRepository,
+                             ContactRepository contactRepository, MessageTemplateRepository templateRepository,
+                             ReminderService reminderService, EmailService emailService,
+                             TemplateCompiler templateCompiler, SchedulerLeaseService leases,
+                             PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                             @Value("${app.frontend-url:http://localhost:5173}") String frontendUrl,
+                             @Value("${app.mail.digest.hour:7}") int hour,
+                             @Value("${app.mail.digest.weekly-day:MONDAY}") DayOfWeek weeklyDay,
+                             @Value("${app.mail.digest.chunk-size:500}") int chunkSize,
+                             @Value("${app.mail.digest.contact-batch-size:500}") int contactBatchSize,
+                             @Value("${app.mail.digest.shards:4}") int shardCount,
+                             @Value("${app.reminders.daily.shard-lease-ms:600000}") long shardLeaseMs,
+                             @Value("${app.reminders.daily.max-attempts:3}") int maxAttempts) {
+        this.userRepository = userRepository;
+        this.reminderRepository = reminderRepository;
+        this.contactRepository = contactRepository;
+        this.templateRepository = templateRepository;
+        this.reminderService = reminderService;
+        this.emailService = emailService;
+        this.templateCompiler = templateCompiler;
+        this.leases = leases;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.frontendUrl = frontendUrl;
+        this.hour = hour;
+        this.weeklyDay = weeklyDay;
+        this.chunkSize = chunkSize;
+        this.contactBatchSize = contactBatchSize;
+        this.shardCount = Math.max(1, Math.min(shardCount, 0x10000 / 24));
+        this.shardLease = Duration.ofMillis(shardLeaseMs);
+        this.maxAttempts = maxAttempts;
+        this.chunkTimer = Timer.builder("crm.mail.digest.chunk").register(meterRegistry);
+        this.dailyQueued = Counter.builder("crm.mail.digest.queued").tag("frequency", "daily").register(meterRegistry);
+        this.weeklyQueued = Counter.builder("crm.mail.digest.queued").tag("frequency", "weekly").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.mail.digest.cron:0 5 * * * *}")
+    public void prepareDigests() {
+        Instant slot = Instant.now().truncatedTo(ChronoUnit.HOURS);
+        if (leases.tryAcquire(JOB, SLOT.dividedBy(2)) && !timezonesWithDigestIn(slot).isEmpty()) {
+            LocalDateTime utc = LocalDateTime.ofInstant(slot, ZoneOffset.UTC);
+            leases.createShards(JOB, utc.toLocalDate(), utc.getHour() * shardCount, shardCount, 24 * shardCount);
+            leases.deleteShardsBefore(JOB, utc.toLocalDate().minusDays(7));
+        }
+        processShards();
+    }
+
+    @Scheduled(initialDelayString = "${app.reminders.daily.claim-interval-ms:60000}",
+               fixedDelayString = "${app.reminders.daily.claim-interval-ms:60000}")
+    public void processShards() {
+        if (!working.compareAndSet(false, true)) return;
+        try {
+            Optional<JobShard> shard;
+            LocalDate since = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+            while ((shard = leases.claimNext(JOB, since, shardLease, maxAttempts)).isPresent()) {
+                JobShard claimed = shard.get();
+                try {
+                    processShard(claimed);
+                    leases.complete(claimed);
+                } catch (RuntimeException e) {
+                    log.warn("Digest shard {} of {} failed: {}", claimed.getShard(), claimed.getRunDate(), e.getMessage());
+                }
+            }
+        } finally {
+            working.set(false);
+        }
+    }
+
+    private void processShard(JobShard shard) {
+        int perSlot = shard.getShardCount() / 24;
+        int slotHour = shard.getShard() / perSlot;
+        int index = shard.getShard() % perSlot;
+        Instant slot = shard.getRunDate().atTime(slotHour, 0).toInstant(ZoneOffset.UTC);
+        List<String> timezones = timezonesWithDigestIn(slot);
+        if (timezones.isEmpty()) return;
+        String from = index == 0 ? "" : DailyReminderJob.rangeStart(index, perSlot);
+        String to = index == perSlot - 1 ? DailyReminderJob.AFTER_LAST_ID : DailyReminderJob.rangeStart(index + 1, perSlot);
+        long renewEvery = shardLease.toMillis() / 3;
+        long renewAt = System.currentTimeMillis() + renewEvery;
+
+        int queued = 0;
+        String after = "";
+        List<String> ids;
+        while (!(ids = userRepository.findIdsInRange(after, from, to, timezones, PageRequest.of(0, chunkSize))).isEmpty()) {
+            List<String> chunk = ids;
+            Integer chunkQueued = chunkTimer.record(() -> processChunk(chunk, slot));
+            queued += chunkQueued != null ? chunkQueued : 0;
+            after = ids.get(ids.size() - 1);
+            if (System.currentTimeMillis() >= renewAt) {
+                if (!leases.extend(shard, shardLease)) {
+                    throw new RuntimeException("Lease on shard " + shard.getShard() + " was lost");
+                }
+                renewAt = System.currentTimeMillis() + renewEvery;
+            }
+        }
+        log.info("Queued {} reminder digests in shard {} of the {} slot", queued, index, slot);
+    }
+
+    // Stored timezone values ('' for unset) of the users whose digest time falls within the slot
+    private List<String> timezonesWithDigestIn(Instant slot) {
+        List<String> timezones = new ArrayList<>();
+        for (String timezone : userRepository.findDistinctTimezones()) {
+            if (digestDay(slot, ReminderService.zoneOf(timezone)) != null) timezones.add(timezone);
+        }
+        return timezones;
+    }
+
+    // The local date whose digest time falls within the hour from slot, or null if none does
+    private LocalDate digestDay(Instant slot, ZoneId zone) {
+        return DailyReminderJob.dayStartingIn(slot.minus(Duration.ofHours(hour)), zone);
+    }
+
+    private Integer processChunk(List<String> userIds, Instant slot) {
+        // Daily and weekly digests actually queued, counted once the chunk has committed
+        int[] queued = transactionTemplate.execute(status -> {
+            List<Digest> digests = new ArrayList<>();
+            Map<Window, List<String>> byWindow = new HashMap<>();
+            for (User user : userRepository.findAllById(userIds)) {
+                // Password accounts only get mail once the address is confirmed
+                if (!user.isEmailVerified() && user.getGoogleId() == null) continue;
+                ZoneId zone = ReminderService.zoneOf(user.getTimezone());
+                LocalDate day = digestDay(slot, zone);
+                if (day == null) continue;
+                String frequency = reminderService.getDigestFrequency(user);
+                boolean weekly;
+                if (frequency.equals("daily")) {
+                    weekly = false;
+                } else if (frequency.equals("weekly") && day.getDayOfWeek() == weeklyDay) {
+                    weekly = true;
+                } else {
+                    continue;
+                }
+                // The reminders due through the end of the day, going back a day or a week
+                Window window = new Window(
+                        toServerTime(day.minusDays(weekly ? 6 : 0), zone), toServerTime(day.plusDays(1), zone));
+                digests.add(new Digest(user, day, weekly));
+                byWindow.computeIfAbsent(window, key -> new ArrayList<>()).add(user.getId());
+            }
+            if (digests.isEmpty()) return new int[2];
+
+            Map<String, List<Object[]>> entries = new HashMap<>();
+            byWindow.forEach((window, ids) -> {
+                for (Object[] row : reminderRepository.findDigestEntries(ids, Reminder.ACTIVE, DIGEST_TYPES, window.from, window.to)) {
+                    entries.computeIfAbsent((String) row[0], key -> new ArrayList<>()).add(row);
+                }
+            });
+            if (entries.isEmpty()) return new int[2];
+
+            Map<String, String> contactNames = contactNames(entries);
+            Map<String, Map<TemplateType, CompiledTemplate>> suggestions = suggestions(entries.keySet());
+
+            List<OutboundEmail> daily = new ArrayList<>();
+            List<OutboundEmail> weekly = new ArrayList<>();
+            for (Digest digest : digests) {
+                List<Object[]> userEntries = entries.get(digest.user.getId());
+                if (userEntries == null) continue;
+                OutboundEmail email = render(digest, userEntries, contactNames,
+                        suggestions.getOrDefault(digest.user.getId(), Map.of()));
+                email.setDedupeKey(CATEGORY + ":" + digest.user.getId() + ":" + digest.day);
+                (digest.weekly ? weekly : daily).add(email);
+            }
+            return new int[] { emailService.enqueueBulk(daily), emailService.enqueueBulk(weekly) };
+        });
+        if (queued == null) return 0;
+        dailyQueued.increment(queued[0]);
+        weeklyQueued.increment(queued[1]);
+        return queued[0] + queued[1];
+    }
+
+    private Map<String, String> contactNames(Map<String, List<Object[]>> entries) {
+        List<String> contactIds = new ArrayList<>();
+        entries.values().forEach(rows -> rows.forEach(row -> contactIds.add((String) row[1])));
+        Map<String, String> names = new HashMap<>();
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(contactIds));
+        for (int i = 0; i < distinct.size(); i += contactBatchSize) {
+            for (Object[] row : contactRepository.findNamesByIdIn(distinct.subList(i, Math.min(i + contactBatchSize, distinct.size())))) {
+                names.put((String) row[0], (String) row[1]);
+            }
+        }
+        return names;
+    }
+
+    // Each user's first template per type, compiled through the shared cache
+    private Map<String, Map<TemplateType, CompiledTemplate>> suggestions(Collection<String> userIds) {
+        Map<String, Map<TemplateType, CompiledTemplate>> byUser = new HashMap<>();
+        for (MessageTemplate template : templateRepository.findByUserIdInAndTypeIn(userIds, SUGGESTION_TYPES)) {
+            byUser.computeIfAbsent(template.getUserId(), key -> new EnumMap<>(TemplateType.class))
+                    .computeIfAbsent(template.getType(), key -> templateCompiler.compile(template));
+        }
+        return byUser;
+    }
+
+    private OutboundEmail render(Digest digest, List<Object[]> entries, Map<String, String> contactNames,
+                                 Map<TemplateType, CompiledTemplate> suggestions) {
+        StringBuilder items = new StringBuilder(64 * entries.size());
+        for (Object[] row : entries) {
+            ReminderType type = (ReminderType) row[2];
+            String contact = contactNames.getOrDefault((String) row[1], "a contact");
+            String day = DAY_FORMAT.format((LocalDateTime) row[3]);
+            ITEMS.get(type).renderTo(items, field -> field.equals("day") ? day : field.equals("contact") ? contact : null);
+            CompiledTemplate suggestion = suggestions.get(suggestionType(type));
+            if (suggestion != null) {
+                String message = suggestion.render(field -> {
+                    switch (field) {
+                        case "name": return contact;
+                        case "firstName": return TemplateCompiler.firstName(contact);
+                        case "lastName": return TemplateCompiler.lastName(contact);
+                        default: return null;
+                    }
+                });
+                SUGGESTION.renderTo(items, field -> field.equals("message") ? message : null);
+            }
+        }
+
+        String name = digest.user.getName() != null ? digest.user.getName() : "there";
+        String intro = digest.weekly ? "Here is what needs your attention this week:" : "Here is what needs your attention today:";
+        String count = String.valueOf(entries.size());
+        String day = DAY_FORMAT.format(digest.day);
+        String itemText = items.toString();
+        String subject = (digest.weekly ? WEEKLY_SUBJECT : DAILY_SUBJECT)
+                .render(field -> field.equals("day") ? day : field.equals("count") ? count : null);
+        String body = BODY.render(field -> {
+            switch (field) {
+                case "name": return name;
+                case "intro": return intro;
+                case "items": return itemText;
+                case "link": return frontendUrl + "/reminders";
+                default: return null;
+            }
+        });
+        return new OutboundEmail(digest.user.getEmail(), subject, body, CATEGORY);
+    }
+
+    private static TemplateType suggestionType(ReminderType type) {
+        switch (type) {
+            case BIRTHDAY: return TemplateType.BIRTHDAY;
+            case ANNIVERSARY: return TemplateType.ANNIVERSARY;
+            default: return TemplateType.FOLLOWUP;
+        }
+    }
+
+    private static LocalDateTime toServerTime(LocalDate day, ZoneId zone) {
+        return day.atStartOfDay(zone).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    private static final class Digest {
+        private final User user;
+        private final LocalDate day;
+        private final boolean weekly;
+
+        Digest(User user, LocalDate day, boolean weekly) {
+            this.user = user;
+            this.day = day;
+            this.weekly = weekly;
+        }
+    }
+
+    private static final class Window {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        Window(LocalDateTime from, LocalDateTime to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Window)) return false;
+            Window other = (Window) o;
+            return from.equals(other.from) && to.equals(other.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return from.hashCode() * 31 + to.hashCode();
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.crm.service;
+
+import com.crm.entity.CalendarEvent;
+import com.crm.entity.CalendarEvent.EventStatus;
+import com.crm.entity.Reminder;
+import com.crm.entity.Reminder.ReminderStatus;
+import com.crm.event.ReminderCreatedEvent;
+import com.crm.repository.CalendarEventRepository;
+import com.crm.repository.ReminderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers reminders and calendar-event reminders when they come due.
+ *
+ * Every app.reminders.dispatch.load-interval-ms, two range queries over the whole user base load
+ * what falls due within the next app.reminders.dispatch.window-ms: pending reminders by
+ * scheduledAt, and scheduled events whose reminder is unsent by startTime less reminderMinutes.
+ * Those go into an in-memory {@link TimingWheel} that a clock thread advances every tick-ms.
+ * Reminders created meanwhile join the wheel right after commit, so share notifications go out
+ * at once. Due entries are delivered in batches of app.reminders.dispatch.batch-size: each batch
+ * is locked and marked sent (status SENT and sentAt, or reminderSent) in one transaction, so only
+ * one instance delivers it, and is then handed to every {@link ReminderChannel}.
+ *
+ * Every instance loads the same due entries, and some channels only reach users connected to
+ * the instance that delivers. An instance that a channel says cannot reach the user leaves the
+ * entry pending for app.reminders.dispatch.remote-grace-ms past its due time, so an instance
+ * holding the user's stream delivers it first; after that any instance delivers it. The grace
+ * exceeds the load interval, so a reminder scheduled on one instance right after it was created
+ * is loaded by the others in time.
+ *
+ * Nothing but the database records what was delivered, so after a restart the first load picks
+ * up the reminders that came due while the instance was down, going back
+ * app.reminders.dispatch.catch-up-ms, and the reminders of events that have not started yet.
+ */
+@Component
+public class ReminderDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(ReminderDispatcher.class);
+    private static final int DEFAULT_EVENT_REMINDER_MINUTES = 15;
+    private static final int WHEEL_SIZE = 64;
+
+    private final ReminderRepository reminderRepository;
+    private final CalendarEventRepository eventRepository;
+    private final List<ReminderChannel> channels;
+    private final TransactionTemplate transactionTemplate;
+    private final long tickMs;
+    private final Duration window;
+    private final Duration catchUp;
+    private final int maxEventLeadMinutes;
+    private final Duration remoteGrace;
+    private final int batchSize;
+    private final int loadLimit;
+    private final TimingWheel<Due> wheel;
+    private final Set<Due> scheduled = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService clock;
+    private final ExecutorService delivery;
+    private final Timer loadTimer;
+    private final Counter remindersDelivered;
+    private final Counter eventsDelivered;
+
+    public ReminderDispatcher(ReminderRepository reminderRepository, CalendarEventRepository eventRepository,
+                              List<ReminderChannel> channels, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.reminders.dispatch.tick-ms:1000}") long tickMs,
+                              @Value("${app.reminders.dispatch.window-ms:300000}") long windowMs,
+                              @Value("${app.reminders.dispatch.catch-up-ms:21600000}") long catchUpMs,
+                              @Value("${app.reminders.dispatch.max-event-lead-minutes:1440}") int maxEventLeadMinutes,
+                              @Value("${app.reminders.dispatch.batch-size:100}") int batchSize,
+                              @Value("${app.reminders.dispatch.load-limit:10000}") int loadLimit,
+                              @Value("${app.reminders.dispatch.delivery-threads:2}") int deliveryThreads,
+                              @Value("${app.reminders.dispatch.remote-grace-ms:90000}") long remoteGraceMs) {
+        this.reminderRepository = reminderRepository;
+        this.eventRepository = eventRepository;
+        this.channels = channels;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tickMs = tickMs;
+        this.window = Duration.ofMillis(windowMs);
+        this.catchUp = Duration.ofMillis(catchUpMs);
+        this.maxEventLeadMinutes = maxEventLeadMinutes;
+        this.remoteGrace = Duration.ofMillis(remoteGraceMs);
+        this.batchSize = batchSize;
+        this.loadLimit = loadLimit;
+        this.wheel = new TimingWheel<>(tickMs, WHEEL_SIZE, System.currentTimeMillis());
+        this.clock = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "reminder-clock");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger threads = new AtomicInteger();
+        this.delivery = Executors.newFixedThreadPool(deliveryThreads, r -> {
+            Thread t = new Thread(r, "reminder-delivery-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.loadTimer = Timer.builder("crm.reminders.dispatch.load").register(meterRegistry);
+        this.remindersDelivered = Counter.builder("crm.reminders.dispatch.delivered").tag("kind", "reminder").register(meterRegistry);
+        this.eventsDelivered = Counter.builder("crm.reminders.dispatch.delivered").tag("kind", "event").register(meterRegistry);
+        meterRegistry.gauge("crm.reminders.dispatch.scheduled", scheduled, Set::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        clock.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clock.shutdownNow();
+        delivery.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${app.reminders.dispatch.load-interval-ms:60000}")
+    public void load() {
+        loadTimer.record(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime to = now.plus(window);
+
+            List<Object[]> reminders = reminderRepository.findDue(ReminderStatus.PENDING, now.minus(catchUp), to,
+                    PageRequest.of(0, loadLimit));
+            for (Object[] row : reminders) {
+                schedule(new Due(Kind.REMINDER, (String) row[0]), (LocalDateTime) row[1]);
+            }
+
+            // An event that has already started is past reminding
+            List<Object[]> events = eventRepository.findUnremindedStarting(EventStatus.SCHEDULED, now,
+                    to.plusMinutes(maxEventLeadMinutes), PageRequest.of(0, loadLimit));
+            for (Object[] row : events) {
+                LocalDateTime remindAt = remindAt((LocalDateTime) row[1], (Integer) row[2]);
+                if (remindAt.isBefore(to)) schedule(new Due(Kind.EVENT, (String) row[0]), remindAt);
+            }
+
+            if (reminders.size() == loadLimit || events.size() == loadLimit) {
+                log.warn("Reminder dispatch window holds more than {} entries; the rest follow on later loads", loadLimit);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReminderCreated(ReminderCreatedEvent event) {
+        LocalDateTime windowEnd = LocalDateTime.now().plus(window);
+        for (Reminder reminder : event.getReminders()) {
+            if (reminder.getScheduledAt().isBefore(windowEnd)) {
+                schedule(new Due(Kind.REMINDER, reminder.getId()), reminder.getScheduledAt());
+            }
+        }
+    }
+
+    private LocalDateTime remindAt(LocalDateTime startTime, Integer reminderMinutes) {
+        int minutes = reminderMinutes != null ? reminderMinutes : DEFAULT_EVENT_REMINDER_MINUTES;
+        return startTime.minusMinutes(Math.min(minutes, maxEventLeadMinutes));
+    }
+
+    // Whether to leave a due entry to an instance that can reach its user
+    private boolean deferToOtherInstance(String userId, LocalDateTime dueAt, LocalDateTime now) {
+        if (!now.isBefore(dueAt.plus(remoteGrace))) return false;
+        for (ReminderChannel channel : channels) {
+            if (!channel.reaches(userId)) return true;
+        }
+        return false;
+    }
+
+    private void schedule(Due due, LocalDateTime at) {
+        if (!scheduled.add(due)) return;
+        long dueMs = at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        boolean later;
+        synchronized (wheel) {
+            later = wheel.add(due, dueMs);
+        }
+        if (!later) dispatch(List.of(due));
+    }
+
+    private void tick() {
+        List<Due> due = new ArrayList<>();
+        try {
+            synchronized (wheel) {
+                wheel.advance(System.currentTimeMillis(), due::add);
+            }
+            if (!due.isEmpty()) dispatch(due);
+        } catch (RuntimeException e) {
+            // An exception would cancel the clock
+            log.warn("Reminder clock tick failed: {}", e.getMessage());
+        }
+    }
+
+    private void dispatch(List<Due> due) {
+        List<String> reminderIds = new ArrayList<>();
+        List<String> eventIds = new ArrayList<>();
+        for (Due entry : due) {
+            (entry.kind == Kind.REMINDER ? reminderIds : eventIds).add(entry.id);
+        }
+        for (int i = 0; i < reminderIds.size(); i += batchSize) {
+            List<String> batch = reminderIds.subList(i, Math.min(i + batchSize, reminderIds.size()));
+            delivery.execute(() -> deliverReminders(batch));
+        }
+        for (int i = 0; i < eventIds.size(); i += batchSize) {
+            List<String> batch = eventIds.subList(i, Math.min(i + batchSize, eventIds.size()));
+            delivery.execute(() -> deliverEventReminders(batch));
+        }
+    }
+
+    private void deliverReminders(List<String> ids) {
+        List<Reminder> deferred = new ArrayList<>();
+        try {
+            List<Reminder> sent = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<Reminder> reminders = new ArrayList<>();
+                for (Reminder reminder : reminderRepository.lockByIdInAndStatus(ids, ReminderStatus.PENDING)) {
+                    if (deferToOtherInstance(reminder.getUserId(), reminder.getScheduledAt(), now)) {
+                        deferred.add(reminder);
+                        continue;
+                    }
+                    reminder.setStatus(ReminderStatus.SENT);
+                    reminder.setSentAt(now);
+                    reminders.add(reminder);
+                }
+                return reminders;
+            });
+            if (sent == null || sent.isEmpty()) return;
+            for (ReminderChannel channel : channels) {
+                try {
+                    channel.deliverReminders(sent);
+                } catch (RuntimeException e) {
+                    log.warn("{} failed to deliver {} reminders: {}", channel.getClass().getSimpleName(), sent.size(), e.getMessage());
+                }
+            }
+            remindersDelivered.increment(sent.size());
+        } catch (RuntimeException e) {
+            // Still PENDING, so the next load schedules them again
+            log.warn("Failed to mark {} reminders sent: {}", ids.size(), e.getMessage());
+        } finally {
+            ids.forEach(id -> scheduled.remove(new Due(Kind.REMINDER, id)));
+        }
+        for (Reminder reminder : deferred) {
+            schedule(new Due(Kind.REMINDER, reminder.getId()), reminder.getScheduledAt().plus(remoteGrace));
+        }
+    }
+
+    private void deliverEventReminders(List<String> ids) {
+        List<CalendarEvent> deferred = new ArrayList<>();
+        try {
+            List<CalendarEvent> sent = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<CalendarEvent> events = new ArrayList<>();
+                for (CalendarEvent event : eventRepository.lockUnreminded(ids)) {
+                    if (deferToOtherInstance(event.getUserId(), remindAt(event.getStartTime(), event.getReminderMinutes()), now)) {
+                        deferred.add(event);
+                        continue;
+                    }
+                    event.setReminderSent(true);
+                    events.add(event);
+                }
+                return events;
+            });
+            if (sent == null || sent.isEmpty()) return;
+            for (ReminderChannel channel : channels) {
+                try {
+                    channel.deliverEventReminders(sent);
+                } catch (RuntimeException e) {
+                    log.warn("{} failed to deliver {} event reminders: {}", channel.getClass().getSimpleName(), sent.size(), e.getMessage());
+                }
+            }
+            eventsDelivered.increment(sent.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to mark {} event reminders sent: {}", ids.size(), e.getMessage());
+        } finally {
+            ids.forEach(id -> scheduled.remove(new Due(Kind.EVENT, id)));
+        }
+        for (CalendarEvent event : deferred) {
+            schedule(new Due(Kind.EVENT, event.getId()),
+                    remindAt(event.getStartTime(), event.getReminderMinutes()).plus(remoteGrace));
+        }
+    }
+
+    private enum Kind { REMINDER, EVENT }
+
+    private static final class Due {
+        private final Kind kind;
+        private final String id;
+
+        Due(Kind kind, String id) {
+            this.kind = kind;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Due)) return false;
+            Due other = (Due) o;
+            return kind == other.kind && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, id);
+        }
+    }
+}
@@ -4,43 +4,43 @@ import com.crm.entity.Contact;
 import com.crm.entity.Meeting;
 import com.crm.entity.Reminder;
 import com.crm.entity.User;
-import com.crm.repository.ContactRepository;
+import com.crm.event.ReminderCreatedEvent;
 import com.crm.repository.MeetingRepository;
 import com.crm.repository.ReminderRepository;
-import com.crm.repository.UserRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.MonthDay;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class ReminderService {
+    static final LocalTime REMINDER_TIME = LocalTime.of(9, 0);
+
     private final ReminderRepository reminderRepository;
-    private final ContactRepository contactRepository;
     private final MeetingRepository meetingRepository;
-    private final UserRepository userRepository;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ReminderService(ReminderRepository reminderRepository, ContactRepository contactRepository,
-                           MeetingRepository meetingRepository, UserRepository userRepository,
-                           ObjectMapper objectMapper) {
+    public ReminderService(ReminderRepository reminderRepository, MeetingRepository meetingRepository,
+                           ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
         this.reminderRepository = reminderRepository;
-        this.contactRepository = contactRepository;
         this.meetingRepository = meetingRepository;
-        this.userRepository = userRepository;
         this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Reminder> getPendingReminders(String userId) {
-        return reminderRepository.findByUserIdAndStatus(userId, Reminder.ReminderStatus.PENDING);
+        return reminderRepository.findByUserIdAndStatusIn(userId, Reminder.ACTIVE);
     }
 
     @Transactional
@@ -60,30 +60,40 @@ public class ReminderService {
     public void createBirthdayReminder(Contact contact, User user) {
         if (contact.getBirthday() == null) return;
 
-        int daysBefore = getBirthdayReminderDays(user);
-        LocalDate reminderDate = getNextOccurrence(contact.getBirthday()).minusDays(daysBefore);
-
-        if (reminderDate.isBefore(LocalDate.now())) {
-            reminderDate = getNextOccurrence(contact.getBirthday());
-        }
-
         createReminder(user.getId(), contact.getId(), Reminder.ReminderType.BIRTHDAY,
-                LocalDateTime.of(reminderDate, LocalTime.of(9, 0)));
+                nextReminderAt(contact.getBirthday(), getBirthdayReminderDays(user), zoneOf(user.getTimezone())));
     }
 
     @Transactional
     public void createAnniversaryReminder(Contact contact, User user) {
         if (contact.getAnniversary() == null) return;
 
-        int daysBefore = getAnniversaryReminderDays(user);
-        LocalDate reminderDate = getNextOccurrence(contact.getAnniversary()).minusDays(daysBefore);
+        createReminder(user.getId(), contact.getId(), Reminder.ReminderType.ANNIVERSARY,
+                nextReminderAt(contact.getAnniversary(), getAnniversaryReminderDays(user), zoneOf(user.getTimezone())));
+    }
 
-        if (reminderDate.isBefore(LocalDate.now())) {
-            reminderDate = getNextOccurrence(contact.getAnniversary());
+    /**
+     * Birthday and anniversary reminders for a batch of new contacts. The user's settings are
+     * read once and the reminders are saved together, so they go out as one JDBC batch.
+     */
+    @Transactional
+    public void createDateReminders(List<Contact> contacts, User user) {
+        int birthdayDays = getBirthdayReminderDays(user);
+        int anniversaryDays = getAnniversaryReminderDays(user);
+        ZoneId zone = zoneOf(user.getTimezone());
+        List<Reminder> reminders = new ArrayList<>();
+        for (Contact contact : contacts) {
+            if (contact.getBirthday() != null) {
+                reminders.add(newReminder(user.getId(), contact.getId(), Reminder.ReminderType.BIRTHDAY,
+                        nextReminderAt(contact.getBirthday(), birthdayDays, zone)));
+            }
+            if (contact.getAnniversary() != null) {
+                reminders.add(newReminder(user.getId(), contact.getId(), Reminder.ReminderType.ANNIVERSARY,
+                        nextReminderAt(contact.getAnniversary(), anniversaryDays, zone)));
+            }
         }
-
-        createReminder(user.getId(), contact.getId(), Reminder.ReminderType.ANNIVERSARY,
-                LocalDateTime.of(reminderDate, LocalTime.of(9, 0)));
+        if (reminders.isEmpty()) return;
+        eventPublisher.publishEvent(ReminderCreatedEvent.of(user.getId(), reminderRepository.saveAll(reminders)));
     }
 
     @Transactional
@@ -91,7 +101,7 @@ public class ReminderService {
         if (meeting.getFollowupDate() == null) return;
 
         createReminder(meeting.getUserId(), meeting.getContactId(), Reminder.ReminderType.FOLLOWUP,
-                LocalDateTime.of(meeting.getFollowupDate(), LocalTime.of(9, 0)));
+                LocalDateTime.of(meeting.getFollowupDate(), REMINDER_TIME));
     }
 
     @Transactional
@@ -105,100 +115,85 @@ public class ReminderService {
                 LocalDateTime.now());
     }
 
-    @Scheduled(cron = "0 0 0 * * *")
-    @Transactional
-    public void generateDailyReminders() {
-        List<User> users = userRepository.findAll();
-
-        for (User user : users) {
-            generateBirthdayReminders(user);
-            generateAnniversaryReminders(user);
-            generateNoContactReminders(user);
-        }
-    }
-
-    private void generateBirthdayReminders(User user) {
-        int daysBefore = getBirthdayReminderDays(user);
-        LocalDate targetDate = LocalDate.now().plusDays(daysBefore);
-        MonthDay targetMonthDay = MonthDay.from(targetDate);
-
-        List<Contact> contacts = contactRepository.findByUserId(user.getId());
-        for (Contact contact : contacts) {
-            if (contact.getBirthday() != null && MonthDay.from(contact.getBirthday()).equals(targetMonthDay)) {
-                if (!hasActiveReminder(user.getId(), contact.getId(), Reminder.ReminderType.BIRTHDAY)) {
-                    createReminder(user.getId(), contact.getId(), Reminder.ReminderType.BIRTHDAY,
-                            LocalDateTime.of(LocalDate.now(), LocalTime.of(9, 0)));
-                }
-            }
-        }
-    }
-
-    private void generateAnniversaryReminders(User user) {
-        int daysBefore = getAnniversaryReminderDays(user);
-        LocalDate targetDate = LocalDate.now().plusDays(daysBefore);
-        MonthDay targetMonthDay = MonthDay.from(targetDate);
-
-        List<Contact> contacts = contactRepository.findByUserId(user.getId());
-        for (Contact contact : contacts) {
-            if (contact.getAnniversary() != null && MonthDay.from(contact.getAnniversary()).equals(targetMonthDay)) {
-                if (!hasActiveReminder(user.getId(), contact.getId(), Reminder.ReminderType.ANNIVERSARY)) {
-                    createReminder(user.getId(), contact.getId(), Reminder.ReminderType.ANNIVERSARY,
-                            LocalDateTime.of(LocalDate.now(), LocalTime.of(9, 0)));
-                }
-            }
-        }
-    }
-
-    private void generateNoContactReminders(User user) {
-        int noContactDays = getDefaultFollowupDays(user);
-        LocalDateTime threshold = LocalDateTime.now().minusDays(noContactDays);
-
-        List<Contact> contacts = contactRepository.findByUserId(user.getId());
-        for (Contact contact : contacts) {
-            if (contact.getLastContactedAt() == null || contact.getLastContactedAt().isBefore(threshold)) {
-                if (!hasActiveReminder(user.getId(), contact.getId(), Reminder.ReminderType.NO_CONTACT)) {
-                    createReminder(user.getId(), contact.getId(), Reminder.ReminderType.NO_CONTACT,
-                            LocalDateTime.of(LocalDate.now(), LocalTime.of(9, 0)));
-                }
-            }
-        }
+    private void createReminder(String userId, String contactId, Reminder.ReminderType type, LocalDateTime scheduledAt) {
+        Reminder reminder = reminderRepository.save(newReminder(userId, contactId, type, scheduledAt));
+        eventPublisher.publishEvent(ReminderCreatedEvent.of(reminder));
     }
 
-    private void createReminder(String userId, String contactId, Reminder.ReminderType type, LocalDateTime scheduledAt) {
+    Reminder newReminder(String userId, String contactId, Reminder.ReminderType type, LocalDateTime scheduledAt) {
         Reminder reminder = new Reminder();
         reminder.setUserId(userId);
         reminder.setContactId(contactId);
         reminder.setType(type);
         reminder.setScheduledAt(scheduledAt);
         reminder.setStatus(Reminder.ReminderStatus.PENDING);
-        reminderRepository.save(reminder);
+        return reminder;
+    }
+
+    /**
+     * The user's zone, or the server's when none is set or it is not a known zone id.
+     */
+    static ZoneId zoneOf(String timezone) {
+        if (timezone == null || timezone.isBlank()) return ZoneId.systemDefault();
+        try {
+            return ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            return ZoneId.systemDefault();
+        }
     }
 
-    private boolean hasActiveReminder(String userId, String contactId, Reminder.ReminderType type) {
-        return reminderRepository.findByUserIdAndStatus(userId, Reminder.ReminderStatus.PENDING).stream()
-                .anyMatch(r -> r.getContactId().equals(contactId) && r.getType() == type);
+    /**
+     * Reminder time on a day in the user's zone, as the server-local time stored in scheduledAt.
+     */
+    static LocalDateTime reminderAt(LocalDate day, ZoneId zone) {
+        return day.atTime(REMINDER_TIME).atZone(zone).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    private LocalDateTime nextReminderAt(LocalDate date, int daysBefore, ZoneId zone) {
+        LocalDate today = LocalDate.now(zone);
+        LocalDate reminderDate = getNextOccurrence(date, today).minusDays(daysBefore);
+        if (reminderDate.isBefore(today)) {
+            reminderDate = getNextOccurrence(date, today);
+        }
+        return reminderAt(reminderDate, zone);
     }
 
-    private LocalDate getNextOccurrence(LocalDate date) {
-        LocalDate thisYear = date.withYear(LocalDate.now().getYear());
-        if (thisYear.isBefore(LocalDate.now())) {
+    private LocalDate getNextOccurrence(LocalDate date, LocalDate today) {
+        LocalDate thisYear = date.withYear(today.getYear());
+        if (thisYear.isBefore(today)) {
             return thisYear.plusYears(1);
         }
         return thisYear;
     }
 
-    private int getBirthdayReminderDays(User user) {
+    int getBirthdayReminderDays(User user) {
         return getSettingInt(user, "birthdayReminderDays", 2);
     }
 
-    private int getAnniversaryReminderDays(User user) {
+    int getAnniversaryReminderDays(User user) {
         return getSettingInt(user, "anniversaryReminderDays", 2);
     }
 
-    private int getDefaultFollowupDays(User user) {
+    int getDefaultFollowupDays(User user) {
         return getSettingInt(user, "defaultFollowupDays", 30);
     }
 
+    /**
+     * How often the user wants the reminder digest email: "daily", "weekly" or "off". Digests are
+     * opt-in, so it is "off" unless the user's "digest" setting asks for one, and also whenever
+     * email notifications are turned off.
+     */
+    String getDigestFrequency(User user) {
+        if (user.getSettings() == null) return "off";
+        try {
+            JsonNode node = objectMapper.readTree(user.getSettings());
+            if (!node.path("notificationPrefs").path("email").asBoolean(true)) return "off";
+            return node.path("digest").asText("off").toLowerCase();
+        } catch (JsonProcessingException e) {
+            return "off";
+        }
+    }
+
     private int getSettingInt(User user, String key, int defaultValue) {
         if (user.getSettings() == null) return defaultValue;
         try {
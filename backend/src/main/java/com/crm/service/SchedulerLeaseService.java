@@ -0,0 +1,141 @@
+package com.crm.service;
+
+import com.crm.entity.JobShard;
+import com.crm.entity.JobShard.ShardStatus;
+import com.crm.entity.SchedulerLease;
+import com.crm.repository.JobShardRepository;
+import com.crm.repository.SchedulerLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Coordinates scheduled jobs between instances through the database, so no lock service is
+ * needed.
+ *
+ * A lease (scheduler_leases) is a named lock with an expiry: whoever takes it first runs the
+ * guarded step, and the others skip it until it expires. It is never released early, so
+ * instances whose cron fires a little later do not repeat the step. Job shards (job_shards)
+ * split one run into slices that any instance can claim; a claimed shard carries a lease the
+ * worker keeps extending, and a shard whose lease runs out is claimable again, up to a number
+ * of attempts. Every call is its own short transaction.
+ */
+@Service
+public class SchedulerLeaseService {
+    private static final Logger log = LoggerFactory.getLogger(SchedulerLeaseService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final JobShardRepository shardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId;
+
+    public SchedulerLeaseService(SchedulerLeaseRepository leaseRepository, JobShardRepository shardRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.leaseRepository = leaseRepository;
+        this.shardRepository = shardRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.instanceId = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Takes the named lease for {@code lockFor} unless another instance holds it.
+     */
+    public boolean tryAcquire(String name, Duration lockFor) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (leaseRepository.acquire(name, instanceId, now, now.plus(lockFor)) > 0) return true;
+                if (leaseRepository.existsById(name)) return false;
+                entityManager.persist(new SchedulerLease(name, instanceId, now, now.plus(lockFor)));
+                entityManager.flush();
+                return true;
+            }));
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            // Another instance created the lease first
+            return false;
+        }
+    }
+
+    /**
+     * Creates shards {@code first} to {@code first + count - 1} of a run split into
+     * {@code shardCount}, unless they already exist.
+     */
+    public void createShards(String job, LocalDate runDate, int first, int count, int shardCount) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (shardRepository.existsByJobAndRunDateAndShard(job, runDate, first)) return;
+                List<JobShard> shards = new ArrayList<>();
+                for (int shard = first; shard < first + count; shard++) {
+                    shards.add(new JobShard(job, runDate, shard, shardCount));
+                }
+                shardRepository.saveAll(shards);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Shards of {} for {} were created by another instance", job, runDate);
+        }
+    }
+
+    /**
+     * Claims the first shard of a run since {@code since} that is pending or was abandoned.
+     */
+    public Optional<JobShard> claimNext(String job, LocalDate since, Duration lease, int maxAttempts) {
+        LocalDateTime now = LocalDateTime.now();
+        for (JobShard shard : shardRepository.findClaimable(job, since, maxAttempts, now,
+                ShardStatus.PENDING, ShardStatus.RUNNING)) {
+            Integer claimed = transactionTemplate.execute(status -> shardRepository.claim(shard.getId(), instanceId,
+                    now, now.plus(lease), maxAttempts, ShardStatus.PENDING, ShardStatus.RUNNING));
+            if (claimed != null && claimed > 0) return Optional.of(shard);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Extends the lease on a shard this instance holds; false if it has been claimed by another.
+     */
+    public boolean extend(JobShard shard, Duration lease) {
+        Integer extended = transactionTemplate.execute(status -> shardRepository.extend(shard.getId(), instanceId,
+                LocalDateTime.now().plus(lease), ShardStatus.RUNNING));
+        return extended != null && extended > 0;
+    }
+
+    public void complete(JobShard shard) {
+        transactionTemplate.executeWithoutResult(status -> shardRepository.complete(shard.getId(), instanceId,
+                ShardStatus.DONE, LocalDateTime.now()));
+    }
+
+    public void deleteShardsBefore(String job, LocalDate before) {
+        transactionTemplate.executeWithoutResult(status -> shardRepository.deleteByJobAndRunDateBefore(job, before));
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
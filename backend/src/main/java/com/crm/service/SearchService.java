@@ -3,10 +3,17 @@ package com.crm.service;
 import com.crm.dto.ContactDto;
 import com.crm.entity.Contact;
 import com.crm.repository.ContactRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.crm.repository.ContactSearchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -16,22 +23,41 @@ import java.util.stream.Collectors;
  * - Add embedding generation for semantic search
  * - Integrate with vector database (Pinecone, Weaviate, etc.)
  * - Add LLM-based query understanding
- * - Implement relevance scoring beyond simple LIKE matching
+ *
+ * Queries are answered from the in-memory {@link ContactSearchIndex} when the user's index is
+ * loaded. Otherwise matching and ranking run in the database through {@link ContactSearchRepository}
+ * (MySQL FULLTEXT, PostgreSQL tsvector or an H2 LIKE fallback, see app.search.backend).
  */
 @Service
 public class SearchService {
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
     private final ContactRepository contactRepository;
-    private final ObjectMapper objectMapper;
+    private final ContactSearchRepository contactSearchRepository;
+    private final ContactSearchIndex contactSearchIndex;
+    private final ContactValues contactValues;
 
-    public SearchService(ContactRepository contactRepository, ObjectMapper objectMapper) {
+    public SearchService(ContactRepository contactRepository, ContactSearchRepository contactSearchRepository,
+                         ContactSearchIndex contactSearchIndex, ContactValues contactValues) {
         this.contactRepository = contactRepository;
-        this.objectMapper = objectMapper;
+        this.contactSearchRepository = contactSearchRepository;
+        this.contactSearchIndex = contactSearchIndex;
+        this.contactValues = contactValues;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureSearchIndex() {
+        try {
+            contactSearchRepository.ensureIndex();
+        } catch (Exception e) {
+            log.warn("Could not create contact search index: {}", e.getMessage());
+        }
     }
 
     /**
-     * Search contacts using keyword matching across multiple fields.
+     * Search contacts using the in-memory index, or the database full-text index as a fallback.
      * Fields searched: name, email, phone, company, tags, notes
-     * Results ordered by most recently updated.
+     * Results ordered by relevance, then by most recently updated.
      *
      * @param userId The authenticated user's ID
      * @param query The search query string
@@ -39,79 +65,35 @@ public class SearchService {
      * @return List of matching contacts
      */
     public List<ContactDto> searchContacts(String userId, String query, int limit) {
-        String lowerQuery = query.toLowerCase();
-
-        // Get all user's contacts and filter in memory
-        // For larger datasets, this should use a native ILIKE query
-        List<Contact> contacts = contactRepository.findByUserId(userId);
-
+        Optional<List<String>> ids = contactSearchIndex.search(userId, query, limit, false);
+        List<Contact> contacts = ids.isPresent()
+                ? loadInOrder(ids.get())
+                : contactSearchRepository.search(userId, query, limit);
         return contacts.stream()
-                .filter(c -> matchesQuery(c, lowerQuery))
-                .sorted((a, b) -> {
-                    // Order by most recently updated (descending)
-                    if (a.getUpdatedAt() == null && b.getUpdatedAt() == null) return 0;
-                    if (a.getUpdatedAt() == null) return 1;
-                    if (b.getUpdatedAt() == null) return -1;
-                    return b.getUpdatedAt().compareTo(a.getUpdatedAt());
-                })
-                .limit(limit)
                 .map(this::toDto)
                 .collect(Collectors.toList());
     }
 
-    private boolean matchesQuery(Contact c, String query) {
-        // Check name
-        if (c.getName() != null && c.getName().toLowerCase().contains(query)) {
-            return true;
-        }
-
-        // Check company
-        if (c.getCompany() != null && c.getCompany().toLowerCase().contains(query)) {
-            return true;
-        }
-
-        // Check emails (stored as JSON array)
-        List<String> emails = parseJson(c.getEmails());
-        for (String email : emails) {
-            if (email.toLowerCase().contains(query)) {
-                return true;
-            }
-        }
-
-        // Check phones (stored as JSON array)
-        List<String> phones = parseJson(c.getPhones());
-        for (String phone : phones) {
-            if (phone.contains(query)) {
-                return true;
-            }
-        }
-
-        // Check tags (stored as JSON array)
-        List<String> tags = parseJson(c.getTags());
-        for (String tag : tags) {
-            if (tag.toLowerCase().contains(query)) {
-                return true;
-            }
-        }
-
-        // Check notes
-        if (c.getNotes() != null && c.getNotes().toLowerCase().contains(query)) {
-            return true;
-        }
-
-        return false;
+    /**
+     * Loads contacts by id in one query and returns them in the order of {@code ids}.
+     */
+    List<Contact> loadInOrder(List<String> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<String, Contact> byId = contactRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Contact::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     private ContactDto toDto(Contact c) {
         ContactDto dto = new ContactDto();
         dto.setId(c.getId());
         dto.setName(c.getName());
-        dto.setEmails(parseJson(c.getEmails()));
-        dto.setPhones(parseJson(c.getPhones()));
+        dto.setEmails(contactValues.emails(c));
+        dto.setPhones(contactValues.phones(c));
         dto.setWhatsappNumber(c.getWhatsappNumber());
         dto.setInstagramHandle(c.getInstagramHandle());
         dto.setCompany(c.getCompany());
-        dto.setTags(parseJson(c.getTags()));
+        dto.setTags(contactValues.tags(c));
         dto.setAddress(c.getAddress());
         dto.setNotes(c.getNotes());
         dto.setBirthday(c.getBirthday() != null ? c.getBirthday().toString() : null);
@@ -122,13 +104,4 @@ public class SearchService {
         dto.setUpdatedAt(c.getUpdatedAt() != null ? c.getUpdatedAt().toString() : null);
         return dto;
     }
-
-    @SuppressWarnings("unchecked")
-    private List<String> parseJson(String json) {
-        try {
-            return json != null ? objectMapper.readValue(json, List.class) : List.of();
-        } catch (JsonProcessingException e) {
-            return List.of();
-        }
-    }
 }
@@ -13,8 +13,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,13 +22,18 @@ public class ShareService {
     private final ContactRepository contactRepository;
     private final UserRepository userRepository;
     private final ReminderService reminderService;
+    private final ContactValues contactValues;
+    private final ActivityLog activityLog;
 
     public ShareService(ShareRepository shareRepository, ContactRepository contactRepository,
-                        UserRepository userRepository, ReminderService reminderService) {
+                        UserRepository userRepository, ReminderService reminderService,
+                        ContactValues contactValues, ActivityLog activityLog) {
         this.shareRepository = shareRepository;
         this.contactRepository = contactRepository;
         this.userRepository = userRepository;
         this.reminderService = reminderService;
+        this.contactValues = contactValues;
+        this.activityLog = activityLog;
     }
 
     @Transactional
@@ -63,6 +66,7 @@ public class ShareService {
         share.setNote(dto.getNote());
 
         share = shareRepository.save(share);
+        activityLog.recordShare(share, sharedWithUser);
 
         // Create notification for the user receiving the shared contact
         reminderService.createShareNotification(sharedWithUser.getId(), dto.getContactId());
@@ -177,12 +181,12 @@ public class ShareService {
         ContactDto dto = new ContactDto();
         dto.setId(contact.getId());
         dto.setName(contact.getName());
-        dto.setEmails(parseJsonArray(contact.getEmails()));
-        dto.setPhones(parseJsonArray(contact.getPhones()));
+        dto.setEmails(contactValues.emails(contact));
+        dto.setPhones(contactValues.phones(contact));
         dto.setWhatsappNumber(contact.getWhatsappNumber());
         dto.setInstagramHandle(contact.getInstagramHandle());
         dto.setCompany(contact.getCompany());
-        dto.setTags(parseJsonArray(contact.getTags()));
+        dto.setTags(contactValues.tags(contact));
         dto.setAddress(contact.getAddress());
         dto.setNotes(contact.getNotes());
         dto.setBirthday(contact.getBirthday() != null ? contact.getBirthday().toString() : null);
@@ -196,22 +200,4 @@ public class ShareService {
                 contact.getUpdatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
         return dto;
     }
-
-    private List<String> parseJsonArray(String json) {
-        if (json == null || json.isEmpty()) {
-            return Collections.emptyList();
-        }
-        // Simple JSON array parsing - remove brackets and split by comma
-        String trimmed = json.trim();
-        if (trimmed.startsWith("[") && trimmed.endsWith("]")) {
-            trimmed = trimmed.substring(1, trimmed.length() - 1);
-        }
-        if (trimmed.isEmpty()) {
-            return Collections.emptyList();
-        }
-        return Arrays.stream(trimmed.split(","))
-                .map(s -> s.trim().replaceAll("^\"|\"$", ""))
-                .filter(s -> !s.isEmpty())
-                .collect(Collectors.toList());
-    }
 }
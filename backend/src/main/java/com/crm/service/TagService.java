@@ -3,32 +3,40 @@ package com.crm.service;
 import com.crm.dto.TagDto;
 import com.crm.entity.Contact;
 import com.crm.entity.Tag;
+import com.crm.event.ContactChangedEvent;
 import com.crm.repository.ContactRepository;
 import com.crm.repository.TagRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class TagService {
     private final TagRepository tagRepository;
     private final ContactRepository contactRepository;
-    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ContactValues contactValues;
 
-    public TagService(TagRepository tagRepository, ContactRepository contactRepository, ObjectMapper objectMapper) {
+    public TagService(TagRepository tagRepository, ContactRepository contactRepository,
+                      ApplicationEventPublisher eventPublisher, ContactValues contactValues) {
         this.tagRepository = tagRepository;
         this.contactRepository = contactRepository;
-        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.contactValues = contactValues;
     }
 
     public List<TagDto> getAll(String userId) {
-        List<Contact> contacts = contactRepository.findByUserId(userId);
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : contactRepository.countContactsByTag(userId)) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
         return tagRepository.findByUserId(userId).stream()
-                .map(tag -> toDto(tag, countContactsWithTag(contacts, tag.getName())))
+                .map(tag -> toDto(tag, counts.getOrDefault(tag.getName(), 0L)))
                 .collect(Collectors.toList());
     }
 
@@ -36,8 +44,7 @@ public class TagService {
         Tag tag = tagRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Tag not found"));
         if (!tag.getUserId().equals(userId)) throw new RuntimeException("Access denied");
-        List<Contact> contacts = contactRepository.findByUserId(userId);
-        return toDto(tag, countContactsWithTag(contacts, tag.getName()));
+        return toDto(tag, contactRepository.countByUserIdAndTag(userId, tag.getName()));
     }
 
     @Transactional
@@ -75,8 +82,7 @@ public class TagService {
             updateTagNameInContacts(userId, oldName, dto.getName());
         }
 
-        List<Contact> contacts = contactRepository.findByUserId(userId);
-        return toDto(tag, countContactsWithTag(contacts, tag.getName()));
+        return toDto(tag, contactRepository.countByUserIdAndTag(userId, tag.getName()));
     }
 
     @Transactional
@@ -93,13 +99,13 @@ public class TagService {
     private void updateTagNameInContacts(String userId, String oldName, String newName) {
         List<Contact> contacts = contactRepository.findByUserId(userId);
         for (Contact contact : contacts) {
-            List<String> tags = parseJsonArray(contact.getTags());
+            List<String> tags = contactValues.tags(contact);
             if (tags.contains(oldName)) {
                 tags = tags.stream()
                         .map(t -> t.equals(oldName) ? newName : t)
                         .collect(Collectors.toList());
-                contact.setTags(toJson(tags));
-                contactRepository.save(contact);
+                contactValues.setTags(contact, tags);
+                eventPublisher.publishEvent(ContactChangedEvent.updated(contactRepository.save(contact)));
             }
         }
     }
@@ -107,21 +113,15 @@ public class TagService {
     private void removeTagFromContacts(String userId, String tagName) {
         List<Contact> contacts = contactRepository.findByUserId(userId);
         for (Contact contact : contacts) {
-            List<String> tags = parseJsonArray(contact.getTags());
+            List<String> tags = contactValues.tags(contact);
             if (tags.contains(tagName)) {
                 tags = tags.stream().filter(t -> !t.equals(tagName)).collect(Collectors.toList());
-                contact.setTags(toJson(tags));
-                contactRepository.save(contact);
+                contactValues.setTags(contact, tags);
+                eventPublisher.publishEvent(ContactChangedEvent.updated(contactRepository.save(contact)));
             }
         }
     }
 
-    private long countContactsWithTag(List<Contact> contacts, String tagName) {
-        return contacts.stream()
-                .filter(c -> parseJsonArray(c.getTags()).contains(tagName))
-                .count();
-    }
-
     private TagDto toDto(Tag tag, long contactCount) {
         TagDto dto = new TagDto();
         dto.setId(tag.getId());
@@ -132,21 +132,4 @@ public class TagService {
         dto.setCreatedAt(tag.getCreatedAt() != null ? tag.getCreatedAt().toString() : null);
         return dto;
     }
-
-    @SuppressWarnings("unchecked")
-    private List<String> parseJsonArray(String json) {
-        try {
-            return json != null ? objectMapper.readValue(json, List.class) : List.of();
-        } catch (JsonProcessingException e) {
-            return List.of();
-        }
-    }
-
-    private String toJson(List<String> list) {
-        try {
-            return objectMapper.writeValueAsString(list);
-        } catch (JsonProcessingException e) {
-            return "[]";
-        }
-    }
 }
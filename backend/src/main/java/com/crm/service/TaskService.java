@@ -19,10 +19,12 @@ import java.util.stream.Collectors;
 public class TaskService {
     private final TaskRepository taskRepository;
     private final ContactRepository contactRepository;
+    private final ActivityLog activityLog;
 
-    public TaskService(TaskRepository taskRepository, ContactRepository contactRepository) {
+    public TaskService(TaskRepository taskRepository, ContactRepository contactRepository, ActivityLog activityLog) {
         this.taskRepository = taskRepository;
         this.contactRepository = contactRepository;
+        this.activityLog = activityLog;
     }
 
     public List<TaskDto> getAll(String userId) {
@@ -82,6 +84,7 @@ public class TaskService {
             task.setDueDate(LocalDate.parse(dto.getDueDate()));
         }
         task = taskRepository.save(task);
+        activityLog.recordTask(task, true);
         return toDto(task);
     }
 
@@ -107,6 +110,7 @@ public class TaskService {
         }
 
         task = taskRepository.save(task);
+        activityLog.recordTask(task, false);
         return toDto(task);
     }
 
@@ -119,6 +123,7 @@ public class TaskService {
         task.setStatus(TaskStatus.COMPLETED);
         task.setCompletedAt(LocalDateTime.now());
         task = taskRepository.save(task);
+        activityLog.recordTask(task, false);
         return toDto(task);
     }
 
@@ -128,6 +133,7 @@ public class TaskService {
                 .orElseThrow(() -> new RuntimeException("Task not found"));
         if (!task.getUserId().equals(userId)) throw new RuntimeException("Access denied");
         taskRepository.delete(task);
+        activityLog.removeTask(id);
     }
 
     public TaskStatsDto getStats(String userId) {
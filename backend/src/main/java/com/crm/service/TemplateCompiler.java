@@ -0,0 +1,66 @@
+package com.crm.service;
+
+import com.crm.entity.Contact;
+import com.crm.entity.MessageTemplate;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Compiled {@link MessageTemplate} content, cached by template id and version so each version is
+ * parsed once however often it is rendered. Editing the content bumps the version, so a stale
+ * entry is never used and simply ages out of the app.templates.cache-size bound.
+ *
+ * Templates are personalized with a contact's fields: {name}, {firstName}, {lastName},
+ * {company} and {email} (the first address). Unknown fields are left in the text as written.
+ */
+@Component
+public class TemplateCompiler {
+    private final Cache<String, CompiledTemplate> cache;
+    private final ContactValues contactValues;
+
+    public TemplateCompiler(ContactValues contactValues, MeterRegistry meterRegistry,
+                            @Value("${app.templates.cache-size:10000}") long cacheSize) {
+        this.contactValues = contactValues;
+        this.cache = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "templates");
+    }
+
+    public CompiledTemplate compile(MessageTemplate template) {
+        return cache.get(template.getId() + ":" + template.getVersion(), key -> CompiledTemplate.compile(template.getContent()));
+    }
+
+    /**
+     * Field values of the contact for {@link CompiledTemplate#render}.
+     */
+    public Function<String, String> fieldsOf(Contact contact) {
+        return field -> {
+            switch (field) {
+                case "name": return contact.getName();
+                case "firstName": return firstName(contact.getName());
+                case "lastName": return lastName(contact.getName());
+                case "company": return contact.getCompany() != null ? contact.getCompany() : "";
+                case "email": {
+                    List<String> emails = contactValues.emails(contact);
+                    return emails.isEmpty() ? "" : emails.get(0);
+                }
+                default: return null;
+            }
+        };
+    }
+
+    static String firstName(String name) {
+        int space = name.indexOf(' ');
+        return space < 0 ? name : name.substring(0, space);
+    }
+
+    static String lastName(String name) {
+        int space = name.lastIndexOf(' ');
+        return space < 0 ? "" : name.substring(space + 1);
+    }
+}
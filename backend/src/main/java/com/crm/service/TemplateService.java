@@ -1,20 +1,35 @@
 package com.crm.service;
 
 import com.crm.dto.TemplateDto;
+import com.crm.entity.Contact;
 import com.crm.entity.MessageTemplate;
+import com.crm.repository.ContactRepository;
 import com.crm.repository.MessageTemplateRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class TemplateService {
+    // Contacts loaded per query when rendering for a group
+    private static final int RENDER_BATCH_SIZE = 500;
+
     private final MessageTemplateRepository templateRepository;
+    private final ContactRepository contactRepository;
+    private final ContactGroupService groupService;
+    private final TemplateCompiler templateCompiler;
 
-    public TemplateService(MessageTemplateRepository templateRepository) {
+    public TemplateService(MessageTemplateRepository templateRepository, ContactRepository contactRepository,
+                           ContactGroupService groupService, TemplateCompiler templateCompiler) {
         this.templateRepository = templateRepository;
+        this.contactRepository = contactRepository;
+        this.groupService = groupService;
+        this.templateCompiler = templateCompiler;
     }
 
     public List<TemplateDto.TemplateResponse> getTemplates(String userId) {
@@ -68,14 +83,62 @@ public class TemplateService {
         if (dto.getType() != null) {
             template.setType(MessageTemplate.TemplateType.valueOf(dto.getType().toUpperCase()));
         }
-        if (dto.getContent() != null) {
+        if (dto.getContent() != null && !dto.getContent().equals(template.getContent())) {
             template.setContent(dto.getContent());
+            template.setVersion(template.getVersion() + 1);
         }
 
         template = templateRepository.save(template);
         return TemplateDto.TemplateResponse.from(template);
     }
 
+    @Transactional(readOnly = true)
+    public TemplateDto.RenderedMessage renderForContact(String userId, String templateId, String contactId) {
+        CompiledTemplate compiled = templateCompiler.compile(getOwnTemplate(userId, templateId));
+        Contact contact = contactRepository.findById(contactId)
+                .orElseThrow(() -> new RuntimeException("Contact not found"));
+        if (!contact.getUserId().equals(userId)) throw new RuntimeException("Access denied");
+        return new TemplateDto.RenderedMessage(contact.getId(), contact.getName(),
+                compiled.render(templateCompiler.fieldsOf(contact)));
+    }
+
+    /**
+     * The template personalized for every contact of the group, in the group's order. The
+     * template is compiled once and the contacts are loaded RENDER_BATCH_SIZE at a time.
+     */
+    @Transactional(readOnly = true)
+    public List<TemplateDto.RenderedMessage> renderForGroup(String userId, String templateId, String groupId) {
+        CompiledTemplate compiled = templateCompiler.compile(getOwnTemplate(userId, templateId));
+        List<String> contactIds = groupService.getGroupContactIds(groupId, userId);
+        List<TemplateDto.RenderedMessage> messages = new ArrayList<>(contactIds.size());
+        StringBuilder out = new StringBuilder(256);
+        for (int i = 0; i < contactIds.size(); i += RENDER_BATCH_SIZE) {
+            List<String> batch = contactIds.subList(i, Math.min(i + RENDER_BATCH_SIZE, contactIds.size()));
+            Map<String, Contact> contacts = new HashMap<>();
+            for (Contact contact : contactRepository.findAllById(batch)) {
+                if (contact.getUserId().equals(userId)) contacts.put(contact.getId(), contact);
+            }
+            for (String contactId : batch) {
+                // Deleted since it was added to the group
+                Contact contact = contacts.get(contactId);
+                if (contact == null) continue;
+                out.setLength(0);
+                compiled.renderTo(out, templateCompiler.fieldsOf(contact));
+                messages.add(new TemplateDto.RenderedMessage(contact.getId(), contact.getName(), out.toString()));
+            }
+        }
+        return messages;
+    }
+
+    private MessageTemplate getOwnTemplate(String userId, String templateId) {
+        MessageTemplate template = templateRepository.findById(templateId)
+                .orElseThrow(() -> new RuntimeException("Template not found"));
+        if (!template.getUserId().equals(userId)) {
+            throw new RuntimeException("Access denied");
+        }
+        return template;
+    }
+
     @Transactional
     public void deleteTemplate(String userId, String templateId) {
         MessageTemplate template = templateRepository.findById(templateId)
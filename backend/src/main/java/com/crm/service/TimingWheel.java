@@ -0,0 +1,81 @@
+package com.crm.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel: each level is a ring of buckets {@code tickMs} wide, and entries
+ * further out than one revolution go to a coarser level whose tick is this level's whole span.
+ * Adding is O(1); advancing the clock by one tick touches a single bucket per level, and entries
+ * from a coarser bucket are re-added one level down as their time nears. Not thread-safe.
+ */
+final class TimingWheel<T> {
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final List<List<Entry<T>>> buckets;
+    private long currentTime;
+    private TimingWheel<T> overflow;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentTime = startMs - startMs % tickMs;
+    }
+
+    /**
+     * Schedules the item for {@code dueMs}; returns false, without scheduling it, if it is due
+     * within the current tick.
+     */
+    boolean add(T item, long dueMs) {
+        return add(new Entry<>(item, dueMs));
+    }
+
+    /**
+     * Moves the clock to {@code nowMs} and passes every item that came due to {@code due}.
+     */
+    void advance(long nowMs, Consumer<T> due) {
+        advanceLevel(nowMs, entry -> {
+            if (!add(entry)) due.accept(entry.item);
+        });
+    }
+
+    private boolean add(Entry<T> entry) {
+        if (entry.dueMs < currentTime + tickMs) return false;
+        if (entry.dueMs < currentTime + interval) {
+            buckets.get((int) ((entry.dueMs / tickMs) % wheelSize)).add(entry);
+            return true;
+        }
+        if (overflow == null) overflow = new TimingWheel<>(interval, wheelSize, currentTime);
+        return overflow.add(entry);
+    }
+
+    private void advanceLevel(long nowMs, Consumer<Entry<T>> flush) {
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            int index = (int) ((currentTime / tickMs) % wheelSize);
+            List<Entry<T>> bucket = buckets.get(index);
+            if (!bucket.isEmpty()) {
+                buckets.set(index, new ArrayList<>());
+                bucket.forEach(flush);
+            }
+            if (overflow != null) overflow.advanceLevel(currentTime, flush);
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long dueMs;
+
+        Entry(T item, long dueMs) {
+            this.item = item;
+            this.dueMs = dueMs;
+        }
+    }
+}